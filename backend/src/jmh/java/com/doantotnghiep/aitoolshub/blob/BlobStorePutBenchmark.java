@@ -0,0 +1,61 @@
+package com.doantotnghiep.aitoolshub.blob;
+
+import com.google.cloud.storage.contrib.nio.testing.LocalStorageHelper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.FileSystemUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Upload path of both stores: {@link GcsBlobStore} against the in-memory storage fake, which
+ * isolates the client-side cost from the network, and {@link LocalBlobStore} on a temp directory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms512m", "-Xmx512m"})
+public class BlobStorePutBenchmark {
+
+    @Param({"16384", "1048576"})
+    public int size;
+
+    private GcsBlobStore gcsBlobStore;
+    private LocalBlobStore localBlobStore;
+    private Path localRoot;
+    private byte[] content;
+    private long sequence;
+
+    @Setup
+    public void setUp() throws Exception {
+        gcsBlobStore = new GcsBlobStore(LocalStorageHelper.getOptions().getService(), "benchmark", null);
+        localRoot = Files.createTempDirectory("blob-benchmark");
+        localBlobStore = new LocalBlobStore(localRoot.toString(), "http://localhost/blobs/", false, 1048576, "secret");
+        content = new byte[size];
+        ThreadLocalRandom.current().nextBytes(content);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        FileSystemUtils.deleteRecursively(localRoot);
+    }
+
+    // Keys cycle over a fixed set so the fake and the directory tree stop growing after warmup
+    private String nextKey() {
+        return "images/1/" + (sequence++ % 1000) + ".jpg";
+    }
+
+    @Benchmark
+    public String gcsPut() {
+        return gcsBlobStore.put(nextKey(), content);
+    }
+
+    @Benchmark
+    public String localPut() {
+        return localBlobStore.put(nextKey(), content);
+    }
+}
@@ -0,0 +1,120 @@
+package com.doantotnghiep.aitoolshub.service;
+
+import com.doantotnghiep.aitoolshub.admission.AdmissionControl;
+import com.doantotnghiep.aitoolshub.config.AiClientRegistry;
+import com.doantotnghiep.aitoolshub.entity.User;
+import com.doantotnghiep.aitoolshub.metrics.ToolMetrics;
+import com.doantotnghiep.aitoolshub.model.ChatbotRequest;
+import com.doantotnghiep.aitoolshub.model.GeminiRequest;
+import com.doantotnghiep.aitoolshub.repository.ChatbotHistoryRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gemini request assembly for a conversation of {@code turns} prior exchanges, and text extraction
+ * from a realistic Gemini response (safety ratings, usage metadata and a multi-paragraph answer).
+ * {@code extractTextFromTree} is the former approach of binding the whole response to a
+ * {@code Map} and walking it; {@code extractTextFromResponse} is the streaming parser now in use.
+ * Run with the GC profiler to compare the allocation per request ({@code gc.alloc.rate.norm}):
+ * <pre>
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="ChatbotBenchmark.extract -prof gc -p turns=0"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms512m", "-Xmx512m"})
+public class ChatbotBenchmark {
+
+    static final String GEMINI_RESPONSE = """
+            {
+              "candidates": [{
+                "content": {
+                  "parts": [{"text": "%s"}],
+                  "role": "model"
+                },
+                "finishReason": "STOP",
+                "index": 0,
+                "safetyRatings": [
+                  {"category": "HARM_CATEGORY_SEXUALLY_EXPLICIT", "probability": "NEGLIGIBLE"},
+                  {"category": "HARM_CATEGORY_HATE_SPEECH", "probability": "NEGLIGIBLE"},
+                  {"category": "HARM_CATEGORY_HARASSMENT", "probability": "NEGLIGIBLE"},
+                  {"category": "HARM_CATEGORY_DANGEROUS_CONTENT", "probability": "NEGLIGIBLE"}
+                ]
+              }],
+              "usageMetadata": {"promptTokenCount": 812, "candidatesTokenCount": 410, "totalTokenCount": 1222},
+              "modelVersion": "gemini-2.5-flash"
+            }
+            """.formatted(("Here is a detailed explanation of the topic you asked about. "
+            + "It covers the background, the main ideas and a worked example.\\n\\n").repeat(12));
+
+    @Param({"0", "10", "40"})
+    public int turns;
+
+    private ChatbotService chatbotService;
+    private User user;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private ChatbotRequest request;
+    private byte[] response;
+
+    @Setup
+    public void setUp() throws Exception {
+        ChatbotHistoryRepository repository = Mockito.mock(ChatbotHistoryRepository.class);
+        ConversationStore conversationStore = new ConversationStore(repository, 4000, 300, 5000, 3600000);
+        chatbotService = new ChatbotService(
+                new AiClientRegistry(WebClient.builder(), RestClient.builder(), new MockEnvironment()),
+                Mockito.mock(HistoryWriter.class),
+                repository,
+                Mockito.mock(CurrentUserService.class),
+                conversationStore,
+                new ToolMetrics(new AdmissionControl(new MockEnvironment())),
+                "key", "http://localhost/generate", "http://localhost/stream");
+
+        user = new User();
+        user.setId(1L);
+        List<ChatbotRequest.Message> messages = new ArrayList<>();
+        for (int i = 0; i < turns; i++) {
+            messages.add(new ChatbotRequest.Message("user", "Question number " + i + " about the previous answer?"));
+            messages.add(new ChatbotRequest.Message("model", "Answer number " + i + ". "
+                    + "A few sentences of explanation that a model would typically produce. ".repeat(6)));
+        }
+        messages.add(new ChatbotRequest.Message("user", "And what about the last point?"));
+        request = new ChatbotRequest(null, null, messages);
+        // Seeds the conversation store, as the first request of an older client would
+        chatbotService.buildPayload(user, "benchmark", "And what about the last point?", request);
+
+        response = GEMINI_RESPONSE.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public GeminiRequest buildPayload() {
+        return chatbotService.buildPayload(user, "benchmark", "And what about the last point?", request);
+    }
+
+    @Benchmark
+    public String extractTextFromResponse() {
+        return chatbotService.extractTextFromResponse(response);
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public String extractTextFromTree() throws Exception {
+        Map<String, Object> tree = objectMapper.readValue(response, Map.class);
+        List<Map<String, Object>> candidates = (List<Map<String, Object>>) tree.get("candidates");
+        Map<String, Object> content = (Map<String, Object>) candidates.get(0).get("content");
+        List<Map<String, String>> parts = (List<Map<String, String>>) content.get("parts");
+        return parts.get(0).get("text");
+    }
+}
@@ -0,0 +1,120 @@
+package com.doantotnghiep.aitoolshub.service;
+
+import com.doantotnghiep.aitoolshub.model.ElevenLabsSoundRequest;
+import com.doantotnghiep.aitoolshub.model.ElevenLabsSpeechRequest;
+import com.doantotnghiep.aitoolshub.model.GeminiRequest;
+import com.doantotnghiep.aitoolshub.model.HuggingFaceImageRequest;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson cost of each upstream payload as an untyped {@code Map<String, Object>}, as the services
+ * used to build it, against the typed records they send now. Readers and writers are created once,
+ * as the codecs do. The Gemini response side is covered in {@link ChatbotBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms512m", "-Xmx512m"})
+public class PayloadSerializationBenchmark {
+
+    public record Candidate(GeminiRequest.Content content, String finishReason) {
+    }
+
+    public record ChatResponse(List<Candidate> candidates) {
+    }
+
+    @Param({"image", "speech", "music", "chat"})
+    public String payload;
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private ObjectWriter writer;
+    private ObjectReader mapReader;
+    private ObjectReader typedReader;
+    private Map<String, Object> asMap;
+    private Object asRecord;
+    private byte[] json;
+
+    @Setup
+    public void setUp() throws Exception {
+        String prompt = "A watercolor painting of a lighthouse on a cliff at sunset, soft light, high detail";
+        switch (payload) {
+            case "image" -> {
+                asMap = Map.of(
+                        "inputs", prompt,
+                        "parameters", Map.of("negative_prompt", "blurry, low quality", "num_inference_steps", 28),
+                        "options", Map.of("wait_for_model", true));
+                asRecord = new HuggingFaceImageRequest(prompt,
+                        new HuggingFaceImageRequest.Parameters("blurry, low quality", 28),
+                        new HuggingFaceImageRequest.Options(true));
+            }
+            case "speech" -> {
+                asMap = Map.of(
+                        "text", prompt,
+                        "model_id", "eleven_turbo_v2_5",
+                        "voice_settings", Map.of("speed", 1.0, "stability", 0.5, "similarity_boost", 0.75));
+                asRecord = new ElevenLabsSpeechRequest(prompt, "eleven_turbo_v2_5",
+                        new ElevenLabsSpeechRequest.VoiceSettings(1.0, 0.5, 0.75));
+            }
+            case "music" -> {
+                asMap = Map.of("text", prompt, "duration_seconds", 5.0, "prompt_influence", 0.3);
+                asRecord = new ElevenLabsSoundRequest(prompt, 5.0, 0.3);
+            }
+            default -> {
+                asMap = Map.of(
+                        "contents", List.of(
+                                Map.of("role", "user", "parts", List.of(Map.of("text", prompt))),
+                                Map.of("role", "model", "parts", List.of(Map.of("text", prompt.repeat(8)))),
+                                Map.of("role", "user", "parts", List.of(Map.of("text", prompt)))),
+                        "generationConfig", Map.of("temperature", 0.5, "maxOutputTokens", 1500));
+                asRecord = new GeminiRequest(List.of(
+                        GeminiRequest.Content.of("user", prompt),
+                        GeminiRequest.Content.of("model", prompt.repeat(8)),
+                        GeminiRequest.Content.of("user", prompt)),
+                        new GeminiRequest.GenerationConfig(0.5, 1500), null);
+            }
+        }
+        writer = objectMapper.writer();
+        mapReader = objectMapper.readerFor(new TypeReference<Map<String, Object>>() {
+        });
+        if (payload.equals("chat")) {
+            // The chatbot reads Gemini responses, so that is what the read side measures
+            json = ChatbotBenchmark.GEMINI_RESPONSE.getBytes();
+            typedReader = objectMapper.readerFor(ChatResponse.class);
+        } else {
+            json = writer.writeValueAsBytes(asMap);
+            typedReader = objectMapper.readerFor(asRecord.getClass());
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeMap() throws Exception {
+        return writer.writeValueAsBytes(asMap);
+    }
+
+    @Benchmark
+    public byte[] serializeTyped() throws Exception {
+        return writer.writeValueAsBytes(asRecord);
+    }
+
+    @Benchmark
+    public Object deserializeMap() throws Exception {
+        return mapReader.readValue(json);
+    }
+
+    @Benchmark
+    public Object deserializeTyped() throws Exception {
+        return typedReader.readValue(json);
+    }
+}
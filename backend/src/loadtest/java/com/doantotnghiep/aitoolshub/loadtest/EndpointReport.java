@@ -0,0 +1,61 @@
+package com.doantotnghiep.aitoolshub.loadtest;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Outcome of driving one endpoint. Latencies are measured from each request's scheduled send
+ * time, so a backed-up server shows up as latency instead of silently lowering the offered rate.
+ * Percentiles cover successful responses only; admission rejections (429, or 503 with
+ * Retry-After) are counted apart from errors.
+ */
+public record EndpointReport(String endpoint, double targetRate, double seconds, long sent, long ok,
+                             long rejected, long errors, double p50Millis, double p95Millis, double p99Millis,
+                             double maxMillis, long peakHeapBytes, int peakThreads) {
+
+    public static EndpointReport of(String endpoint, double targetRate, double seconds, long sent, long rejected,
+                                    long errors, long[] okLatencyNanos, long peakHeapBytes, int peakThreads) {
+        long[] sorted = okLatencyNanos.clone();
+        Arrays.sort(sorted);
+        return new EndpointReport(endpoint, targetRate, seconds, sent, sorted.length, rejected, errors,
+                percentile(sorted, 0.50), percentile(sorted, 0.95), percentile(sorted, 0.99),
+                sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1e6, peakHeapBytes, peakThreads);
+    }
+
+    public double throughput() {
+        return seconds > 0 ? ok / seconds : 0;
+    }
+
+    public double errorRate() {
+        return sent > 0 ? (double) errors / sent : 0;
+    }
+
+    public static String header() {
+        return String.format(Locale.ROOT, "%-22s %7s %8s %7s %8s %7s %9s %9s %9s %9s %9s %8s",
+                "endpoint", "target", "ok/s", "sent", "rejected", "errors", "err%", "p50 ms", "p95 ms", "p99 ms",
+                "heap MB", "threads");
+    }
+
+    public String row() {
+        return String.format(Locale.ROOT, "%-22s %7.1f %8.1f %7d %8d %7d %8.2f%% %9.1f %9.1f %9.1f %9.1f %8d",
+                endpoint, targetRate, throughput(), sent, rejected, errors, errorRate() * 100,
+                p50Millis, p95Millis, p99Millis, peakHeapBytes / 1048576.0, peakThreads);
+    }
+
+    public String toJson() {
+        return String.format(Locale.ROOT,
+                "{\"endpoint\":\"%s\",\"targetRate\":%.2f,\"seconds\":%.2f,\"sent\":%d,\"ok\":%d,\"rejected\":%d,"
+                        + "\"errors\":%d,\"throughput\":%.2f,\"errorRate\":%.4f,\"p50Ms\":%.2f,\"p95Ms\":%.2f,"
+                        + "\"p99Ms\":%.2f,\"maxMs\":%.2f,\"peakHeapBytes\":%d,\"peakThreads\":%d}",
+                endpoint, targetRate, seconds, sent, ok, rejected, errors, throughput(), errorRate(),
+                p50Millis, p95Millis, p99Millis, maxMillis, peakHeapBytes, peakThreads);
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))] / 1e6;
+    }
+}
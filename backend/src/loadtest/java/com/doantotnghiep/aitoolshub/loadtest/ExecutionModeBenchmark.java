@@ -0,0 +1,157 @@
+package com.doantotnghiep.aitoolshub.loadtest;
+
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * Compares the execution modes of the tool endpoints while many slow upstream calls are in
+ * flight: {@code reactive} (the WebClient pipelines on Tomcat), {@code virtual}
+ * ({@code spring.threads.virtual.enabled} with {@code tools.execution-mode=blocking}) and
+ * {@code webflux} (the same pipelines on Netty, as in the {@code reactive} profile).
+ * <p>
+ * Every provider stub answers after a fixed {@code loadtest.latency-ms} (default 2000) and requests
+ * arrive at {@code concurrency / latency}, so about {@code loadtest.concurrency} (default 1000)
+ * upstream calls are open at any time. Admission control is off and the provider pools are sized
+ * above that, so no mode is throttled by the application's own limits.
+ * <p>
+ * Reactor decides once per JVM whether {@code boundedElastic} uses virtual threads, so each mode
+ * runs in a fresh child JVM with the same JVM arguments (and heap) as this one:
+ * <pre>
+ * mvn -Ploadtest test-compile exec:exec -Dloadtest.main=ExecutionModeBenchmark
+ * </pre>
+ * {@code loadtest.endpoints} (default {@code model1,chatbot,text-to-speech}),
+ * {@code loadtest.duration-seconds}, {@code loadtest.warmup-seconds} and {@code loadtest.users} work as
+ * in {@link LoadTestApplication}, and {@code loadtest.modes} runs a subset of the modes. Reports for
+ * each mode are written to {@code loadtest.report-dir} (default {@code target/execution-mode}).
+ * <p>
+ * No results are checked in. The harness has not yet been run on representative hardware, and
+ * throughput, peak heap and thread counts depend on the machine, the JDK and the heap size. Run it
+ * where the service is deployed before choosing an execution mode.
+ */
+public class ExecutionModeBenchmark {
+
+    private static final List<String> MODES = List.of("reactive", "virtual", "webflux");
+
+    public static void main(String[] args) throws Exception {
+        Path reportDir = Path.of(System.getProperty("loadtest.report-dir", "target/execution-mode"));
+        String mode = System.getProperty("loadtest.mode");
+        if (mode == null) {
+            compare(reportDir);
+        } else {
+            run(mode, reportDir);
+        }
+        System.exit(0);
+    }
+
+    private static void compare(Path reportDir) throws IOException, InterruptedException {
+        Files.createDirectories(reportDir);
+        String java = ProcessHandle.current().info().command().orElse("java");
+        Map<String, List<String>> rows = new LinkedHashMap<>();
+        List<String> modes = Arrays.asList(System.getProperty("loadtest.modes", String.join(",", MODES)).split(","));
+        for (String mode : modes) {
+            List<String> command = new ArrayList<>();
+            command.add(java);
+            command.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+            command.add("-Dloadtest.mode=" + mode);
+            command.add("-classpath");
+            command.add(System.getProperty("java.class.path"));
+            command.add(ExecutionModeBenchmark.class.getName());
+
+            System.out.println("Running " + mode + " mode");
+            int exitCode = new ProcessBuilder(command).inheritIO().start().waitFor();
+            if (exitCode != 0) {
+                throw new IllegalStateException(mode + " run exited with " + exitCode);
+            }
+            rows.put(mode, Files.readAllLines(reportDir.resolve(mode + ".txt"), StandardCharsets.UTF_8));
+        }
+
+        System.out.println();
+        System.out.println(EndpointReport.header());
+        rows.forEach((mode, lines) -> {
+            System.out.println("-- " + mode);
+            lines.forEach(System.out::println);
+        });
+    }
+
+    private static void run(String mode, Path reportDir) throws Exception {
+        long latencyMillis = Long.getLong("loadtest.latency-ms", 2000);
+        int concurrency = Integer.getInteger("loadtest.concurrency", 1000);
+        double rate = concurrency * 1000.0 / latencyMillis;
+        Duration duration = Duration.ofSeconds(Long.getLong("loadtest.duration-seconds", 30));
+        Duration warmup = Duration.ofSeconds(Long.getLong("loadtest.warmup-seconds", 5));
+        Duration drainTimeout = Duration.ofSeconds(Long.getLong("loadtest.drain-timeout-seconds", 120));
+        int userCount = Integer.getInteger("loadtest.users", 200);
+        List<String> selected = Arrays.asList(System.getProperty("loadtest.endpoints",
+                "model1,chatbot,text-to-speech").split(","));
+
+        // Fixed latency, no errors and small bodies: the comparison is about waiting, not bytes
+        StubSettings huggingFace = new StubSettings(latencyMillis, latencyMillis, 0, 20_000);
+        StubSettings gemini = new StubSettings(latencyMillis, latencyMillis, 0, 2_000);
+        StubSettings elevenLabs = new StubSettings(latencyMillis, latencyMillis, 0, 20_000);
+        StubSettings vision = new StubSettings(latencyMillis, latencyMillis, 0, 400);
+
+        Map<String, Object> overrides = new HashMap<>();
+        overrides.put("admission.enabled", false);
+        for (String provider : List.of("huggingface", "gemini", "elevenlabs")) {
+            overrides.put("ai.clients." + provider + ".max-connections", concurrency * 2);
+            overrides.put("ai.clients." + provider + ".pending-acquire-max-count", -1);
+        }
+        overrides.put("history.writer.queue-capacity", concurrency * 10);
+        if ("virtual".equals(mode)) {
+            overrides.put("spring.threads.virtual.enabled", true);
+            overrides.put("tools.execution-mode", "blocking");
+        } else if ("webflux".equals(mode)) {
+            overrides.put("spring.main.web-application-type", "reactive");
+        } else if (!"reactive".equals(mode)) {
+            throw new IllegalArgumentException("Unknown mode " + mode + "; known: " + MODES);
+        }
+
+        Path blobRoot = Files.createTempDirectory("loadtest-blobs");
+        try (ProviderStubs stubs = new ProviderStubs(huggingFace, gemini, elevenLabs);
+             VisionStub visionStub = new VisionStub(vision);
+             ResourceSampler sampler = new ResourceSampler();
+             ConfigurableApplicationContext context = LoadTestApplication.start(stubs, visionStub, blobRoot,
+                     overrides)) {
+
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            List<String> tokens = LoadTestApplication.createUsers(context, userCount);
+            Map<String, IntFunction<HttpRequest>> scenarios = LoadTestApplication.scenarios(baseUrl, tokens);
+
+            LoadGenerator generator = new LoadGenerator(sampler);
+            List<EndpointReport> reports = new ArrayList<>();
+            for (String name : selected) {
+                IntFunction<HttpRequest> scenario = scenarios.get(name.trim());
+                if (scenario == null) {
+                    throw new IllegalArgumentException("Unknown endpoint " + name + "; known: " + scenarios.keySet());
+                }
+                System.out.println(mode + ": " + name + " at " + rate + " req/s, " + latencyMillis + "ms upstream");
+                generator.run(name, scenario, rate, warmup, drainTimeout);
+                reports.add(generator.run(name, scenario, rate, duration, drainTimeout));
+            }
+
+            Files.createDirectories(reportDir);
+            Files.write(reportDir.resolve(mode + ".txt"), reports.stream().map(EndpointReport::row).toList(),
+                    StandardCharsets.UTF_8);
+            Files.writeString(reportDir.resolve(mode + ".json"),
+                    "[" + String.join(",\n", reports.stream().map(EndpointReport::toJson).toList()) + "]\n",
+                    StandardCharsets.UTF_8);
+        } finally {
+            FileSystemUtils.deleteRecursively(blobRoot);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.doantotnghiep.aitoolshub.loadtest;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntFunction;
+
+/**
+ * Open-model load: requests are sent on a fixed schedule at the target rate whether or not earlier
+ * ones have completed, the way independent users arrive. Response bodies, including streams, are
+ * read to the end before a request counts as done.
+ */
+public class LoadGenerator {
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final ResourceSampler sampler;
+
+    public LoadGenerator(ResourceSampler sampler) {
+        this.sampler = sampler;
+    }
+
+    public EndpointReport run(String endpoint, IntFunction<HttpRequest> requests, double rate, Duration duration,
+                              Duration drainTimeout) throws InterruptedException {
+        long intervalNanos = (long) (1_000_000_000L / rate);
+        long count = Math.max(1, (long) (rate * duration.toNanos() / 1e9));
+        ConcurrentLinkedQueue<Long> okLatencies = new ConcurrentLinkedQueue<>();
+        AtomicLong rejected = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        List<CompletableFuture<?>> inFlight = new ArrayList<>();
+
+        sampler.reset();
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            long scheduled = start + i * intervalNanos;
+            long wait = scheduled - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            inFlight.add(client.sendAsync(requests.apply(i), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, failure) -> {
+                        long latency = System.nanoTime() - scheduled;
+                        if (failure != null) {
+                            errors.incrementAndGet();
+                        } else if (response.statusCode() / 100 == 2) {
+                            okLatencies.add(latency);
+                        } else if (isRejection(response)) {
+                            rejected.incrementAndGet();
+                        } else {
+                            errors.incrementAndGet();
+                        }
+                    }));
+        }
+
+        try {
+            CompletableFuture.allOf(inFlight.toArray(CompletableFuture[]::new))
+                    .exceptionally(failure -> null)
+                    .get(drainTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            inFlight.stream().filter(future -> !future.isDone()).forEach(future -> {
+                future.cancel(true);
+                errors.incrementAndGet();
+            });
+        } catch (Exception e) {
+            // individual failures are already counted
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        return EndpointReport.of(endpoint, rate, seconds, count, rejected.get(), errors.get(),
+                okLatencies.stream().mapToLong(Long::longValue).toArray(),
+                sampler.peakHeapBytes(), sampler.peakThreads());
+    }
+
+    private static boolean isRejection(HttpResponse<?> response) {
+        return response.statusCode() == 429
+                || (response.statusCode() == 503 && response.headers().firstValue("Retry-After").isPresent());
+    }
+}
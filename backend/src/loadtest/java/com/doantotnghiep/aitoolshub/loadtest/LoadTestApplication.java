@@ -0,0 +1,206 @@
+package com.doantotnghiep.aitoolshub.loadtest;
+
+import com.doantotnghiep.aitoolshub.AiToolsHubApplication;
+import com.doantotnghiep.aitoolshub.JWT.JwtUtil;
+import com.doantotnghiep.aitoolshub.entity.User;
+import com.doantotnghiep.aitoolshub.enums.Role;
+import com.doantotnghiep.aitoolshub.repository.UserRepository;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * Starts the application against local stand-ins for every AI provider (H2 database, filesystem
+ * blob store) and drives each tool endpoint at a fixed request rate, one endpoint at a time.
+ * <p>
+ * Run with {@code mvn -Ploadtest test-compile exec:exec}; settings are system properties passed
+ * through {@code -Dloadtest.jvm.args} (the heap is fixed by {@code -Dloadtest.heap}):
+ * <ul>
+ *     <li>{@code loadtest.rate} requests per second per endpoint (default 20)</li>
+ *     <li>{@code loadtest.duration-seconds} measured run per endpoint (default 30), preceded by
+ *     {@code loadtest.warmup-seconds} (default 5) that are not reported</li>
+ *     <li>{@code loadtest.users} distinct users the requests are spread over (default 200)</li>
+ *     <li>{@code loadtest.endpoints} comma-separated subset of the scenarios below</li>
+ *     <li>{@code stub.<provider>.*} provider behaviour, see {@link StubSettings}</li>
+ * </ul>
+ * The report is printed and written as JSON to {@code loadtest.report} (default
+ * {@code target/loadtest-report.json}).
+ */
+public class LoadTestApplication {
+
+    private static final String PROMPT = "A watercolor painting of a lighthouse on a cliff at sunset";
+
+    public static void main(String[] args) throws Exception {
+        double rate = Double.parseDouble(System.getProperty("loadtest.rate", "20"));
+        Duration duration = Duration.ofSeconds(Long.getLong("loadtest.duration-seconds", 30));
+        Duration warmup = Duration.ofSeconds(Long.getLong("loadtest.warmup-seconds", 5));
+        int userCount = Integer.getInteger("loadtest.users", 200);
+        Path report = Path.of(System.getProperty("loadtest.report", "target/loadtest-report.json"));
+
+        StubSettings huggingFace = StubSettings.of("huggingface", 2000, 8000, 0.01, 250_000);
+        StubSettings gemini = StubSettings.of("gemini", 800, 3000, 0.005, 2_000);
+        StubSettings elevenLabs = StubSettings.of("elevenlabs", 600, 2500, 0.005, 120_000);
+        StubSettings vision = StubSettings.of("vision", 150, 600, 0.005, 400);
+        System.out.println("huggingface: " + huggingFace);
+        System.out.println("gemini:      " + gemini);
+        System.out.println("elevenlabs:  " + elevenLabs);
+        System.out.println("vision:      " + vision);
+
+        Path blobRoot = Files.createTempDirectory("loadtest-blobs");
+        try (ProviderStubs stubs = new ProviderStubs(huggingFace, gemini, elevenLabs);
+             VisionStub visionStub = new VisionStub(vision);
+             ResourceSampler sampler = new ResourceSampler();
+             ConfigurableApplicationContext context = start(stubs, visionStub, blobRoot, Map.of())) {
+
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            List<String> tokens = createUsers(context, userCount);
+            Map<String, IntFunction<HttpRequest>> scenarios = scenarios(baseUrl, tokens);
+            List<String> selected = Arrays.asList(System.getProperty("loadtest.endpoints",
+                    String.join(",", scenarios.keySet())).split(","));
+
+            LoadGenerator generator = new LoadGenerator(sampler);
+            Duration drainTimeout = Duration.ofSeconds(Long.getLong("loadtest.drain-timeout-seconds", 120));
+            List<EndpointReport> reports = new ArrayList<>();
+            for (String name : selected) {
+                IntFunction<HttpRequest> scenario = scenarios.get(name.trim());
+                if (scenario == null) {
+                    throw new IllegalArgumentException("Unknown endpoint " + name + "; known: " + scenarios.keySet());
+                }
+                System.out.println("Running " + name + " at " + rate + " req/s for " + duration.toSeconds() + "s");
+                generator.run(name, scenario, rate, warmup, drainTimeout);
+                reports.add(generator.run(name, scenario, rate, duration, drainTimeout));
+            }
+
+            System.out.println();
+            System.out.println(EndpointReport.header());
+            reports.forEach(r -> System.out.println(r.row()));
+            Files.createDirectories(report.toAbsolutePath().getParent());
+            Files.writeString(report, "[" + String.join(",\n", reports.stream().map(EndpointReport::toJson).toList())
+                    + "]\n", StandardCharsets.UTF_8);
+            System.out.println("Report written to " + report.toAbsolutePath());
+        } finally {
+            FileSystemUtils.deleteRecursively(blobRoot);
+        }
+        System.exit(0);
+    }
+
+    static ConfigurableApplicationContext start(ProviderStubs stubs, VisionStub visionStub, Path blobRoot,
+            Map<String, Object> overrides) {
+        String stub = stubs.baseUrl();
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("huggingface.models.model1.url", stub + "/hf/model1");
+        properties.put("huggingface.models.model2.url", stub + "/hf/model2");
+        properties.put("google.models.gemini.url", stub + "/gemini/generate");
+        properties.put("google.models.gemini.stream-url", stub + "/gemini/stream");
+        properties.put("elevenlabs.api.url", stub + "/elevenlabs/tts");
+        properties.put("elevenlabs.api.url1", stub + "/elevenlabs/sound");
+        properties.put("vision.endpoint", visionStub.endpoint());
+        properties.put("blob.local.root", blobRoot.toString());
+        properties.putAll(overrides);
+        // Command-line arguments outrank application.yaml, unlike the builder's default properties
+        String[] args = properties.entrySet().stream()
+                .map(property -> "--" + property.getKey() + "=" + property.getValue())
+                .toArray(String[]::new);
+        return new SpringApplicationBuilder(AiToolsHubApplication.class)
+                .profiles("loadtest")
+                .run(args);
+    }
+
+    static List<String> createUsers(ConfigurableApplicationContext context, int count) {
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        JwtUtil jwtUtil = context.getBean(JwtUtil.class);
+        List<String> tokens = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            User user = userRepository.save(User.builder()
+                    .username("loadtest-" + i)
+                    .email("loadtest-" + i + "@example.com")
+                    .role(Role.USER)
+                    .isVerified(true)
+                    .build());
+            tokens.add(jwtUtil.generateToken(user.getEmail()));
+        }
+        return tokens;
+    }
+
+    static Map<String, IntFunction<HttpRequest>> scenarios(String baseUrl, List<String> tokens)
+            throws IOException {
+        byte[] ocrImage = textImage();
+        Map<String, IntFunction<HttpRequest>> scenarios = new LinkedHashMap<>();
+        // Every prompt is distinct and the cache is bypassed, so each request reaches the provider
+        scenarios.put("model1", i -> json(baseUrl, "/api/tools/model1", tokens, i,
+                "{\"input\":\"" + PROMPT + " #" + i + "\",\"cache\":false}"));
+        scenarios.put("model2", i -> json(baseUrl, "/api/tools/model2", tokens, i,
+                "{\"input\":\"" + PROMPT + " #" + i + "\",\"cache\":false}"));
+        scenarios.put("auto", i -> json(baseUrl, "/api/tools/auto", tokens, i,
+                "{\"input\":\"" + PROMPT + " #" + i + "\",\"cache\":false}"));
+        scenarios.put("chatbot", i -> json(baseUrl, "/api/tools/chatbot", tokens, i,
+                "{\"message\":\"Question " + i + " about the lighthouse?\",\"conversationId\":\"lt-" + i % tokens.size() + "\"}"));
+        scenarios.put("chatbot-stream", i -> json(baseUrl, "/api/tools/chatbot/stream", tokens, i,
+                "{\"message\":\"Question " + i + " about the lighthouse?\",\"conversationId\":\"lts-" + i % tokens.size() + "\"}"));
+        scenarios.put("text-to-speech", i -> json(baseUrl, "/api/tools/text-to-speech", tokens, i,
+                "{\"input\":\"Sentence number " + i + " to read aloud.\",\"voice\":\"Adam\"}"));
+        scenarios.put("text-to-speech-stream", i -> json(baseUrl, "/api/tools/text-to-speech/stream", tokens, i,
+                "{\"input\":\"Streamed sentence number " + i + ".\",\"voice\":\"Adam\"}"));
+        scenarios.put("text-to-music", i -> json(baseUrl, "/api/tools/text-to-music", tokens, i,
+                "{\"text\":\"Calm piano loop " + i + "\",\"durationSeconds\":5}"));
+        scenarios.put("ocr", i -> multipart(baseUrl, "/api/tools/ocr", tokens, i, ocrImage));
+        return scenarios;
+    }
+
+    private static HttpRequest json(String baseUrl, String path, List<String> tokens, int i, String body) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(120))
+                .header("Authorization", "Bearer " + tokens.get(i % tokens.size()))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static HttpRequest multipart(String baseUrl, String path, List<String> tokens, int i, byte[] image) {
+        String boundary = "loadtest-" + i;
+        ByteArrayOutputStream body = new ByteArrayOutputStream(image.length + 256);
+        body.writeBytes(("--" + boundary + "\r\nContent-Disposition: form-data; name=\"file\"; filename=\"scan.png\"\r\n"
+                + "Content-Type: image/png\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+        body.writeBytes(image);
+        body.writeBytes(("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8));
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(120))
+                .header("Authorization", "Bearer " + tokens.get(i % tokens.size()))
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray()))
+                .build();
+    }
+
+    private static byte[] textImage() throws IOException {
+        BufferedImage image = new BufferedImage(640, 200, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.WHITE);
+        graphics.fillRect(0, 0, image.getWidth(), image.getHeight());
+        graphics.setColor(Color.BLACK);
+        graphics.drawString("Load test receipt 42.00 EUR", 20, 100);
+        graphics.dispose();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,168 @@
+package com.doantotnghiep.aitoolshub.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.Executors;
+
+/**
+ * Local HTTP stand-ins for Hugging Face, Gemini and ElevenLabs, answering with bodies shaped like
+ * the real APIs. Each request sleeps for a sampled latency on a virtual thread, so thousands of
+ * in-flight calls cost almost nothing and the stubs never become the bottleneck.
+ */
+public class ProviderStubs implements AutoCloseable {
+
+    private static final int STREAM_CHUNKS = 8;
+
+    private final HttpServer server;
+    private final StubSettings huggingFace;
+    private final StubSettings gemini;
+    private final StubSettings elevenLabs;
+    private final byte[] image;
+    private final byte[] audio;
+    private final String answer;
+
+    public ProviderStubs(StubSettings huggingFace, StubSettings gemini, StubSettings elevenLabs) throws IOException {
+        this.huggingFace = huggingFace;
+        this.gemini = gemini;
+        this.elevenLabs = elevenLabs;
+        this.image = noiseJpeg(huggingFace.bytes());
+        this.audio = new byte[elevenLabs.bytes()];
+        new Random(42).nextBytes(audio);
+        this.answer = "Stubbed answer with enough words to look like a real reply. "
+                .repeat(Math.max(1, gemini.bytes() / 60));
+
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 1024);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/hf/", exchange -> respond(exchange, huggingFace, "image/jpeg", image));
+        server.createContext("/gemini/generate", exchange -> respond(exchange, gemini, "application/json",
+                geminiJson(answer).getBytes(StandardCharsets.UTF_8)));
+        server.createContext("/gemini/stream", this::streamGemini);
+        server.createContext("/elevenlabs/tts/", exchange -> {
+            if (exchange.getRequestURI().getPath().endsWith("/stream")) {
+                streamAudio(exchange);
+            } else {
+                respond(exchange, elevenLabs, "audio/mpeg", audio);
+            }
+        });
+        server.createContext("/elevenlabs/sound", exchange -> respond(exchange, elevenLabs, "audio/mpeg", audio));
+        server.start();
+    }
+
+    public String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    private void respond(HttpExchange exchange, StubSettings settings, String contentType, byte[] body)
+            throws IOException {
+        try (exchange) {
+            drain(exchange);
+            sleep(settings.sampleLatencyMillis());
+            if (settings.shouldFail()) {
+                exchange.sendResponseHeaders(503, -1);
+                return;
+            }
+            exchange.getResponseHeaders().set("Content-Type", contentType);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+        }
+    }
+
+    // Gemini's SSE stream: the latency is spread over the chunks, as tokens arrive over time
+    private void streamGemini(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            drain(exchange);
+            long latency = gemini.sampleLatencyMillis();
+            if (gemini.shouldFail()) {
+                sleep(latency);
+                exchange.sendResponseHeaders(503, -1);
+                return;
+            }
+            exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+            exchange.sendResponseHeaders(200, 0);
+            OutputStream out = exchange.getResponseBody();
+            int chunkLength = Math.max(1, answer.length() / STREAM_CHUNKS);
+            for (int start = 0; start < answer.length(); start += chunkLength) {
+                sleep(latency / STREAM_CHUNKS);
+                String text = answer.substring(start, Math.min(answer.length(), start + chunkLength));
+                out.write(("data: " + geminiJson(text) + "\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+                out.flush();
+            }
+        }
+    }
+
+    private void streamAudio(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            drain(exchange);
+            long latency = elevenLabs.sampleLatencyMillis();
+            if (elevenLabs.shouldFail()) {
+                sleep(latency);
+                exchange.sendResponseHeaders(503, -1);
+                return;
+            }
+            exchange.getResponseHeaders().set("Content-Type", "audio/mpeg");
+            exchange.sendResponseHeaders(200, 0);
+            OutputStream out = exchange.getResponseBody();
+            int chunkLength = Math.max(1, audio.length / STREAM_CHUNKS);
+            for (int start = 0; start < audio.length; start += chunkLength) {
+                sleep(latency / STREAM_CHUNKS);
+                out.write(audio, start, Math.min(chunkLength, audio.length - start));
+                out.flush();
+            }
+        }
+    }
+
+    private static String geminiJson(String text) {
+        String escaped = text.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+        return "{\"candidates\":[{\"content\":{\"parts\":[{\"text\":\"" + escaped + "\"}],\"role\":\"model\"},"
+                + "\"finishReason\":\"STOP\",\"index\":0}],"
+                + "\"usageMetadata\":{\"promptTokenCount\":100,\"candidatesTokenCount\":100,\"totalTokenCount\":200}}";
+    }
+
+    // A real JPEG, so anything that decodes generated images sees a valid file of roughly the
+    // configured size (noise compresses to about 2-3 bytes per pixel)
+    private static byte[] noiseJpeg(int targetBytes) throws IOException {
+        int side = Math.max(16, (int) Math.sqrt(targetBytes / 2.5));
+        BufferedImage image = new BufferedImage(side, side, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(42);
+        for (int y = 0; y < side; y++) {
+            for (int x = 0; x < side; x++) {
+                image.setRGB(x, y, random.nextInt(0xFFFFFF));
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(targetBytes);
+        ImageIO.write(image, "jpg", out);
+        return out.toByteArray();
+    }
+
+    private static void drain(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -0,0 +1,56 @@
+package com.doantotnghiep.aitoolshub.loadtest;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Samples heap usage and the live platform thread count of this JVM, which hosts the application,
+ * the stubs and the load generator alike; the stubs and generator run on virtual threads, so the
+ * thread count is the application's.
+ */
+public class ResourceSampler implements AutoCloseable {
+
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private final AtomicLong peakHeap = new AtomicLong();
+    private final AtomicInteger peakThreads = new AtomicInteger();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "loadtest-sampler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ResourceSampler() {
+        scheduler.scheduleAtFixedRate(this::sample, 0, 200, TimeUnit.MILLISECONDS);
+    }
+
+    private void sample() {
+        peakHeap.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+        peakThreads.accumulateAndGet(threads.getThreadCount(), Math::max);
+    }
+
+    public void reset() {
+        peakHeap.set(0);
+        peakThreads.set(0);
+        sample();
+    }
+
+    public long peakHeapBytes() {
+        return peakHeap.get();
+    }
+
+    public int peakThreads() {
+        return peakThreads.get();
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,43 @@
+package com.doantotnghiep.aitoolshub.loadtest;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Behaviour of one stubbed provider. Latencies follow a log-normal distribution fitted to the
+ * configured median and p99, which is close to what the real providers show; {@code errorRate}
+ * is the share of calls answered with a 5xx and {@code bytes} the size of each response body.
+ * <p>
+ * Every value can be overridden with {@code -Dstub.<provider>.median-ms}, {@code .p99-ms},
+ * {@code .error-rate} and {@code .bytes}.
+ */
+public record StubSettings(long medianMillis, long p99Millis, double errorRate, int bytes) {
+
+    // z-score of the 99th percentile of a standard normal distribution
+    private static final double Z_99 = 2.326;
+
+    public static StubSettings of(String provider, long medianMillis, long p99Millis, double errorRate, int bytes) {
+        String prefix = "stub." + provider + ".";
+        return new StubSettings(
+                Long.getLong(prefix + "median-ms", medianMillis),
+                Long.getLong(prefix + "p99-ms", p99Millis),
+                Double.parseDouble(System.getProperty(prefix + "error-rate", Double.toString(errorRate))),
+                Integer.getInteger(prefix + "bytes", bytes));
+    }
+
+    public long sampleLatencyMillis() {
+        if (medianMillis <= 0) {
+            return 0;
+        }
+        double sigma = Math.log((double) Math.max(p99Millis, medianMillis) / medianMillis) / Z_99;
+        return Math.round(medianMillis * Math.exp(sigma * ThreadLocalRandom.current().nextGaussian()));
+    }
+
+    public boolean shouldFail() {
+        return errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate;
+    }
+
+    @Override
+    public String toString() {
+        return "median=" + medianMillis + "ms p99=" + p99Millis + "ms errors=" + errorRate + " bytes=" + bytes;
+    }
+}
@@ -0,0 +1,65 @@
+package com.doantotnghiep.aitoolshub.loadtest;
+
+import com.google.cloud.vision.v1.AnnotateImageResponse;
+import com.google.cloud.vision.v1.BatchAnnotateImagesRequest;
+import com.google.cloud.vision.v1.BatchAnnotateImagesResponse;
+import com.google.cloud.vision.v1.EntityAnnotation;
+import com.google.cloud.vision.v1.ImageAnnotatorGrpc;
+import io.grpc.Server;
+import io.grpc.ServerBuilder;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+
+import java.io.IOException;
+import java.util.concurrent.Executors;
+
+/**
+ * Plaintext gRPC stand-in for Google Vision, reached through {@code vision.endpoint} with
+ * {@code vision.plaintext=true}. One sampled latency applies to each batch, as for the real API.
+ */
+public class VisionStub extends ImageAnnotatorGrpc.ImageAnnotatorImplBase implements AutoCloseable {
+
+    private final StubSettings settings;
+    private final String text;
+    private final Server server;
+
+    public VisionStub(StubSettings settings) throws IOException {
+        this.settings = settings;
+        this.text = "Recognized text line. ".repeat(Math.max(1, settings.bytes() / 22));
+        this.server = ServerBuilder.forPort(0)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .addService(this)
+                .build()
+                .start();
+    }
+
+    public String endpoint() {
+        return "localhost:" + server.getPort();
+    }
+
+    @Override
+    public void batchAnnotateImages(BatchAnnotateImagesRequest request,
+                                    StreamObserver<BatchAnnotateImagesResponse> responseObserver) {
+        try {
+            Thread.sleep(settings.sampleLatencyMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (settings.shouldFail()) {
+            responseObserver.onError(Status.UNAVAILABLE.withDescription("stubbed failure").asRuntimeException());
+            return;
+        }
+        BatchAnnotateImagesResponse.Builder response = BatchAnnotateImagesResponse.newBuilder();
+        for (int i = 0; i < request.getRequestsCount(); i++) {
+            response.addResponses(AnnotateImageResponse.newBuilder()
+                    .addTextAnnotations(EntityAnnotation.newBuilder().setDescription(text)));
+        }
+        responseObserver.onNext(response.build());
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public void close() {
+        server.shutdownNow();
+    }
+}
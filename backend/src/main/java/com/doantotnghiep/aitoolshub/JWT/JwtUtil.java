@@ -3,6 +3,8 @@ package com.doantotnghiep.aitoolshub.JWT;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
@@ -13,17 +15,22 @@ import java.util.Date;
 @Component
 public class JwtUtil {
 
+    private static final Logger logger = LoggerFactory.getLogger(JwtUtil.class);
+
     @Value("${jwt.secret}")
     private String secretKeyString;
 
     private SecretKey signingKey;
 
+    private JwtParser parser;
+
     @Value("${jwt.expiration}")
     private long jwtExpiration;
 
     @PostConstruct
     public void init() {
         this.signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKeyString));
+        this.parser = Jwts.parser().verifyWith(signingKey).build(); // Parser là thread-safe, dùng lại
     }
 
     public String generateToken(String email) {
@@ -36,20 +43,23 @@ public class JwtUtil {
     }
 
     public String extractEmail(String token) { // Đổi tên để rõ ràng
-        JwtParser parser = Jwts.parser()
-                .verifyWith(signingKey)
-                .build();
         Claims claims = parser.parseSignedClaims(token).getPayload();
         return claims.getSubject();
     }
 
     public boolean validateToken(String token) {
+        return parseClaims(token) != null;
+    }
+
+    /**
+     * Verifies the token once and returns its claims, or {@code null} if it is invalid or expired.
+     */
+    public Claims parseClaims(String token) {
         try {
-            Jwts.parser().verifyWith(signingKey).build().parseSignedClaims(token);
-            return true;
+            return parser.parseSignedClaims(token).getPayload();
         } catch (Exception e) {
-            System.err.println("Token validation error: " + e.getMessage());
-            return false;
+            logger.debug("Token validation error: {}", e.getMessage());
+            return null;
         }
     }
 }
\ No newline at end of file
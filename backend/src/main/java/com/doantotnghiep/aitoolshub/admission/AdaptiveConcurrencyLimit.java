@@ -0,0 +1,132 @@
+package com.doantotnghiep.aitoolshub.admission;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrency limit for one upstream provider, adjusted with AIMD. An upstream call that answers
+ * within the latency target while the limit is being used raises the limit by one; a call that is
+ * slow or fails on the upstream side cuts it by {@code backoffRatio}. The limit never exceeds the
+ * provider's bulkhead size and never drops below {@code minLimit}.
+ * <p>
+ * Permits and samples are separate: a permit covers a whole request, while samples come from the
+ * individual provider calls made while serving it (see {@link #onSample}). Request paths use the
+ * non-blocking {@link #tryAcquire()}; background work can wait for a permit with
+ * {@link #acquire(long, TimeUnit)}, which is woken by {@link #release()} and by the limit growing.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long latencyTargetNanos;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final ReentrantLock waitLock = new ReentrantLock();
+    private final Condition permitAvailable = waitLock.newCondition();
+    private volatile int waiters;
+    private volatile double limit;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double backoffRatio,
+            long latencyTargetNanos) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyTargetNanos = latencyTargetNanos;
+        this.limit = Math.max(minLimit, Math.min(initialLimit, maxLimit));
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Takes a permit, waiting up to {@code timeout} for one to be released. Returns false when none
+     * became available in time.
+     */
+    public boolean acquire(long timeout, TimeUnit unit) throws InterruptedException {
+        if (tryAcquire()) {
+            return true;
+        }
+        long remaining = unit.toNanos(timeout);
+        waitLock.lockInterruptibly();
+        try {
+            // Registered before the retry, so a release racing with it either frees the permit for
+            // the retry or sees the waiter and signals
+            waiters++;
+            while (!tryAcquire()) {
+                if (remaining <= 0) {
+                    return false;
+                }
+                remaining = permitAvailable.awaitNanos(remaining);
+            }
+            return true;
+        } finally {
+            waiters--;
+            waitLock.unlock();
+        }
+    }
+
+    /**
+     * Releases a permit taken by {@link #tryAcquire()} or {@link #acquire(long, TimeUnit)}.
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+        signalWaiters(false);
+    }
+
+    /**
+     * Feeds the outcome of one upstream call into the limit.
+     *
+     * @param latencyNanos how long the provider took to answer; for streamed calls, the time to
+     *                     the first chunk
+     * @param overloaded   whether the upstream signalled overload (5xx, 429 or a timeout)
+     */
+    public void onSample(long latencyNanos, boolean overloaded) {
+        int current = inFlight.get();
+        synchronized (this) {
+            if (overloaded || latencyNanos > latencyTargetNanos) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+            } else if (current * 2 >= limit) {
+                double previous = limit;
+                limit = Math.min(maxLimit, limit + 1);
+                if ((int) limit > (int) previous) {
+                    signalWaiters(true);
+                }
+            }
+        }
+    }
+
+    private void signalWaiters(boolean all) {
+        if (waiters == 0) {
+            return;
+        }
+        waitLock.lock();
+        try {
+            if (all) {
+                permitAvailable.signalAll();
+            } else {
+                permitAvailable.signal();
+            }
+        } finally {
+            waitLock.unlock();
+        }
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
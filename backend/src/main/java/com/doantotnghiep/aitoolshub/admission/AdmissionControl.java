@@ -0,0 +1,178 @@
+package com.doantotnghiep.aitoolshub.admission;
+
+import com.doantotnghiep.aitoolshub.entity.AuthenticatedUser;
+import com.doantotnghiep.aitoolshub.enums.AiProvider;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Exceptions;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Admission state shared by the servlet {@link AdmissionControlFilter} and the WebFlux
+ * {@link AdmissionWebFilter}: the per-user token buckets and the adaptive concurrency limit of each
+ * provider. Every {@code POST /api/tools/**} call must take a token from its user's bucket, and
+ * calls that reach an upstream AI provider must also fit under that provider's limit.
+ * <p>
+ * The limits are driven by the provider calls themselves, reported through
+ * {@link #onUpstreamCall}, not by the tool endpoints' responses: those turn upstream failures into
+ * 200s with an error body or an error event, and a streamed response lasts as long as its content.
+ */
+@Component
+public class AdmissionControl {
+
+    static final String TOOLS_PREFIX = "/api/tools/";
+
+    private final boolean enabled;
+    private final double userBurst;
+    private final double userRefillPerSecond;
+    private final int maxTrackedUsers;
+    private final long providerRetryAfterSeconds;
+    private final Map<String, TokenBucket> userBuckets = new ConcurrentHashMap<>();
+    private final Map<AiProvider, AdaptiveConcurrencyLimit> providerLimits = new EnumMap<>(AiProvider.class);
+
+    public AdmissionControl(Environment environment) {
+        this.enabled = environment.getProperty("admission.enabled", Boolean.class, true);
+        this.userBurst = environment.getProperty("admission.user.burst", Double.class, 10d);
+        this.userRefillPerSecond = environment.getProperty("admission.user.refill-per-second", Double.class, 1d);
+        this.maxTrackedUsers = environment.getProperty("admission.user.max-tracked", Integer.class, 10_000);
+        this.providerRetryAfterSeconds = environment.getProperty("admission.provider.retry-after",
+                Duration.class, Duration.ofSeconds(1)).toSeconds();
+
+        for (AiProvider provider : AiProvider.values()) {
+            String prefix = "admission.providers." + provider.getKey() + ".";
+            int maxConcurrency = environment.getProperty(prefix + "max-concurrency", Integer.class, 20);
+            AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(
+                    environment.getProperty(prefix + "initial-limit", Integer.class, maxConcurrency / 2),
+                    environment.getProperty(prefix + "min-limit", Integer.class, 1),
+                    maxConcurrency,
+                    environment.getProperty(prefix + "backoff-ratio", Double.class, 0.9),
+                    environment.getProperty(prefix + "latency-target", Duration.class, Duration.ofSeconds(30))
+                            .toNanos());
+            providerLimits.put(provider, limit);
+            Gauge.builder("admission.limit", limit, AdaptiveConcurrencyLimit::getLimit)
+                    .tag("provider", provider.getKey()).register(Metrics.globalRegistry);
+            Gauge.builder("admission.inflight", limit, AdaptiveConcurrencyLimit::getInFlight)
+                    .tag("provider", provider.getKey()).register(Metrics.globalRegistry);
+        }
+        Gauge.builder("admission.users.tracked", userBuckets, Map::size).register(Metrics.globalRegistry);
+    }
+
+    public boolean appliesTo(String method, String path) {
+        return enabled && "POST".equals(method) && path.startsWith(TOOLS_PREFIX);
+    }
+
+    /**
+     * Takes a token from the caller's bucket. Returns 0 when admitted, otherwise the number of
+     * seconds to put in {@code Retry-After}.
+     */
+    public long tryConsume(Authentication authentication, String remoteAddress) {
+        long waitNanos = bucketFor(userKey(authentication, remoteAddress)).tryConsume();
+        if (waitNanos <= 0) {
+            return 0;
+        }
+        Counter.builder("admission.rejected").tag("reason", "rate-limit").tag("provider", "none")
+                .register(Metrics.globalRegistry).increment();
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1);
+    }
+
+    /**
+     * The limit guarding the provider that {@code path} calls, or {@code null} when the endpoint
+     * does not call a provider directly.
+     */
+    public AdaptiveConcurrencyLimit limitFor(String path) {
+        AiProvider provider = providerOf(path.substring(TOOLS_PREFIX.length()));
+        return provider != null ? providerLimits.get(provider) : null;
+    }
+
+    /**
+     * The limit guarding {@code provider}, for callers outside a request such as background jobs,
+     * or {@code null} when admission control is switched off.
+     */
+    public AdaptiveConcurrencyLimit limitFor(AiProvider provider) {
+        return enabled ? providerLimits.get(provider) : null;
+    }
+
+    public void countConcurrencyRejection(String path) {
+        countConcurrencyRejection(providerOf(path.substring(TOOLS_PREFIX.length())));
+    }
+
+    public void countConcurrencyRejection(AiProvider provider) {
+        Counter.builder("admission.rejected").tag("reason", "concurrency").tag("provider", provider.getKey())
+                .register(Metrics.globalRegistry).increment();
+    }
+
+    /**
+     * Records one call to {@code provider} against its limit.
+     */
+    public void onUpstreamCall(AiProvider provider, long latencyNanos, boolean overloaded) {
+        if (enabled) {
+            providerLimits.get(provider).onSample(latencyNanos, overloaded);
+        }
+    }
+
+    public long getProviderRetryAfterSeconds() {
+        return providerRetryAfterSeconds;
+    }
+
+    public static boolean isOverloaded(int status) {
+        return status >= 500 || status == HttpStatus.TOO_MANY_REQUESTS.value();
+    }
+
+    /**
+     * Whether a failed upstream call signalled overload: a 5xx or 429 response, or a timeout.
+     */
+    public static boolean isOverloaded(Throwable error) {
+        Throwable e = Exceptions.unwrap(error);
+        if (e instanceof WebClientResponseException response) {
+            return isOverloaded(response.getStatusCode().value());
+        }
+        if (e instanceof RestClientResponseException response) {
+            return isOverloaded(response.getStatusCode().value());
+        }
+        return e instanceof TimeoutException;
+    }
+
+    private static AiProvider providerOf(String path) {
+        if (path.startsWith("model1") || path.startsWith("model2") || path.startsWith("auto")) {
+            return AiProvider.HUGGING_FACE;
+        }
+        if (path.startsWith("chatbot")) {
+            return AiProvider.GEMINI;
+        }
+        if (path.startsWith("text-to-speech") || path.startsWith("text-to-music")) {
+            return AiProvider.ELEVENLABS;
+        }
+        // OCR has its own batcher and jobs take their permit on the job pool; both are only rate limited here
+        return null;
+    }
+
+    private static String userKey(Authentication authentication, String remoteAddress) {
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser principal) {
+            return "user:" + principal.getId();
+        }
+        return "ip:" + remoteAddress;
+    }
+
+    private TokenBucket bucketFor(String key) {
+        if (userBuckets.size() >= maxTrackedUsers) {
+            // Buckets idle long enough to have refilled completely carry no state worth keeping
+            long idleNanos = (long) (userBurst / userRefillPerSecond * 1_000_000_000d);
+            long now = System.nanoTime();
+            userBuckets.values().removeIf(bucket -> now - bucket.getLastUsedNanos() > idleNanos);
+        }
+        return userBuckets.computeIfAbsent(key, k -> new TokenBucket(userBurst, userRefillPerSecond));
+    }
+}
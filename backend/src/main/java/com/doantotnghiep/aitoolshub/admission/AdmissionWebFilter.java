@@ -0,0 +1,91 @@
+package com.doantotnghiep.aitoolshub.admission;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+/**
+ * WebFlux counterpart of {@link AdmissionControlFilter}. It sits in the security filter chain
+ * right after authentication so the caller's bucket is known; it is deliberately not a bean, as
+ * WebFlux would also run every {@link WebFilter} bean outside that chain.
+ * <p>
+ * A provider permit is held until the response has been written, streamed bodies included; as on
+ * the servlet stack, only the upstream calls feed the provider's limit.
+ */
+public class AdmissionWebFilter implements WebFilter {
+
+    private final AdmissionControl admissionControl;
+
+    public AdmissionWebFilter(AdmissionControl admissionControl) {
+        this.admissionControl = admissionControl;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        String path = request.getPath().pathWithinApplication().value();
+        if (!admissionControl.appliesTo(request.getMethod().name(), path)) {
+            return chain.filter(exchange);
+        }
+        return ReactiveSecurityContextHolder.getContext()
+                .mapNotNull(SecurityContext::getAuthentication)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(authentication -> admit(exchange, chain, path, authentication.orElse(null)));
+    }
+
+    private Mono<Void> admit(ServerWebExchange exchange, WebFilterChain chain, String path,
+            Authentication authentication) {
+        long retryAfterSeconds = admissionControl.tryConsume(authentication, remoteAddress(exchange.getRequest()));
+        if (retryAfterSeconds > 0) {
+            return reject(exchange.getResponse(), HttpStatus.TOO_MANY_REQUESTS, retryAfterSeconds,
+                    "Too many requests, please slow down");
+        }
+
+        AdaptiveConcurrencyLimit limit = admissionControl.limitFor(path);
+        if (limit == null) {
+            return chain.filter(exchange);
+        }
+
+        if (!limit.tryAcquire()) {
+            admissionControl.countConcurrencyRejection(path);
+            return reject(exchange.getResponse(), HttpStatus.SERVICE_UNAVAILABLE,
+                    admissionControl.getProviderRetryAfterSeconds(), "Service is busy, please retry shortly");
+        }
+
+        return chain.filter(exchange)
+                .doFinally(signal -> limit.release());
+    }
+
+    private static String remoteAddress(ServerHttpRequest request) {
+        InetSocketAddress address = request.getRemoteAddress();
+        if (address == null) {
+            return "unknown";
+        }
+        return address.getAddress() != null ? address.getAddress().getHostAddress() : address.getHostString();
+    }
+
+    private static Mono<Void> reject(ServerHttpResponse response, HttpStatus status, long retryAfterSeconds,
+            String message) {
+        response.setStatusCode(status);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        DataBuffer body = response.bufferFactory()
+                .wrap(("{\"error\": \"" + message + "\"}").getBytes(StandardCharsets.UTF_8));
+        return response.writeWith(Mono.just(body));
+    }
+}
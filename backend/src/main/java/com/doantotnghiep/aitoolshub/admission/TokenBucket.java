@@ -0,0 +1,43 @@
+package com.doantotnghiep.aitoolshub.admission;
+
+/**
+ * Classic token bucket: holds up to {@code capacity} tokens and refills continuously at
+ * {@code refillPerSecond}. Each admitted request takes one token.
+ */
+public class TokenBucket {
+
+    private final double capacity;
+    private final double refillPerNano;
+    private double tokens;
+    private long lastRefillNanos;
+    private volatile long lastUsedNanos;
+
+    public TokenBucket(double capacity, double refillPerSecond) {
+        this.capacity = capacity;
+        this.refillPerNano = refillPerSecond / 1_000_000_000d;
+        this.tokens = capacity;
+        this.lastRefillNanos = System.nanoTime();
+        this.lastUsedNanos = lastRefillNanos;
+    }
+
+    /**
+     * Takes a token if one is available.
+     *
+     * @return 0 when admitted, otherwise the number of nanoseconds until a token will be available
+     */
+    public synchronized long tryConsume() {
+        long now = System.nanoTime();
+        lastUsedNanos = now;
+        tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * refillPerNano);
+        lastRefillNanos = now;
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        return (long) Math.ceil((1 - tokens) / refillPerNano);
+    }
+
+    public long getLastUsedNanos() {
+        return lastUsedNanos;
+    }
+}
@@ -0,0 +1,10 @@
+package com.doantotnghiep.aitoolshub.blob;
+
+/**
+ * What a store knows about one object. {@code version} identifies the exact content (the GCS
+ * generation, or the modification time for local files) and is passed back when reading so a
+ * response never mixes two versions.
+ */
+public record BlobMetadata(String key, long size, String etag, long lastModifiedMillis, String contentType,
+                           long version) {
+}
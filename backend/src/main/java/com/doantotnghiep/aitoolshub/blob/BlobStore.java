@@ -0,0 +1,56 @@
+package com.doantotnghiep.aitoolshub.blob;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collection;
+
+/**
+ * Object storage for generated media and cached results. Objects are addressed by a key such as
+ * {@code images/12/1700000000000.jpg}; {@link #locationOf(String)} turns a key into the location
+ * string persisted in history rows, and {@link #keyOf(String)} turns it back.
+ */
+public interface BlobStore {
+
+    /**
+     * Stores {@code content} under {@code key}, replacing any existing object.
+     *
+     * @return the object's location
+     */
+    String put(String key, byte[] content);
+
+    /**
+     * Opens a stream that stores everything written to it under {@code key}. The object becomes
+     * visible, complete, when the stream is closed.
+     */
+    OutputStream openOutputStream(String key) throws IOException;
+
+    /**
+     * Returns the object's content, or {@code null} when it does not exist.
+     */
+    byte[] get(String key);
+
+    /**
+     * Returns the object's metadata, or {@code null} when it does not exist.
+     */
+    BlobMetadata stat(String key);
+
+    /**
+     * Streams {@code length} bytes of the object version described by {@code metadata}, starting
+     * at {@code offset}.
+     */
+    InputStream openStream(BlobMetadata metadata, long offset, long length) throws IOException;
+
+    void delete(String key);
+
+    void deleteAll(Collection<String> keys);
+
+    /**
+     * Returns a URL a browser can read the object from for at least {@code lifetimeMillis}.
+     */
+    String signUrl(String key, long lifetimeMillis);
+
+    String locationOf(String key);
+
+    String keyOf(String location);
+}
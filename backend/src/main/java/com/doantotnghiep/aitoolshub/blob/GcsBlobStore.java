@@ -0,0 +1,149 @@
+package com.doantotnghiep.aitoolshub.blob;
+
+import com.google.auth.ServiceAccountSigner;
+import com.google.auth.oauth2.GoogleCredentials;
+import com.google.cloud.ReadChannel;
+import com.google.cloud.storage.Blob;
+import com.google.cloud.storage.BlobId;
+import com.google.cloud.storage.BlobInfo;
+import com.google.cloud.storage.Storage;
+import com.google.cloud.storage.Storage.SignUrlOption;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Default store, backed by a Google Cloud Storage bucket. Locations are {@code gs://bucket/key}
+ * paths. Signed URLs are V4 and signed locally with the service-account key when one is configured.
+ */
+@Component
+@ConditionalOnProperty(name = "blob.store", havingValue = "gcs", matchIfMissing = true)
+public class GcsBlobStore implements BlobStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(GcsBlobStore.class);
+    private static final int READ_CHUNK_SIZE = 256 * 1024;
+
+    private final Storage storage;
+    private final String bucketName;
+    private final String locationPrefix;
+    private final SignUrlOption[] signOptions;
+
+    public GcsBlobStore(Storage storage,
+            @Value("${gcs.bucket}") String bucketName,
+            @Value("${gcs.credentials-path:#{null}}") String credentialsPath) {
+        this.storage = storage;
+        this.bucketName = bucketName;
+        this.locationPrefix = "gs://" + bucketName + "/";
+        ServiceAccountSigner signer = loadSigner(credentialsPath);
+        this.signOptions = signer != null
+                ? new SignUrlOption[]{SignUrlOption.withV4Signature(), SignUrlOption.signWith(signer)}
+                : new SignUrlOption[]{SignUrlOption.withV4Signature()};
+    }
+
+    @Override
+    public String put(String key, byte[] content) {
+        storage.create(BlobInfo.newBuilder(BlobId.of(bucketName, key)).build(), content);
+        return locationOf(key);
+    }
+
+    /**
+     * Backed by a resumable upload, so large objects are sent chunk by chunk.
+     */
+    @Override
+    public OutputStream openOutputStream(String key) {
+        return Channels.newOutputStream(storage.writer(BlobInfo.newBuilder(BlobId.of(bucketName, key)).build()));
+    }
+
+    @Override
+    public byte[] get(String key) {
+        Blob blob = storage.get(BlobId.of(bucketName, key));
+        return blob != null ? blob.getContent() : null;
+    }
+
+    @Override
+    public BlobMetadata stat(String key) {
+        Blob blob = storage.get(BlobId.of(bucketName, key));
+        if (blob == null) {
+            return null;
+        }
+        long lastModified = blob.getUpdateTimeOffsetDateTime() != null
+                ? blob.getUpdateTimeOffsetDateTime().toInstant().toEpochMilli() : -1;
+        return new BlobMetadata(key, blob.getSize(), blob.getEtag(), lastModified, blob.getContentType(),
+                blob.getGeneration() != null ? blob.getGeneration() : 0);
+    }
+
+    @Override
+    public InputStream openStream(BlobMetadata metadata, long offset, long length) throws IOException {
+        BlobId blobId = metadata.version() != 0
+                ? BlobId.of(bucketName, metadata.key(), metadata.version())
+                : BlobId.of(bucketName, metadata.key());
+        ReadChannel reader = storage.reader(blobId);
+        reader.setChunkSize(READ_CHUNK_SIZE);
+        reader.seek(offset);
+        reader.limit(offset + length);
+        return Channels.newInputStream(reader);
+    }
+
+    @Override
+    public void delete(String key) {
+        storage.delete(BlobId.of(bucketName, key));
+    }
+
+    @Override
+    public void deleteAll(Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        List<BlobId> blobIds = keys.stream().map(key -> BlobId.of(bucketName, key)).toList();
+        storage.delete(blobIds);
+    }
+
+    /**
+     * V4-signs the URL. With a service-account key this is a local HMAC; other credentials fall
+     * back to the IAM signBlob API.
+     */
+    @Override
+    public String signUrl(String key, long lifetimeMillis) {
+        BlobInfo blobInfo = BlobInfo.newBuilder(BlobId.of(bucketName, key)).build();
+        return storage.signUrl(blobInfo, lifetimeMillis, TimeUnit.MILLISECONDS, signOptions).toString();
+    }
+
+    @Override
+    public String locationOf(String key) {
+        return locationPrefix + key;
+    }
+
+    @Override
+    public String keyOf(String location) {
+        return location.startsWith(locationPrefix) ? location.substring(locationPrefix.length()) : location;
+    }
+
+    private static ServiceAccountSigner loadSigner(String credentialsPath) {
+        if (credentialsPath == null) {
+            logger.warn("No gcs.credentials-path set; signed URLs use the default credentials");
+            return null;
+        }
+        try (FileInputStream stream = new FileInputStream(credentialsPath)) {
+            GoogleCredentials credentials = GoogleCredentials.fromStream(stream);
+            if (credentials instanceof ServiceAccountSigner serviceAccount) {
+                return serviceAccount;
+            }
+            logger.warn("Credentials at {} cannot sign locally; signed URLs use the default credentials",
+                    credentialsPath);
+        } catch (IOException e) {
+            logger.warn("Failed to load signing credentials from {}: {}", credentialsPath, e.getMessage());
+        }
+        return null;
+    }
+}
@@ -0,0 +1,277 @@
+package com.doantotnghiep.aitoolshub.blob;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.UriUtils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Collection;
+import java.util.HexFormat;
+
+/**
+ * Filesystem-backed store for local load tests and on-prem deployments. Each key is hashed into a
+ * two-level sharded directory tree, so no directory grows large and keys cannot escape the root.
+ * Writes go to a temporary file in the target directory and are renamed into place atomically;
+ * reads use {@link FileChannel}, memory-mapping large files.
+ * <p>
+ * Signed URLs point at {@code blob.local.base-url} and carry an HMAC over the key and expiry, which
+ * {@link LocalBlobWebConfig} checks before serving the file.
+ */
+@Component
+@ConditionalOnProperty(name = "blob.store", havingValue = "local")
+public class LocalBlobStore implements BlobStore {
+
+    private static final String LOCATION_PREFIX = "local://";
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final Path root;
+    private final String baseUrl;
+    private final boolean fsync;
+    private final long mmapThreshold;
+    private final byte[] signingKey;
+
+    public LocalBlobStore(
+            @Value("${blob.local.root:./data/blobs}") String root,
+            @Value("${blob.local.base-url:http://localhost:8080/blobs/}") String baseUrl,
+            @Value("${blob.local.fsync:false}") boolean fsync,
+            @Value("${blob.local.mmap-threshold:1048576}") long mmapThreshold,
+            @Value("${blob.local.signing-secret:}") String signingSecret) throws IOException {
+        this.root = Files.createDirectories(Path.of(root)).toAbsolutePath().normalize();
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl : baseUrl + "/";
+        this.fsync = fsync;
+        this.mmapThreshold = mmapThreshold;
+        if (signingSecret.isBlank()) {
+            // URLs signed with a random key stop working on restart, like an expired signed URL
+            this.signingKey = new byte[32];
+            new SecureRandom().nextBytes(this.signingKey);
+        } else {
+            this.signingKey = signingSecret.getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Maps a key to its file: {@code root/ab/cd/abcd…ef.ext}, where the name is the SHA-256 of the
+     * key and the extension is kept so the content type can still be derived.
+     */
+    public Path pathOf(String key) {
+        String hash = sha256(key);
+        int dot = key.lastIndexOf('.');
+        String extension = dot > key.lastIndexOf('/') && dot >= 0 ? key.substring(dot) : "";
+        return root.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash + extension);
+    }
+
+    @Override
+    public String put(String key, byte[] content) {
+        try (OutputStream out = openOutputStream(key)) {
+            out.write(content);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to store " + key, e);
+        }
+        return locationOf(key);
+    }
+
+    @Override
+    public OutputStream openOutputStream(String key) throws IOException {
+        Path target = pathOf(key);
+        Path directory = Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(directory, ".upload-", ".tmp");
+        FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        return new FilterOutputStream(Channels.newOutputStream(channel)) {
+            private boolean closed;
+
+            @Override
+            public void write(byte[] bytes, int offset, int length) throws IOException {
+                out.write(bytes, offset, length);
+            }
+
+            @Override
+            public void close() throws IOException {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                try {
+                    if (fsync) {
+                        channel.force(true);
+                    }
+                    channel.close();
+                    moveIntoPlace(temp, target);
+                } catch (IOException e) {
+                    Files.deleteIfExists(temp);
+                    throw e;
+                }
+            }
+        };
+    }
+
+    @Override
+    public byte[] get(String key) {
+        try (FileChannel channel = FileChannel.open(pathOf(key), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE - 8) {
+                throw new IOException("Object too large to load into memory: " + key);
+            }
+            byte[] content = new byte[(int) size];
+            if (size >= mmapThreshold) {
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                mapped.get(content);
+            } else {
+                ByteBuffer buffer = ByteBuffer.wrap(content);
+                while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                    // keep reading until the buffer is full or the file ends
+                }
+            }
+            return content;
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read " + key, e);
+        }
+    }
+
+    @Override
+    public BlobMetadata stat(String key) {
+        Path path = pathOf(key);
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            long modified = attributes.lastModifiedTime().toMillis();
+            String contentType = MediaTypeFactory.getMediaType(path.getFileName().toString())
+                    .map(Object::toString).orElse(null);
+            return new BlobMetadata(key, attributes.size(),
+                    Long.toHexString(modified) + "-" + Long.toHexString(attributes.size()),
+                    modified, contentType, modified);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to stat " + key, e);
+        }
+    }
+
+    @Override
+    public InputStream openStream(BlobMetadata metadata, long offset, long length) throws IOException {
+        FileChannel channel = FileChannel.open(pathOf(metadata.key()), StandardOpenOption.READ);
+        channel.position(offset);
+        return new InputStream() {
+            private final InputStream in = Channels.newInputStream(channel);
+            private long remaining = length;
+
+            @Override
+            public int read() throws IOException {
+                if (remaining <= 0) {
+                    return -1;
+                }
+                int b = in.read();
+                if (b >= 0) {
+                    remaining--;
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] bytes, int off, int len) throws IOException {
+                if (remaining <= 0) {
+                    return -1;
+                }
+                int read = in.read(bytes, off, (int) Math.min(len, remaining));
+                if (read > 0) {
+                    remaining -= read;
+                }
+                return read;
+            }
+
+            @Override
+            public void close() throws IOException {
+                channel.close();
+            }
+        };
+    }
+
+    @Override
+    public void delete(String key) {
+        try {
+            Files.deleteIfExists(pathOf(key));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to delete " + key, e);
+        }
+    }
+
+    @Override
+    public void deleteAll(Collection<String> keys) {
+        keys.forEach(this::delete);
+    }
+
+    @Override
+    public String signUrl(String key, long lifetimeMillis) {
+        long expires = System.currentTimeMillis() + lifetimeMillis;
+        return baseUrl + UriUtils.encodePath(key, StandardCharsets.UTF_8)
+                + "?expires=" + expires + "&signature=" + signature(key, expires);
+    }
+
+    public boolean verify(String key, long expires, String signature) {
+        if (signature == null || expires < System.currentTimeMillis()) {
+            return false;
+        }
+        return MessageDigest.isEqual(signature(key, expires).getBytes(StandardCharsets.US_ASCII),
+                signature.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @Override
+    public String locationOf(String key) {
+        return LOCATION_PREFIX + key;
+    }
+
+    @Override
+    public String keyOf(String location) {
+        return location.startsWith(LOCATION_PREFIX) ? location.substring(LOCATION_PREFIX.length()) : location;
+    }
+
+    private String signature(String key, long expires) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(new SecretKeySpec(signingKey, HMAC_ALGORITHM));
+            return HexFormat.of().formatHex(mac.doFinal((key + "\n" + expires).getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 not available", e);
+        }
+    }
+
+    private static void moveIntoPlace(Path temp, Path target) throws IOException {
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
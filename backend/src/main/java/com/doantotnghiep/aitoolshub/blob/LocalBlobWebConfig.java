@@ -0,0 +1,82 @@
+package com.doantotnghiep.aitoolshub.blob;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.ResourceResolver;
+import org.springframework.web.servlet.resource.ResourceResolverChain;
+import org.springframework.web.util.UriUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Serves {@link LocalBlobStore} objects under {@code /blobs/**}, the target of its signed URLs.
+ * The signature is checked before the request reaches the resource handler, which then provides
+ * byte ranges, Last-Modified and content types the same way it does for static files.
+ */
+@Configuration
+@ConditionalOnExpression("'${blob.store:gcs}' == 'local' and ${blob.local.serve:true}")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class LocalBlobWebConfig implements WebMvcConfigurer {
+
+    private static final String PATH_PREFIX = "/blobs/";
+
+    private final LocalBlobStore blobStore;
+
+    public LocalBlobWebConfig(LocalBlobStore blobStore) {
+        this.blobStore = blobStore;
+    }
+
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        registry.addResourceHandler(PATH_PREFIX + "**")
+                .resourceChain(false)
+                .addResolver(new ResourceResolver() {
+                    @Override
+                    public Resource resolveResource(HttpServletRequest request, String requestPath,
+                            List<? extends Resource> locations, ResourceResolverChain chain) {
+                        Path path = blobStore.pathOf(requestPath);
+                        return Files.isRegularFile(path) ? new FileSystemResource(path) : null;
+                    }
+
+                    @Override
+                    public String resolveUrlPath(String resourcePath, List<? extends Resource> locations,
+                            ResourceResolverChain chain) {
+                        return null;
+                    }
+                });
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                String path = request.getRequestURI().substring(request.getContextPath().length());
+                String key = UriUtils.decode(path.substring(PATH_PREFIX.length()), StandardCharsets.UTF_8);
+                long expires;
+                try {
+                    expires = Long.parseLong(request.getParameter("expires"));
+                } catch (NumberFormatException e) {
+                    expires = 0;
+                }
+                if (!blobStore.verify(key, expires, request.getParameter("signature"))) {
+                    response.setStatus(HttpServletResponse.SC_FORBIDDEN);
+                    return false;
+                }
+                return true;
+            }
+        }).addPathPatterns(PATH_PREFIX + "**");
+    }
+}
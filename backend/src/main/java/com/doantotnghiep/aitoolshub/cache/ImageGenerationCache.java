@@ -0,0 +1,128 @@
+package com.doantotnghiep.aitoolshub.cache;
+
+import com.doantotnghiep.aitoolshub.blob.BlobStore;
+import com.doantotnghiep.aitoolshub.metrics.ToolMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Content-addressed cache for generated images. Entries are keyed by a SHA-256 of the model name
+ * and the normalized request payload, so identical prompts from any user share one result.
+ * Lookups hit a byte-bounded in-memory LRU first and fall back to a copy in the object store.
+ */
+@Component
+public class ImageGenerationCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageGenerationCache.class);
+    private static final String OBJECT_PREFIX = "cache/images/";
+
+    private final BlobStore blobStore;
+    private final ToolMetrics toolMetrics;
+    private final LruByteCache memory;
+    private final boolean enabled;
+    private final Counter memoryHits;
+    private final Counter storageHits;
+    private final Counter misses;
+
+    public ImageGenerationCache(BlobStore blobStore, ToolMetrics toolMetrics,
+            @Value("${cache.images.enabled:true}") boolean enabled,
+            @Value("${cache.images.memory-max-bytes:67108864}") long memoryMaxBytes) {
+        this.blobStore = blobStore;
+        this.toolMetrics = toolMetrics;
+        this.enabled = enabled;
+        this.memory = new LruByteCache(memoryMaxBytes);
+        this.memoryHits = Counter.builder("cache.requests").tag("cache", "images").tag("result", "hit")
+                .tag("tier", "memory").register(Metrics.globalRegistry);
+        this.storageHits = Counter.builder("cache.requests").tag("cache", "images").tag("result", "hit")
+                .tag("tier", "storage").register(Metrics.globalRegistry);
+        this.misses = Counter.builder("cache.requests").tag("cache", "images").tag("result", "miss")
+                .register(Metrics.globalRegistry);
+        Gauge.builder("cache.memory.bytes", memory, LruByteCache::sizeInBytes).tag("cache", "images")
+                .register(Metrics.globalRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String key(String modelName, String input, Object negativePrompt, Object numInferenceSteps) {
+        String normalized = String.join("\n",
+                modelName,
+                normalize(input),
+                normalize(String.valueOf(negativePrompt)),
+                String.valueOf(numInferenceSteps).trim());
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(normalized.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Emits the cached image, or completes empty on a miss.
+     */
+    public Mono<byte[]> lookup(String key) {
+        byte[] cached = memory.get(key);
+        if (cached != null) {
+            memoryHits.increment();
+            return Mono.just(cached);
+        }
+        return Mono.fromCallable(() -> find(key))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Blocking lookup: the cached image, or {@code null} on a miss.
+     */
+    public byte[] find(String key) {
+        byte[] cached = memory.get(key);
+        if (cached != null) {
+            memoryHits.increment();
+            return cached;
+        }
+        byte[] stored;
+        try {
+            stored = blobStore.get(OBJECT_PREFIX + key + ".jpg");
+        } catch (Exception e) {
+            logger.warn("Image cache lookup failed for {}: {}", key, e.getMessage());
+            stored = null;
+        }
+        if (stored == null) {
+            misses.increment();
+            return null;
+        }
+        storageHits.increment();
+        memory.put(key, stored);
+        return stored;
+    }
+
+    public void store(String key, byte[] imageData) {
+        memory.put(key, imageData);
+        Schedulers.boundedElastic().schedule(() -> {
+            try {
+                long start = System.nanoTime();
+                blobStore.put(OBJECT_PREFIX + key + ".jpg", imageData);
+                toolMetrics.recordUpload(OBJECT_PREFIX + key + ".jpg", System.nanoTime() - start, imageData.length);
+            } catch (Exception e) {
+                logger.warn("Failed to persist image cache entry {}: {}", key, e.getMessage());
+            }
+        });
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().replaceAll("\\s+", " ");
+    }
+}
@@ -0,0 +1,27 @@
+package com.doantotnghiep.aitoolshub.cache;
+
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls for the same key: the first caller starts the upstream call and every
+ * caller that arrives before it finishes subscribes to the same result. The entry is dropped as
+ * soon as the call terminates, so later calls start fresh.
+ */
+public class SingleFlight<K, V> {
+
+    private final Map<K, Mono<V>> inFlight = new ConcurrentHashMap<>();
+
+    public Mono<V> execute(K key, Supplier<Mono<V>> call) {
+        return Mono.defer(() -> inFlight.computeIfAbsent(key, k -> call.get()
+                .doFinally(signal -> inFlight.remove(k))
+                .cache()));
+    }
+
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+}
@@ -0,0 +1,155 @@
+package com.doantotnghiep.aitoolshub.cache;
+
+import com.doantotnghiep.aitoolshub.blob.BlobStore;
+import com.doantotnghiep.aitoolshub.metrics.ToolMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Persistent cache for synthesized speech. Audio is stored once under {@code cache/tts/} in the
+ * bucket, keyed by the synthesis parameters, and history rows point at that shared object. Concurrent
+ * identical requests are coalesced so they share a single upstream call.
+ * <p>
+ * A fresh synthesis is returned as soon as the audio arrives and written to storage in the
+ * background. Its {@code stored} stage completes once that write has finished, so a history row
+ * chained off it never points at a cache object that does not exist. While the write is running,
+ * identical requests share the pending synthesis instead of calling upstream again; the memory tier
+ * holds only entries that made it to storage.
+ */
+@Component
+public class SpeechSynthesisCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(SpeechSynthesisCache.class);
+    public static final String OBJECT_PREFIX = "cache/tts/";
+
+    /**
+     * Synthesized audio, and a stage telling whether it is available under {@link #objectPath} for
+     * history rows to point at. The stage is already complete for cache hits.
+     */
+    public record Synthesis(byte[] audio, CompletionStage<Boolean> stored) {
+
+        private static final CompletionStage<Boolean> STORED = CompletableFuture.completedStage(true);
+    }
+
+    private final BlobStore blobStore;
+    private final ToolMetrics toolMetrics;
+    private final LruByteCache memory;
+    private final SingleFlight<String, Synthesis> singleFlight = new SingleFlight<>();
+    private final Map<String, Synthesis> pendingStores = new ConcurrentHashMap<>();
+    private final Counter memoryHits;
+    private final Counter storageHits;
+    private final Counter misses;
+
+    public SpeechSynthesisCache(BlobStore blobStore, ToolMetrics toolMetrics,
+            @Value("${cache.tts.memory-max-bytes:33554432}") long memoryMaxBytes) {
+        this.blobStore = blobStore;
+        this.toolMetrics = toolMetrics;
+        this.memory = new LruByteCache(memoryMaxBytes);
+        this.memoryHits = Counter.builder("cache.requests").tag("cache", "tts").tag("result", "hit")
+                .tag("tier", "memory").register(Metrics.globalRegistry);
+        this.storageHits = Counter.builder("cache.requests").tag("cache", "tts").tag("result", "hit")
+                .tag("tier", "storage").register(Metrics.globalRegistry);
+        this.misses = Counter.builder("cache.requests").tag("cache", "tts").tag("result", "miss")
+                .register(Metrics.globalRegistry);
+        Gauge.builder("cache.memory.bytes", memory, LruByteCache::sizeInBytes).tag("cache", "tts")
+                .register(Metrics.globalRegistry);
+        Gauge.builder("cache.inflight", singleFlight, SingleFlight::inFlightCount).tag("cache", "tts")
+                .register(Metrics.globalRegistry);
+    }
+
+    public String key(String text, String voiceId, String modelId, double speed, double stability,
+            double similarity) {
+        String normalized = String.join("\n", voiceId, modelId,
+                Double.toString(speed), Double.toString(stability), Double.toString(similarity), text);
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(normalized.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public String objectPath(String key) {
+        return OBJECT_PREFIX + key + ".mp3";
+    }
+
+    /**
+     * Returns the cached audio for {@code key}, or runs {@code synthesize} at most once across all
+     * concurrent callers and stores its result in the background. The returned {@link Synthesis}
+     * completes with the audio; when storing fails, its {@code stored} stage yields false and the
+     * caller must keep its own copy.
+     */
+    public Mono<Synthesis> getOrSynthesize(String key, Supplier<Mono<byte[]>> synthesize) {
+        return lookup(key)
+                .switchIfEmpty(Mono.defer(() -> singleFlight.execute(key, () -> {
+                    misses.increment();
+                    return synthesize.get().map(audioData -> store(key, audioData));
+                })));
+    }
+
+    private Mono<Synthesis> lookup(String key) {
+        byte[] cached = memory.get(key);
+        if (cached != null) {
+            memoryHits.increment();
+            return Mono.just(new Synthesis(cached, Synthesis.STORED));
+        }
+        Synthesis pending = pendingStores.get(key);
+        if (pending != null) {
+            memoryHits.increment();
+            return Mono.just(pending);
+        }
+        return Mono.fromCallable(() -> blobStore.get(objectPath(key)))
+                .subscribeOn(Schedulers.boundedElastic())
+                .onErrorResume(e -> {
+                    logger.warn("TTS cache lookup failed for {}: {}", key, e.getMessage());
+                    return Mono.empty();
+                })
+                .doOnNext(audioData -> {
+                    storageHits.increment();
+                    memory.put(key, audioData);
+                })
+                .map(audioData -> new Synthesis(audioData, Synthesis.STORED));
+    }
+
+    // The entry moves to the memory tier before it leaves pendingStores, so identical requests
+    // never miss it in between
+    private Synthesis store(String key, byte[] audioData) {
+        CompletableFuture<Boolean> stored = new CompletableFuture<>();
+        Synthesis synthesis = new Synthesis(audioData, stored);
+        pendingStores.put(key, synthesis);
+        Mono.fromCallable(() -> {
+                    long start = System.nanoTime();
+                    blobStore.put(objectPath(key), audioData);
+                    toolMetrics.recordUpload(objectPath(key), System.nanoTime() - start, audioData.length);
+                    memory.put(key, audioData);
+                    return true;
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .onErrorResume(e -> {
+                    logger.warn("Failed to persist TTS cache entry {}: {}", key, e.getMessage());
+                    return Mono.just(false);
+                })
+                .subscribe(result -> {
+                    pendingStores.remove(key, synthesis);
+                    stored.complete(result);
+                });
+        return synthesis;
+    }
+}
@@ -0,0 +1,127 @@
+package com.doantotnghiep.aitoolshub.config;
+
+import com.doantotnghiep.aitoolshub.enums.AiProvider;
+import io.netty.channel.ChannelOption;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+
+/**
+ * One tuned {@link WebClient} per AI provider. Each provider gets its own connection pool so a slow
+ * or saturated upstream cannot starve the others, and pool usage is published to Micrometer under
+ * {@code reactor.netty.connection.provider.*} tagged with the pool name {@code ai-<provider>}.
+ * <p>
+ * Settings are read from {@code ai.clients.<provider>.*}; anything not set there falls back to
+ * {@code ai.clients.defaults.*}.
+ * <p>
+ * The blocking execution mode uses {@link #restClient(AiProvider)} instead: a {@link RestClient} over
+ * the JDK {@link java.net.http.HttpClient}, created on first use, whose I/O callbacks run on virtual
+ * threads. It honours the timeouts and {@code http2}; the JDK client has no connection cap, so
+ * {@code max-connections} and the pending-acquire settings only apply to the reactive clients.
+ */
+@Component
+public class AiClientRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(AiClientRegistry.class);
+
+    private final Environment environment;
+    private final Map<AiProvider, ConnectionProvider> pools = new EnumMap<>(AiProvider.class);
+    private final Map<AiProvider, WebClient> clients = new EnumMap<>(AiProvider.class);
+    private final RestClient.Builder restClientBuilder;
+    private final Map<AiProvider, java.net.http.HttpClient> blockingHttpClients = new ConcurrentHashMap<>();
+    private final Map<AiProvider, RestClient> restClients = new ConcurrentHashMap<>();
+
+    public AiClientRegistry(WebClient.Builder webClientBuilder, RestClient.Builder restClientBuilder,
+            Environment environment) {
+        this.environment = environment;
+        this.restClientBuilder = restClientBuilder;
+        for (AiProvider provider : AiProvider.values()) {
+            ConnectionProvider pool = ConnectionProvider.builder("ai-" + provider.getKey())
+                    .maxConnections(setting(provider, "max-connections", Integer.class, 50))
+                    .pendingAcquireMaxCount(setting(provider, "pending-acquire-max-count", Integer.class, 200))
+                    .pendingAcquireTimeout(setting(provider, "pending-acquire-timeout", Duration.class,
+                            Duration.ofSeconds(10)))
+                    .maxIdleTime(setting(provider, "max-idle-time", Duration.class, Duration.ofSeconds(30)))
+                    .maxLifeTime(setting(provider, "max-life-time", Duration.class, Duration.ofMinutes(5)))
+                    .evictInBackground(setting(provider, "evict-interval", Duration.class, Duration.ofSeconds(30)))
+                    .metrics(true)
+                    .build();
+
+            Duration connectTimeout = setting(provider, "connect-timeout", Duration.class, Duration.ofSeconds(5));
+            HttpClient httpClient = HttpClient.create(pool)
+                    .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                    .responseTimeout(setting(provider, "response-timeout", Duration.class, Duration.ofSeconds(60)))
+                    .metrics(true, uri -> provider.getKey());
+            if (setting(provider, "http2", Boolean.class, false)) {
+                // ALPN picks h2 on TLS connections and falls back to HTTP/1.1 elsewhere
+                httpClient = httpClient.protocol(HttpProtocol.H2, HttpProtocol.HTTP11);
+            }
+
+            int maxInMemorySize = (int) setting(provider, "max-in-memory-size", DataSize.class,
+                    DataSize.ofMegabytes(10)).toBytes();
+            pools.put(provider, pool);
+            clients.put(provider, webClientBuilder.clone()
+                    .clientConnector(new ReactorClientHttpConnector(httpClient))
+                    .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(maxInMemorySize))
+                    .build());
+        }
+    }
+
+    public WebClient client(AiProvider provider) {
+        return clients.get(provider);
+    }
+
+    public RestClient restClient(AiProvider provider) {
+        return restClients.computeIfAbsent(provider, this::createRestClient);
+    }
+
+    private RestClient createRestClient(AiProvider provider) {
+        java.net.http.HttpClient httpClient = java.net.http.HttpClient.newBuilder()
+                .connectTimeout(setting(provider, "connect-timeout", Duration.class, Duration.ofSeconds(5)))
+                .version(setting(provider, "http2", Boolean.class, false)
+                        ? java.net.http.HttpClient.Version.HTTP_2
+                        : java.net.http.HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        blockingHttpClients.put(provider, httpClient);
+
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(setting(provider, "response-timeout", Duration.class, Duration.ofSeconds(60)));
+        return restClientBuilder.clone()
+                .requestFactory(requestFactory)
+                .build();
+    }
+
+    private <T> T setting(AiProvider provider, String name, Class<T> type, T fallback) {
+        T value = environment.getProperty("ai.clients." + provider.getKey() + "." + name, type);
+        if (value != null) {
+            return value;
+        }
+        return environment.getProperty("ai.clients.defaults." + name, type, fallback);
+    }
+
+    @PreDestroy
+    public void close() {
+        pools.forEach((provider, pool) -> {
+            logger.info("Disposing {} connection pool", provider.getKey());
+            pool.dispose();
+        });
+        blockingHttpClients.values().forEach(java.net.http.HttpClient::close);
+    }
+}
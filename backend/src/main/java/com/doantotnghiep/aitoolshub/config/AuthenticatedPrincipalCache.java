@@ -0,0 +1,85 @@
+package com.doantotnghiep.aitoolshub.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded cache of verified JWTs and the principal loaded for them, so a repeat request with the
+ * same token needs neither signature verification nor a database lookup. An entry never outlives
+ * its token, and all entries for a user are dropped whenever that user's row changes.
+ */
+@Component
+public class AuthenticatedPrincipalCache {
+
+    private record Entry(UserDetails principal, long expiresAtMillis) {
+    }
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final int maxSize;
+    private final long ttlMillis;
+
+    public AuthenticatedPrincipalCache(
+            @Value("${jwt.principal-cache.max-size:10000}") int maxSize,
+            @Value("${jwt.principal-cache.ttl:300000}") long ttlMillis) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+    }
+
+    public UserDetails get(String token) {
+        Entry entry = entries.get(token);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAtMillis() <= System.currentTimeMillis()) {
+            entries.remove(token, entry);
+            return null;
+        }
+        return entry.principal();
+    }
+
+    public void put(String token, UserDetails principal, Date tokenExpiration) {
+        long now = System.currentTimeMillis();
+        long expiresAt = now + ttlMillis;
+        if (tokenExpiration != null) {
+            expiresAt = Math.min(expiresAt, tokenExpiration.getTime());
+        }
+        if (expiresAt <= now) {
+            return;
+        }
+        if (entries.size() >= maxSize) {
+            evict(now);
+        }
+        entries.put(token, new Entry(principal, expiresAt));
+    }
+
+    public void invalidate(String email) {
+        if (email != null) {
+            entries.values().removeIf(entry -> email.equals(entry.principal().getUsername()));
+        }
+    }
+
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    // Drops expired entries first; if the cache is still full, drops arbitrary entries until a
+    // tenth of the capacity is free again
+    private void evict(long now) {
+        entries.values().removeIf(entry -> entry.expiresAtMillis() <= now);
+        Iterator<String> iterator = entries.keySet().iterator();
+        while (entries.size() >= maxSize - maxSize / 10 && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.google.auth.oauth2.GoogleCredentials;
 import com.google.cloud.storage.Storage;
 import com.google.cloud.storage.StorageOptions;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -20,6 +21,7 @@ public class GCSConfig {
     private String credentialsPath;
 
     @Bean
+    @ConditionalOnProperty(name = "blob.store", havingValue = "gcs", matchIfMissing = true)
     public Storage storage() throws IOException {
         StorageOptions.Builder builder = StorageOptions.newBuilder().setProjectId(projectId);
         if (credentialsPath != null) {
@@ -0,0 +1,49 @@
+package com.doantotnghiep.aitoolshub.config;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.context.Context;
+
+/**
+ * WebFlux counterpart of {@link JwtAuthenticationFilter}: authenticates bearer tokens and puts the
+ * result into the Reactor context, where {@link ReactiveSecurityContextHolder} and
+ * {@code CurrentUserService.currentUser()} find it. Tokens already in the principal cache are
+ * handled on the event loop; a miss verifies the token and loads the user on
+ * {@code boundedElastic}, since the lookup is a blocking JPA call.
+ * <p>
+ * Like {@code AdmissionWebFilter} it is added to the security chain and is not a bean itself.
+ */
+public class JwtAuthenticationWebFilter implements WebFilter {
+
+    private final JwtPrincipalResolver principalResolver;
+
+    public JwtAuthenticationWebFilter(JwtPrincipalResolver principalResolver) {
+        this.principalResolver = principalResolver;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String authHeader = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return chain.filter(exchange);
+        }
+        String token = authHeader.substring(7);
+
+        UserDetails cached = principalResolver.cached(token);
+        Mono<UserDetails> principal = cached != null
+                ? Mono.just(cached)
+                : Mono.fromCallable(() -> principalResolver.resolve(token)).subscribeOn(Schedulers.boundedElastic());
+        return principal
+                .map(userDetails -> ReactiveSecurityContextHolder.withAuthentication(
+                        new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities())))
+                .defaultIfEmpty(Context.empty())
+                .flatMap(context -> chain.filter(exchange).contextWrite(context));
+    }
+}
@@ -0,0 +1,44 @@
+package com.doantotnghiep.aitoolshub.config;
+
+import com.doantotnghiep.aitoolshub.JWT.JwtUtil;
+import io.jsonwebtoken.Claims;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.stereotype.Component;
+
+/**
+ * Turns a bearer token into the principal it authenticates, for both the servlet and the WebFlux
+ * JWT filters. {@link #cached} never blocks; {@link #resolve} verifies the token and may load the
+ * user from the database on a cache miss.
+ */
+@Component
+public class JwtPrincipalResolver {
+
+    private final JwtUtil jwtUtil;
+    private final UserDetailsService userDetailsService;
+    private final AuthenticatedPrincipalCache principalCache;
+
+    public JwtPrincipalResolver(JwtUtil jwtUtil, UserDetailsService userDetailsService,
+            AuthenticatedPrincipalCache principalCache) {
+        this.jwtUtil = jwtUtil;
+        this.userDetailsService = userDetailsService;
+        this.principalCache = principalCache;
+    }
+
+    public UserDetails cached(String token) {
+        return principalCache.get(token);
+    }
+
+    public UserDetails resolve(String token) {
+        UserDetails userDetails = principalCache.get(token);
+        if (userDetails == null) {
+            // Cache miss: verify the token once and load the user
+            Claims claims = jwtUtil.parseClaims(token);
+            if (claims != null) {
+                userDetails = userDetailsService.loadUserByUsername(claims.getSubject());
+                principalCache.put(token, userDetails, claims.getExpiration());
+            }
+        }
+        return userDetails;
+    }
+}
@@ -1,7 +1,9 @@
 package com.doantotnghiep.aitoolshub.config;
 
+import com.doantotnghiep.aitoolshub.admission.AdmissionControlFilter;
 import com.doantotnghiep.aitoolshub.service.CustomOAuth2UserService;
 import com.doantotnghiep.aitoolshub.service.CustomUserDetailsService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -21,16 +23,20 @@ import java.util.Arrays;
 
 @Configuration
 @EnableWebSecurity
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class SecurityConfig {
 
     private final CustomOAuth2UserService customOAuth2UserService;
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final AdmissionControlFilter admissionControlFilter;
 
     public SecurityConfig(
             CustomOAuth2UserService customOAuth2UserService,
-            JwtAuthenticationFilter jwtAuthenticationFilter) {
+            JwtAuthenticationFilter jwtAuthenticationFilter,
+            AdmissionControlFilter admissionControlFilter) {
         this.customOAuth2UserService = customOAuth2UserService;
         this.jwtAuthenticationFilter = jwtAuthenticationFilter;
+        this.admissionControlFilter = admissionControlFilter;
     }
 
     @Bean
@@ -63,7 +69,8 @@ public class SecurityConfig {
                         .defaultSuccessUrl("http://localhost:5173", true)
                 )
                 .addFilterBefore(jwtAuthenticationFilter,
-                        UsernamePasswordAuthenticationFilter.class); // Thêm JWT filter
+                        UsernamePasswordAuthenticationFilter.class) // Thêm JWT filter
+                .addFilterAfter(admissionControlFilter, JwtAuthenticationFilter.class);
 
         return http.build();
     }
@@ -81,7 +88,7 @@ public class SecurityConfig {
         ));
         config.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
         config.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type", "Accept"));
-        config.setExposedHeaders(Arrays.asList("Authorization"));
+        config.setExposedHeaders(Arrays.asList("Authorization", "Retry-After"));
         config.setAllowCredentials(true);
         config.setMaxAge(3600L);
 
@@ -101,7 +108,7 @@ public class SecurityConfig {
         ));
         config.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
         config.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type", "Accept"));
-        config.setExposedHeaders(Arrays.asList("Authorization"));
+        config.setExposedHeaders(Arrays.asList("Authorization", "Retry-After"));
         config.setAllowCredentials(true);
         config.setMaxAge(3600L);
 
@@ -0,0 +1,26 @@
+package com.doantotnghiep.aitoolshub.config;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.env.ConfigurableEnvironment;
+
+/**
+ * Moves Reactor's {@code boundedElastic} scheduler onto virtual threads when
+ * {@code spring.threads.virtual.enabled} is set, so the blob store, cache and history calls that the
+ * reactive pipelines offload there park a virtual thread instead of holding a platform one.
+ * <p>
+ * Reactor reads the switch once, when {@code Schedulers} is first loaded, so it has to be set as a
+ * system property before any bean touches a scheduler.
+ */
+public class VirtualThreadEnvironmentPostProcessor implements EnvironmentPostProcessor {
+
+    static final String REACTOR_VIRTUAL_THREADS = "reactor.schedulers.defaultBoundedElasticOnVirtualThreads";
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        if (environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false)
+                && System.getProperty(REACTOR_VIRTUAL_THREADS) == null) {
+            System.setProperty(REACTOR_VIRTUAL_THREADS, "true");
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.doantotnghiep.aitoolshub.config;
+
+import com.google.api.gax.core.NoCredentialsProvider;
+import com.google.api.gax.grpc.ChannelPoolSettings;
+import com.google.api.gax.grpc.InstantiatingGrpcChannelProvider;
+import com.google.cloud.vision.v1.ImageAnnotatorClient;
+import com.google.cloud.vision.v1.ImageAnnotatorSettings;
+import io.grpc.ManagedChannelBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+
+import java.io.IOException;
+
+@Configuration
+public class VisionConfig {
+
+    @Value("${vision.endpoint:}")
+    private String endpoint;
+
+    @Value("${vision.plaintext:false}")
+    private boolean plaintext;
+
+    @Value("${vision.channel-pool-size:4}")
+    private int channelPoolSize;
+
+    /**
+     * One long-lived client backed by a fixed pool of gRPC channels, shared by every OCR request.
+     * Created on first use so the application starts without Vision credentials.
+     */
+    @Bean(destroyMethod = "close")
+    @Lazy
+    public ImageAnnotatorClient imageAnnotatorClient() throws IOException {
+        InstantiatingGrpcChannelProvider.Builder channelProvider =
+                ImageAnnotatorSettings.defaultGrpcTransportProviderBuilder()
+                        .setChannelPoolSettings(ChannelPoolSettings.staticallySized(channelPoolSize));
+        ImageAnnotatorSettings.Builder settings = ImageAnnotatorSettings.newBuilder();
+
+        if (!endpoint.isBlank()) {
+            channelProvider.setEndpoint(endpoint);
+            settings.setEndpoint(endpoint);
+        }
+        if (plaintext) {
+            // Local gRPC stand-ins (tests, load tests) run without TLS or credentials
+            channelProvider.setChannelConfigurator(ManagedChannelBuilder::usePlaintext);
+            settings.setCredentialsProvider(NoCredentialsProvider.create());
+        }
+
+        settings.setTransportChannelProvider(channelProvider.build());
+        return ImageAnnotatorClient.create(settings.build());
+    }
+}
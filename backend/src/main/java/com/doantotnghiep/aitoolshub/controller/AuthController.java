@@ -4,7 +4,10 @@ import com.doantotnghiep.aitoolshub.model.LoginRequest;
 import com.doantotnghiep.aitoolshub.entity.User;
 import com.doantotnghiep.aitoolshub.service.AuthService;
 import com.doantotnghiep.aitoolshub.service.ForgotPasswordService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -16,7 +19,10 @@ import java.util.Map;
 
 @RestController
 @RequestMapping("/api/auth")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class AuthController {
+    private static final Logger logger = LoggerFactory.getLogger(AuthController.class);
+
     private final AuthService authService;
 
     @Autowired
@@ -40,15 +46,15 @@ public class AuthController {
     @PostMapping("/login")
     public ResponseEntity<Map<String, String>> login(@RequestBody LoginRequest request) {
         try {
-            System.out.println("Processing login for email: " + request.getEmail());
+            logger.debug("Processing login for {}", request.getEmail());
             String token = authService.authenticate(request.getEmail(), request.getPassword());
             Map<String, String> response = new HashMap<>();
             response.put("token", token);
             response.put("email", request.getEmail());
-            System.out.println("Login success. Returning response: " + response);
+            logger.debug("Login succeeded for {}", request.getEmail());
             return ResponseEntity.ok(response);
         } catch (Exception e) {
-            System.out.println("Login failed: " + e.getMessage());
+            logger.info("Login failed: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("message", "Invalid email or password"));
         }
     }
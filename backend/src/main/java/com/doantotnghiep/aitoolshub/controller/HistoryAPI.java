@@ -0,0 +1,56 @@
+package com.doantotnghiep.aitoolshub.controller;
+
+import com.doantotnghiep.aitoolshub.model.BulkDeleteRequest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RequestMapping("/api/tools")
+public interface HistoryAPI {
+
+    @GetMapping("/history")
+    ResponseEntity<?> getTimeline(@RequestParam(required = false) String cursor,
+                                  @RequestParam(required = false) Integer limit);
+
+    @GetMapping("/history/chatbot")
+    ResponseEntity<?> getChatbotHistory(@RequestParam(required = false) String cursor,
+                                        @RequestParam(required = false) Integer limit);
+
+    @DeleteMapping("/history/chatbot/{id}")
+    ResponseEntity<?> deleteChatbotHistory(@PathVariable Long id);
+
+    @PostMapping("/history/chatbot/delete")
+    ResponseEntity<?> deleteChatbotHistories(@RequestBody BulkDeleteRequest request);
+
+    @DeleteMapping("/history/chatbot/conversations/{conversationId}")
+    ResponseEntity<?> deleteConversation(@PathVariable String conversationId);
+
+    @GetMapping("/history/images")
+    ResponseEntity<?> getImageHistory(@RequestParam(required = false) String cursor,
+                                      @RequestParam(required = false) Integer limit);
+
+    @DeleteMapping("/history/images/{id}")
+    ResponseEntity<?> deleteImageHistory(@PathVariable Long id);
+
+    @PostMapping("/history/images/delete")
+    ResponseEntity<?> deleteImageHistories(@RequestBody BulkDeleteRequest request);
+
+    @GetMapping("/history/tts")
+    ResponseEntity<?> getTtsHistory(@RequestParam(required = false) String cursor,
+                                    @RequestParam(required = false) Integer limit);
+
+    @DeleteMapping("/history/tts/{id}")
+    ResponseEntity<?> deleteTtsHistory(@PathVariable Long id);
+
+    @PostMapping("/history/tts/delete")
+    ResponseEntity<?> deleteTtsHistories(@RequestBody BulkDeleteRequest request);
+
+    @GetMapping("/history/sounds")
+    ResponseEntity<?> getSoundHistory(@RequestParam(required = false) String cursor,
+                                      @RequestParam(required = false) Integer limit);
+
+    @DeleteMapping("/history/sounds/{id}")
+    ResponseEntity<?> deleteSoundHistory(@PathVariable Long id);
+
+    @PostMapping("/history/sounds/delete")
+    ResponseEntity<?> deleteSoundHistories(@RequestBody BulkDeleteRequest request);
+}
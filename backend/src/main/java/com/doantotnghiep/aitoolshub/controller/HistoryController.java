@@ -0,0 +1,294 @@
+package com.doantotnghiep.aitoolshub.controller;
+
+import com.doantotnghiep.aitoolshub.entity.User;
+import com.doantotnghiep.aitoolshub.model.BulkDeleteRequest;
+import com.doantotnghiep.aitoolshub.service.CurrentUserService;
+import com.doantotnghiep.aitoolshub.service.HistoryDeletionService;
+import com.doantotnghiep.aitoolshub.service.HistoryService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.*;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+@RestController
+@RequestMapping("/api/tools")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class HistoryController implements HistoryAPI {
+
+    private static final Logger logger = LoggerFactory.getLogger(HistoryController.class);
+
+    private final HistoryService historyService;
+    private final CurrentUserService currentUserService;
+    private final HistoryDeletionService historyDeletionService;
+
+    public HistoryController(
+            HistoryService historyService,
+            CurrentUserService currentUserService,
+            HistoryDeletionService historyDeletionService) {
+        this.historyService = historyService;
+        this.currentUserService = currentUserService;
+        this.historyDeletionService = historyDeletionService;
+    }
+
+    @Override
+    public ResponseEntity<?> getTimeline(@RequestParam(required = false) String cursor,
+                                         @RequestParam(required = false) Integer limit) {
+        String email = SecurityContextHolder.getContext().getAuthentication().getName();
+        if (email == null || email.isBlank()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("error", "Authentication required"));
+        }
+        try {
+            User user = currentUserService.getCurrentUser();
+            return ResponseEntity.ok(historyService.getTimeline(user.getId(), cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error fetching history timeline: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Failed to fetch history timeline"));
+        }
+    }
+
+    @Override
+    public ResponseEntity<?> getChatbotHistory(@RequestParam(required = false) String cursor,
+                                               @RequestParam(required = false) Integer limit) {
+        String email = SecurityContextHolder.getContext().getAuthentication().getName();
+        if (email == null || email.isBlank()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("error", "Authentication required"));
+        }
+        try {
+            User user = currentUserService.getCurrentUser();
+            return ResponseEntity.ok(historyService.getChatbotHistory(user.getId(), cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error fetching chatbot history: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Failed to fetch chatbot history"));
+        }
+    }
+
+    @Override
+    public ResponseEntity<?> deleteChatbotHistory(@PathVariable Long id) {
+        String email = SecurityContextHolder.getContext().getAuthentication().getName();
+        if (email == null || email.isBlank()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("error", "Authentication required"));
+        }
+        try {
+            User user = currentUserService.getCurrentUser();
+            if (historyDeletionService.deleteChatbotHistory(user.getId(), List.of(id)).deleted() == 0) {
+                throw new RuntimeException("History not found: " + id);
+            }
+            return ResponseEntity.ok(Map.of("message", "Chat history deleted successfully"));
+        } catch (AccessDeniedException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Map.of("error", "Unauthorized to delete this history"));
+        } catch (Exception e) {
+            logger.error("Error deleting chatbot history: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", "Failed to delete chat history: " + e.getMessage()));
+        }
+    }
+
+    @Override
+    public ResponseEntity<?> getImageHistory(@RequestParam(required = false) String cursor,
+                                             @RequestParam(required = false) Integer limit) {
+        String email = SecurityContextHolder.getContext().getAuthentication().getName();
+        if (email == null || email.isBlank()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("error", "Authentication required"));
+        }
+        try {
+            User user = currentUserService.getCurrentUser();
+            return ResponseEntity.ok(historyService.getImageHistory(user.getId(), cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error fetching image history: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Failed to fetch image history"));
+        }
+    }
+
+    @Override
+    public ResponseEntity<?> deleteImageHistory(@PathVariable Long id) {
+        String email = SecurityContextHolder.getContext().getAuthentication().getName();
+        if (email == null || email.isBlank()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("error", "Authentication required"));
+        }
+        try {
+            User user = currentUserService.getCurrentUser();
+            if (historyDeletionService.deleteImageHistory(user.getId(), List.of(id)).deleted() == 0) {
+                throw new RuntimeException("Image not found: " + id);
+            }
+            return ResponseEntity.ok(Map.of("message", "Image deleted successfully"));
+        } catch (AccessDeniedException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Map.of("error", "Unauthorized to delete this image"));
+        } catch (Exception e) {
+            logger.error("Error deleting image: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", "Failed to delete image: " + e.getMessage()));
+        }
+    }
+
+    @Override
+    public ResponseEntity<?> getTtsHistory(@RequestParam(required = false) String cursor,
+                                           @RequestParam(required = false) Integer limit) {
+        String email = SecurityContextHolder.getContext().getAuthentication().getName();
+        if (email == null || email.isBlank()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("error", "Authentication required"));
+        }
+        try {
+            User user = currentUserService.getCurrentUser();
+            return ResponseEntity.ok(historyService.getTtsHistory(user.getId(), cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error fetching TTS history: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Failed to fetch TTS history"));
+        }
+    }
+
+    @Override
+    public ResponseEntity<?> deleteTtsHistory(@PathVariable Long id) {
+        String email = SecurityContextHolder.getContext().getAuthentication().getName();
+        if (email == null || email.isBlank()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("error", "Authentication required"));
+        }
+        try {
+            User user = currentUserService.getCurrentUser();
+            if (historyDeletionService.deleteTtsHistory(user.getId(), List.of(id)).deleted() == 0) {
+                throw new RuntimeException("History not found: " + id);
+            }
+            return ResponseEntity.ok(Map.of("message", "TTS history deleted successfully"));
+        } catch (AccessDeniedException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Map.of("error", "Unauthorized to delete this history"));
+        } catch (Exception e) {
+            logger.error("Error deleting TTS history: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", "Failed to delete TTS history: " + e.getMessage()));
+        }
+    }
+
+    @Override
+    public ResponseEntity<?> getSoundHistory(@RequestParam(required = false) String cursor,
+                                             @RequestParam(required = false) Integer limit) {
+        String email = SecurityContextHolder.getContext().getAuthentication().getName();
+        if (email == null || email.isBlank()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("error", "Authentication required"));
+        }
+        try {
+            User user = currentUserService.getCurrentUser();
+            return ResponseEntity.ok(historyService.getSoundHistory(user.getId(), cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error fetching sound history: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Failed to fetch sound history"));
+        }
+    }
+
+    @Override
+    public ResponseEntity<?> deleteSoundHistory(@PathVariable Long id) {
+        String email = SecurityContextHolder.getContext().getAuthentication().getName();
+        if (email == null || email.isBlank()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("error", "Authentication required"));
+        }
+        try {
+            User user = currentUserService.getCurrentUser();
+            if (historyDeletionService.deleteSoundHistory(user.getId(), List.of(id)).deleted() == 0) {
+                throw new RuntimeException("Sound history not found: " + id);
+            }
+            return ResponseEntity.ok(Map.of("message", "Sound history deleted successfully"));
+        } catch (AccessDeniedException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Map.of("error", "Unauthorized to delete this sound history"));
+        } catch (Exception e) {
+            logger.error("Error deleting sound history: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", "Failed to delete sound history: " + e.getMessage()));
+        }
+    }
+
+    @Override
+    public ResponseEntity<?> deleteChatbotHistories(@RequestBody BulkDeleteRequest request) {
+        return bulkDelete(request, "chat history", historyDeletionService::deleteChatbotHistory);
+    }
+
+    @Override
+    public ResponseEntity<?> deleteConversation(@PathVariable String conversationId) {
+        String email = SecurityContextHolder.getContext().getAuthentication().getName();
+        if (email == null || email.isBlank()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("error", "Authentication required"));
+        }
+        try {
+            User user = currentUserService.getCurrentUser();
+            HistoryDeletionService.Result result = historyDeletionService.deleteConversation(user.getId(), conversationId);
+            return ResponseEntity.ok(Map.of("message", "Conversation deleted successfully",
+                    "deleted", result.deleted()));
+        } catch (Exception e) {
+            logger.error("Error deleting conversation: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", "Failed to delete conversation: " + e.getMessage()));
+        }
+    }
+
+    @Override
+    public ResponseEntity<?> deleteImageHistories(@RequestBody BulkDeleteRequest request) {
+        return bulkDelete(request, "images", historyDeletionService::deleteImageHistory);
+    }
+
+    @Override
+    public ResponseEntity<?> deleteTtsHistories(@RequestBody BulkDeleteRequest request) {
+        return bulkDelete(request, "TTS history", historyDeletionService::deleteTtsHistory);
+    }
+
+    @Override
+    public ResponseEntity<?> deleteSoundHistories(@RequestBody BulkDeleteRequest request) {
+        return bulkDelete(request, "sound history", historyDeletionService::deleteSoundHistory);
+    }
+
+    private ResponseEntity<?> bulkDelete(BulkDeleteRequest request, String what,
+            BiFunction<Long, Collection<Long>, HistoryDeletionService.Result> delete) {
+        String email = SecurityContextHolder.getContext().getAuthentication().getName();
+        if (email == null || email.isBlank()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("error", "Authentication required"));
+        }
+        try {
+            User user = currentUserService.getCurrentUser();
+            HistoryDeletionService.Result result = delete.apply(user.getId(), request.ids());
+            return ResponseEntity.ok(Map.of("deleted", result.deleted(), "missing", result.missing()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (AccessDeniedException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Map.of("error", "Unauthorized to delete this " + what));
+        } catch (Exception e) {
+            logger.error("Error deleting {}: {}", what, e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", "Failed to delete " + what + ": " + e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.doantotnghiep.aitoolshub.controller;
+
+import com.doantotnghiep.aitoolshub.model.ImageGenerationRequest;
+import com.doantotnghiep.aitoolshub.model.JobView;
+import com.doantotnghiep.aitoolshub.model.TextToMusicRequest;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+
+@RequestMapping("/api/tools/jobs")
+public interface JobAPI {
+
+    @PostMapping("/model1")
+    ResponseEntity<?> submitModel1Job(@RequestBody ImageGenerationRequest request);
+
+    @PostMapping("/model2")
+    ResponseEntity<?> submitModel2Job(@RequestBody ImageGenerationRequest request);
+
+    @PostMapping("/auto")
+    ResponseEntity<?> submitAutoModelJob(@RequestBody ImageGenerationRequest request);
+
+    @PostMapping("/text-to-music")
+    ResponseEntity<?> submitTextToMusicJob(@RequestBody TextToMusicRequest request);
+
+    @GetMapping("/{jobId}")
+    ResponseEntity<?> getJob(@PathVariable String jobId);
+
+    @GetMapping(value = "/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    Flux<ServerSentEvent<JobView>> watchJob(@PathVariable String jobId);
+
+    @GetMapping("/{jobId}/result")
+    ResponseEntity<?> getJobResult(@PathVariable String jobId);
+}
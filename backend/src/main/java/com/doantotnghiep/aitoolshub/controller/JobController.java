@@ -0,0 +1,143 @@
+package com.doantotnghiep.aitoolshub.controller;
+
+import com.doantotnghiep.aitoolshub.enums.AiProvider;
+import com.doantotnghiep.aitoolshub.enums.JobStatus;
+import com.doantotnghiep.aitoolshub.model.ImageGenerationRequest;
+import com.doantotnghiep.aitoolshub.model.JobView;
+import com.doantotnghiep.aitoolshub.model.TextToMusicRequest;
+import com.doantotnghiep.aitoolshub.service.CurrentUserService;
+import com.doantotnghiep.aitoolshub.service.GenerationJobService;
+import com.doantotnghiep.aitoolshub.service.TextToImageService;
+import com.doantotnghiep.aitoolshub.service.TextToMusicService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+@RestController
+@RequestMapping("/api/tools/jobs")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class JobController implements JobAPI {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobController.class);
+
+    private final GenerationJobService jobService;
+    private final TextToImageService textToImageService;
+    private final TextToMusicService textToMusicService;
+    private final CurrentUserService currentUserService;
+
+    public JobController(
+            GenerationJobService jobService,
+            TextToImageService textToImageService,
+            TextToMusicService textToMusicService,
+            CurrentUserService currentUserService) {
+        this.jobService = jobService;
+        this.textToImageService = textToImageService;
+        this.textToMusicService = textToMusicService;
+        this.currentUserService = currentUserService;
+    }
+
+    @Override
+    public ResponseEntity<?> submitModel1Job(@RequestBody ImageGenerationRequest request) {
+        return submit("model1", AiProvider.HUGGING_FACE, MediaType.IMAGE_JPEG,
+                () -> textToImageService.callModel1Api(request));
+    }
+
+    @Override
+    public ResponseEntity<?> submitModel2Job(@RequestBody ImageGenerationRequest request) {
+        return submit("model2", AiProvider.HUGGING_FACE, MediaType.IMAGE_JPEG,
+                () -> textToImageService.callModel2Api(request));
+    }
+
+    @Override
+    public ResponseEntity<?> submitAutoModelJob(@RequestBody ImageGenerationRequest request) {
+        return submit("auto", AiProvider.HUGGING_FACE, MediaType.IMAGE_JPEG,
+                () -> textToImageService.callAutoApi(request));
+    }
+
+    @Override
+    public ResponseEntity<?> submitTextToMusicJob(@RequestBody TextToMusicRequest request) {
+        if (request.text() == null || request.text().isBlank()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Input text cannot be empty"));
+        }
+
+        return submit("text-to-music", AiProvider.ELEVENLABS, MediaType.parseMediaType("audio/mp3"),
+                () -> textToMusicService.callTextToMusicApi(request.text(), request.durationSeconds(),
+                        request.promptInfluence()));
+    }
+
+    @Override
+    public ResponseEntity<?> getJob(@PathVariable String jobId) {
+        JobView job = jobService.getJob(jobId, currentUserId());
+        if (job == null) {
+            return notFound(jobId);
+        }
+        return ResponseEntity.ok(job);
+    }
+
+    @Override
+    public Flux<ServerSentEvent<JobView>> watchJob(@PathVariable String jobId) {
+        return jobService.watch(jobId, currentUserId())
+                .map(job -> ServerSentEvent.<JobView>builder()
+                        .event("status")
+                        .data(job)
+                        .build());
+    }
+
+    @Override
+    public ResponseEntity<?> getJobResult(@PathVariable String jobId) {
+        Long userId = currentUserId();
+        JobView job = jobService.getJob(jobId, userId);
+        if (job == null) {
+            return notFound(jobId);
+        }
+        if (job.status() == JobStatus.FAILED) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", String.valueOf(job.error())));
+        }
+        byte[] result = jobService.getResult(jobId, userId);
+        if (job.status() != JobStatus.SUCCEEDED || result == null) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("error", "Job is not finished yet", "status", job.status().name()));
+        }
+        return ResponseEntity.ok()
+                .contentType(jobService.getResultType(jobId, userId))
+                .body(result);
+    }
+
+    // The generation is assembled here, on the request thread, because the services resolve the
+    // current user from the security context while building the pipeline
+    private ResponseEntity<?> submit(String type, AiProvider provider, MediaType contentType,
+            Supplier<Mono<byte[]>> generation) {
+        try {
+            JobView job = jobService.submit(type, provider, currentUserId(), contentType, generation.get());
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/tools/jobs/" + job.jobId()))
+                    .body(job);
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Failed to submit {} job: {}", type, e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    private Long currentUserId() {
+        return currentUserService.getCurrentUser().getId();
+    }
+
+    private static ResponseEntity<?> notFound(String jobId) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "Job not found: " + jobId));
+    }
+}
@@ -0,0 +1,16 @@
+package com.doantotnghiep.aitoolshub.controller;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RequestMapping("/api/tools")
+public interface MediaAPI {
+
+    @GetMapping("/media/{type}/{id}")
+    ResponseEntity<StreamingResponseBody> getMedia(@PathVariable String type, @PathVariable Long id,
+                                                   @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+                                                   WebRequest webRequest);
+}
@@ -0,0 +1,170 @@
+package com.doantotnghiep.aitoolshub.controller;
+
+import com.doantotnghiep.aitoolshub.blob.BlobMetadata;
+import com.doantotnghiep.aitoolshub.blob.BlobStore;
+import com.doantotnghiep.aitoolshub.entity.User;
+import com.doantotnghiep.aitoolshub.repository.ImageHistoryRepository;
+import com.doantotnghiep.aitoolshub.repository.SoundHistoryRepository;
+import com.doantotnghiep.aitoolshub.repository.TextToSpeechHistoryRepository;
+import com.doantotnghiep.aitoolshub.service.CurrentUserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.*;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Serves generated images and audio straight from the blob store. Objects are streamed rather
+ * than loaded into memory, single byte ranges are honoured so audio can be seeked, and the object's
+ * ETag and update time drive conditional GETs.
+ */
+@RestController
+@RequestMapping("/api/tools")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class MediaController implements MediaAPI {
+
+    private static final Logger logger = LoggerFactory.getLogger(MediaController.class);
+
+    private record MediaRef(Long ownerId, String gcsPath, MediaType defaultType) {
+    }
+
+    private final CurrentUserService currentUserService;
+    private final ObjectMapper objectMapper;
+    private final BlobStore blobStore;
+    private final ImageHistoryRepository imageHistoryRepository;
+    private final TextToSpeechHistoryRepository textToSpeechHistoryRepository;
+    private final SoundHistoryRepository soundHistoryRepository;
+
+    public MediaController(
+            CurrentUserService currentUserService,
+            ObjectMapper objectMapper,
+            BlobStore blobStore,
+            ImageHistoryRepository imageHistoryRepository,
+            TextToSpeechHistoryRepository textToSpeechHistoryRepository,
+            SoundHistoryRepository soundHistoryRepository) {
+        this.currentUserService = currentUserService;
+        this.objectMapper = objectMapper;
+        this.blobStore = blobStore;
+        this.imageHistoryRepository = imageHistoryRepository;
+        this.textToSpeechHistoryRepository = textToSpeechHistoryRepository;
+        this.soundHistoryRepository = soundHistoryRepository;
+    }
+
+    @Override
+    public ResponseEntity<StreamingResponseBody> getMedia(@PathVariable String type, @PathVariable Long id,
+                                                          @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+                                                          WebRequest webRequest) {
+        User user;
+        try {
+            user = currentUserService.getCurrentUser();
+        } catch (Exception e) {
+            return error(HttpStatus.UNAUTHORIZED, "Authentication required");
+        }
+
+        Optional<MediaRef> media = switch (type) {
+            case "images" -> imageHistoryRepository.findById(id)
+                    .map(h -> new MediaRef(h.getUser().getId(), h.getGcsPath(), MediaType.IMAGE_JPEG));
+            case "tts" -> textToSpeechHistoryRepository.findById(id)
+                    .map(h -> new MediaRef(h.getUser().getId(), h.getGcsPath(), MediaType.parseMediaType("audio/mpeg")));
+            case "sounds" -> soundHistoryRepository.findById(id)
+                    .map(h -> new MediaRef(h.getUser().getId(), h.getGcsPath(), MediaType.parseMediaType("audio/mpeg")));
+            default -> null;
+        };
+        if (media == null) {
+            return error(HttpStatus.NOT_FOUND, "Unknown media type");
+        }
+        if (media.isEmpty() || media.get().gcsPath() == null) {
+            return error(HttpStatus.NOT_FOUND, "Media not found: " + id);
+        }
+        if (!media.get().ownerId().equals(user.getId())) {
+            return error(HttpStatus.FORBIDDEN, "Unauthorized to access this media");
+        }
+
+        BlobMetadata blob;
+        try {
+            blob = blobStore.stat(blobStore.keyOf(media.get().gcsPath()));
+        } catch (Exception e) {
+            logger.error("Error reading media metadata for {}: {}", media.get().gcsPath(), e.getMessage());
+            return error(HttpStatus.BAD_GATEWAY, "Failed to read media");
+        }
+        if (blob == null) {
+            return error(HttpStatus.NOT_FOUND, "Media not found: " + id);
+        }
+
+        String etag = "\"" + blob.etag() + "\"";
+        long lastModified = blob.lastModifiedMillis();
+        if (webRequest.checkNotModified(etag, lastModified)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+
+        long size = blob.size();
+        long start = 0;
+        long end = size - 1;
+        boolean partial = false;
+        // Only a single range is served; a stale If-Range means the client must refetch everything
+        String ifRange = webRequest.getHeader(HttpHeaders.IF_RANGE);
+        if (range != null && size > 0 && (ifRange == null || ifRange.equals(etag))) {
+            List<HttpRange> ranges;
+            try {
+                ranges = HttpRange.parseRanges(range);
+            } catch (IllegalArgumentException e) {
+                ranges = List.of();
+            }
+            if (ranges.size() == 1) {
+                HttpRange requested = ranges.get(0);
+                start = requested.getRangeStart(size);
+                end = requested.getRangeEnd(size);
+                if (start >= size || start > end) {
+                    return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                            .header(HttpHeaders.CONTENT_RANGE, "bytes */" + size)
+                            .build();
+                }
+                partial = true;
+            }
+        }
+
+        MediaType contentType = blob.contentType() != null
+                ? MediaType.parseMediaType(blob.contentType()) : media.get().defaultType();
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(partial ? HttpStatus.PARTIAL_CONTENT : HttpStatus.OK)
+                .contentType(contentType)
+                .contentLength(size == 0 ? 0 : end - start + 1)
+                .eTag(etag)
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .cacheControl(CacheControl.maxAge(Duration.ofHours(1)).cachePrivate());
+        if (partial) {
+            response.header(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+        }
+        if (lastModified >= 0) {
+            response.lastModified(lastModified);
+        }
+
+        // Reading the version that was stat'ed keeps the body consistent with the ETag sent above
+        long from = start;
+        long length = end - start + 1;
+        StreamingResponseBody body = outputStream -> {
+            if (size == 0) {
+                return;
+            }
+            try (InputStream in = blobStore.openStream(blob, from, length)) {
+                in.transferTo(outputStream);
+            }
+        };
+
+        return response.body(body);
+    }
+
+    private ResponseEntity<StreamingResponseBody> error(HttpStatus status, String message) {
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(outputStream -> outputStream.write(objectMapper.writeValueAsBytes(Map.of("error", message))));
+    }
+}
@@ -5,6 +5,7 @@ import com.doantotnghiep.aitoolshub.enums.Role;
 import com.doantotnghiep.aitoolshub.repository.UserRepository;
 import com.doantotnghiep.aitoolshub.JWT.JwtUtil;
 import jakarta.transaction.Transactional;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -19,6 +20,7 @@ import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/auth")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class OAuthController {
     private final UserRepository userRepository;
     private final JwtUtil jwtUtil;
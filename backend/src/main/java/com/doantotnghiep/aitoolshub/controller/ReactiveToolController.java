@@ -0,0 +1,125 @@
+package com.doantotnghiep.aitoolshub.controller;
+
+import com.doantotnghiep.aitoolshub.enums.ElevenLabsVoice;
+import com.doantotnghiep.aitoolshub.model.TextToSpeechRequest;
+import com.doantotnghiep.aitoolshub.service.OcrService;
+import com.doantotnghiep.aitoolshub.service.TextToSpeechService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.*;
+import org.springframework.http.codec.multipart.FilePart;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * WebFlux versions of the endpoints in {@link ServletToolController}. Uploads are read as
+ * {@link FilePart}s and the synthesized audio is written straight from the upstream
+ * {@link Flux}, so neither holds a thread while waiting.
+ */
+@RestController
+@RequestMapping("/api/tools")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveToolController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveToolController.class);
+
+    private final TextToSpeechService textToSpeechService;
+    private final OcrService ocrService;
+
+    public ReactiveToolController(TextToSpeechService textToSpeechService, OcrService ocrService) {
+        this.textToSpeechService = textToSpeechService;
+        this.ocrService = ocrService;
+    }
+
+    @PostMapping(value = "/text-to-speech/stream", produces = "audio/mpeg")
+    public ResponseEntity<Flux<DataBuffer>> streamTextToSpeech(@RequestBody TextToSpeechRequest request) {
+        String input = request.input();
+        String voice = request.voice();
+        double speed = request.speed();
+        double stability = request.stability();
+        double similarity = request.similarity();
+
+        if (input == null || input.isBlank()) {
+            return streamError(HttpStatus.BAD_REQUEST, "Input text cannot be empty");
+        }
+        if (voice == null || voice.isBlank()) {
+            return streamError(HttpStatus.BAD_REQUEST, "Voice option is required");
+        }
+
+        ElevenLabsVoice voiceEnum = request.voiceOption();
+        if (voiceEnum == null) {
+            return streamError(HttpStatus.BAD_REQUEST, "Invalid voice option");
+        }
+
+        // Netty flushes each chunk as it is written; a client disconnect cancels the upstream call
+        Flux<DataBuffer> audio = textToSpeechService.streamTextToSpeechApi(input, voiceEnum, speed, stability, similarity)
+                .doOnError(e -> logger.error("Error streaming text-to-speech: {}", e.getMessage(), e));
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("audio/mpeg"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=tts_output.mp3")
+                .body(audio);
+    }
+
+    private ResponseEntity<Flux<DataBuffer>> streamError(HttpStatus status, String message) {
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Flux.just(DefaultDataBufferFactory.sharedInstance
+                        .wrap(("{\"error\": \"" + message + "\"}").getBytes())));
+    }
+
+    @PostMapping(value = "/ocr", consumes = MediaType.MULTIPART_FORM_DATA_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<Map<String, String>>> useOcr(@RequestPart("file") Mono<FilePart> file) {
+        return file.flatMap(ReactiveToolController::read)
+                .flatMap(ocrService::callOcrApi)
+                .map(ResponseEntity::ok)
+                .onErrorResume(e -> Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                        .body(Map.of("error", e.getMessage()))));
+    }
+
+    @PostMapping(value = "/ocr/batch", consumes = MediaType.MULTIPART_FORM_DATA_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<?>> useOcrBatch(@RequestPart("files") Flux<FilePart> files) {
+        List<String> fileNames = new ArrayList<>();
+        return files.concatMap(file -> {
+                    fileNames.add(file.filename());
+                    return read(file);
+                })
+                .collectList()
+                .<ResponseEntity<?>>flatMap(images -> {
+                    if (images.isEmpty()) {
+                        return Mono.just(ResponseEntity.badRequest()
+                                .body(Map.of("error", "At least one file is required")));
+                    }
+                    return ocrService.callOcrApi(images)
+                            .<ResponseEntity<?>>map(results -> {
+                                List<Map<String, String>> body = new ArrayList<>(results.size());
+                                for (int i = 0; i < results.size(); i++) {
+                                    Map<String, String> result = new HashMap<>(results.get(i));
+                                    result.put("fileName", fileNames.get(i));
+                                    body.add(result);
+                                }
+                                return ResponseEntity.ok(body);
+                            });
+                });
+    }
+
+    private static Mono<byte[]> read(FilePart file) {
+        return DataBufferUtils.join(file.content())
+                .map(buffer -> {
+                    byte[] bytes = new byte[buffer.readableByteCount()];
+                    buffer.read(bytes);
+                    DataBufferUtils.release(buffer);
+                    return bytes;
+                });
+    }
+}
@@ -0,0 +1,138 @@
+package com.doantotnghiep.aitoolshub.controller;
+
+import com.doantotnghiep.aitoolshub.enums.ElevenLabsVoice;
+import com.doantotnghiep.aitoolshub.model.TextToSpeechRequest;
+import com.doantotnghiep.aitoolshub.service.OcrService;
+import com.doantotnghiep.aitoolshub.service.TextToSpeechService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.*;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Tool endpoints whose request or response bodies are servlet types (multipart uploads and a
+ * streamed response). {@link ReactiveToolController} serves the same paths on the WebFlux stack.
+ */
+@RestController
+@RequestMapping("/api/tools")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ServletToolController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ServletToolController.class);
+
+    private final TextToSpeechService textToSpeechService;
+    private final OcrService ocrService;
+
+    public ServletToolController(TextToSpeechService textToSpeechService, OcrService ocrService) {
+        this.textToSpeechService = textToSpeechService;
+        this.ocrService = ocrService;
+    }
+
+    @PostMapping(value = "/text-to-speech/stream", produces = "audio/mpeg")
+    public ResponseEntity<StreamingResponseBody> streamTextToSpeech(@RequestBody TextToSpeechRequest request) {
+        String input = request.input();
+        String voice = request.voice();
+        double speed = request.speed();
+        double stability = request.stability();
+        double similarity = request.similarity();
+
+        if (input == null || input.isBlank()) {
+            return streamError(HttpStatus.BAD_REQUEST, "Input text cannot be empty");
+        }
+        if (voice == null || voice.isBlank()) {
+            return streamError(HttpStatus.BAD_REQUEST, "Voice option is required");
+        }
+
+        ElevenLabsVoice voiceEnum = request.voiceOption();
+        if (voiceEnum == null) {
+            return streamError(HttpStatus.BAD_REQUEST, "Invalid voice option");
+        }
+
+        Flux<DataBuffer> audio = textToSpeechService.streamTextToSpeechApi(input, voiceEnum, speed, stability, similarity);
+
+        // Each chunk is flushed as soon as it arrives so the browser can start playback;
+        // closing the stream cancels the upstream call if the client goes away
+        StreamingResponseBody body = outputStream -> {
+            try (Stream<DataBuffer> chunks = audio.toStream()) {
+                Iterator<DataBuffer> iterator = chunks.iterator();
+                while (iterator.hasNext()) {
+                    DataBuffer chunk = iterator.next();
+                    try (InputStream in = chunk.asInputStream(true)) {
+                        in.transferTo(outputStream);
+                    }
+                    outputStream.flush();
+                }
+            } catch (RuntimeException e) {
+                logger.error("Error streaming text-to-speech: {}", e.getMessage(), e);
+                throw e;
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("audio/mpeg"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=tts_output.mp3")
+                .body(body);
+    }
+
+    private ResponseEntity<StreamingResponseBody> streamError(HttpStatus status, String message) {
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(outputStream -> outputStream.write(("{\"error\": \"" + message + "\"}").getBytes()));
+    }
+
+
+    @PostMapping(value = "/ocr", consumes = MediaType.MULTIPART_FORM_DATA_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<Map<String, String>>> useOcr(@RequestParam("file") MultipartFile file) {
+        try {
+            return ocrService.callOcrApi(file.getBytes())
+                    .map(ResponseEntity::ok)
+                    .onErrorResume(e -> Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                            .body(Map.of("error", e.getMessage()))));
+        } catch (IOException e) {
+            return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Failed to read file: " + e.getMessage())));
+        }
+    }
+
+    @PostMapping(value = "/ocr/batch", consumes = MediaType.MULTIPART_FORM_DATA_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<?>> useOcrBatch(@RequestParam("files") List<MultipartFile> files) {
+        if (files == null || files.isEmpty()) {
+            return Mono.just(ResponseEntity.badRequest()
+                    .body(Map.of("error", "At least one file is required")));
+        }
+        List<byte[]> images = new ArrayList<>(files.size());
+        try {
+            for (MultipartFile file : files) {
+                images.add(file.getBytes());
+            }
+        } catch (IOException e) {
+            return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Failed to read file: " + e.getMessage())));
+        }
+        return ocrService.callOcrApi(images)
+                .<ResponseEntity<?>>map(results -> {
+                    List<Map<String, String>> body = new ArrayList<>(results.size());
+                    for (int i = 0; i < results.size(); i++) {
+                        Map<String, String> result = new HashMap<>(results.get(i));
+                        result.put("fileName", String.valueOf(files.get(i).getOriginalFilename()));
+                        body.add(result);
+                    }
+                    return ResponseEntity.ok(body);
+                });
+    }
+}
@@ -1,9 +1,14 @@
 package com.doantotnghiep.aitoolshub.controller;
 
+import com.doantotnghiep.aitoolshub.model.ChatbotRequest;
+import com.doantotnghiep.aitoolshub.model.ImageGenerationRequest;
+import com.doantotnghiep.aitoolshub.model.TextToMusicRequest;
+import com.doantotnghiep.aitoolshub.model.TextToSpeechRequest;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.multipart.MultipartFile;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.util.Map;
@@ -12,44 +17,23 @@ import java.util.Map;
 public interface ToolAPI {
 
     @PostMapping(value = "/model1", produces = MediaType.IMAGE_JPEG_VALUE)
-    Mono<ResponseEntity<byte[]>> callModel1Api(@RequestBody Map<String, Object> payload);
+    Mono<ResponseEntity<byte[]>> callModel1Api(@RequestBody ImageGenerationRequest request);
 
     @PostMapping(value = "/model2", produces = MediaType.IMAGE_JPEG_VALUE)
-    Mono<ResponseEntity<byte[]>> callModel2Api(@RequestBody Map<String, Object> payload);
+    Mono<ResponseEntity<byte[]>> callModel2Api(@RequestBody ImageGenerationRequest request);
+
+    @PostMapping(value = "/auto", produces = MediaType.IMAGE_JPEG_VALUE)
+    Mono<ResponseEntity<byte[]>> callAutoModelApi(@RequestBody ImageGenerationRequest request);
 
     @PostMapping("/chatbot")
-    Mono<ResponseEntity<Map<String, String>>> callChatbot(@RequestBody Map<String, Object> request);
+    Mono<ResponseEntity<Map<String, String>>> callChatbot(@RequestBody ChatbotRequest request);
+
+    @PostMapping(value = "/chatbot/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    Flux<ServerSentEvent<Map<String, String>>> streamChatbot(@RequestBody ChatbotRequest request);
 
     @PostMapping("/text-to-speech")
-    Mono<ResponseEntity<byte[]>> useTextToSpeech(@RequestBody Map<String, Object> request);
+    Mono<ResponseEntity<byte[]>> useTextToSpeech(@RequestBody TextToSpeechRequest request);
 
     @PostMapping(value = "/text-to-music", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
-    Mono<ResponseEntity<byte[]>> useTextToMusic(@RequestBody Map<String, Object> payload);
-
-    @PostMapping(value = "/ocr", consumes = MediaType.MULTIPART_FORM_DATA_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
-    Mono<ResponseEntity<Map<String, String>>> useOcr(@RequestParam("file") MultipartFile file);
-
-    @GetMapping("/history/chatbot")
-    ResponseEntity<?> getChatbotHistory();
-
-    @DeleteMapping("/history/chatbot/{id}")
-    ResponseEntity<?> deleteChatbotHistory(@PathVariable Long id);
-
-    @GetMapping("/history/images")
-    ResponseEntity<?> getImageHistory();
-
-    @DeleteMapping("/history/images/{id}")
-    ResponseEntity<?> deleteImageHistory(@PathVariable Long id);
-
-    @GetMapping("/history/tts")
-    ResponseEntity<?> getTtsHistory();
-
-    @DeleteMapping("/history/tts/{id}")
-    ResponseEntity<?> deleteTtsHistory(@PathVariable Long id);
-
-    @GetMapping("/history/sounds")
-    ResponseEntity<?> getSoundHistory();
-
-    @DeleteMapping("/history/sounds/{id}")
-    ResponseEntity<?> deleteSoundHistory(@PathVariable Long id);
-}
\ No newline at end of file
+    Mono<ResponseEntity<byte[]>> useTextToMusic(@RequestBody TextToMusicRequest request);
+}
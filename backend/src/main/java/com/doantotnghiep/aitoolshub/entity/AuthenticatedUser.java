@@ -0,0 +1,35 @@
+package com.doantotnghiep.aitoolshub.entity;
+
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+
+/**
+ * Principal for JWT-authenticated requests. It carries the user's id so request handling can
+ * reference the {@link User} row without looking it up by email again.
+ */
+public class AuthenticatedUser extends org.springframework.security.core.userdetails.User {
+
+    private final Long id;
+
+    public AuthenticatedUser(Long id, String email, String password,
+            Collection<? extends GrantedAuthority> authorities) {
+        super(email, password, authorities);
+        this.id = id;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * A detached {@link User} holding only the id and email, enough to be set on a
+     * {@code @ManyToOne} association when saving history rows.
+     */
+    public User toUserReference() {
+        return User.builder()
+                .id(id)
+                .email(getUsername())
+                .build();
+    }
+}
@@ -7,7 +7,9 @@ import java.time.LocalDateTime;
 
 @Data
 @Entity
-@Table(name = "chatbot_history")
+@Table(name = "chatbot_history", indexes = {
+        @Index(name = "idx_chatbot_history_user_time_id", columnList = "user_id, timestamp, id")
+})
 public class ChatbotHistory {
 
     @Id
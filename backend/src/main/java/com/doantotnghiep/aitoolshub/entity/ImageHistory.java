@@ -6,7 +6,9 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "image_history")
+@Table(name = "image_history", indexes = {
+        @Index(name = "idx_image_history_user_created_id", columnList = "user_id, created_at, id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -34,6 +36,13 @@ public class ImageHistory {
     @Column(nullable = false)
     private String modelUsed;
 
+    // Derived sizes for list views; null until derived
+    @Column(name = "thumbnail_path")
+    private String thumbnailPath;
+
+    @Column(name = "preview_path")
+    private String previewPath;
+
     @Column(nullable = false)
     private LocalDateTime createdAt;
 }
\ No newline at end of file
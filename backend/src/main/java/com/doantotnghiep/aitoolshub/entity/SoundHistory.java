@@ -14,7 +14,9 @@ import lombok.Setter;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-@Table(name = "sound_history")
+@Table(name = "sound_history", indexes = {
+        @Index(name = "idx_sound_history_user_created_id", columnList = "user_id, created_at, id")
+})
 public class SoundHistory {
 
     @Id
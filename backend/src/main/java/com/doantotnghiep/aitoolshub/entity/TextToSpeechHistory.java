@@ -6,7 +6,9 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "text_to_speech_history")
+@Table(name = "text_to_speech_history", indexes = {
+        @Index(name = "idx_tts_history_user_created_id", columnList = "user_id, created_at, id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
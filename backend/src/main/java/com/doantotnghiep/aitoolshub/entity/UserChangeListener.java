@@ -0,0 +1,26 @@
+package com.doantotnghiep.aitoolshub.entity;
+
+import com.doantotnghiep.aitoolshub.config.AuthenticatedPrincipalCache;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drops cached principals whenever a user row is updated or deleted, which covers password resets
+ * and role changes wherever they are made.
+ */
+@Component
+public class UserChangeListener {
+
+    private final AuthenticatedPrincipalCache principalCache;
+
+    public UserChangeListener(AuthenticatedPrincipalCache principalCache) {
+        this.principalCache = principalCache;
+    }
+
+    @PostUpdate
+    @PostRemove
+    public void onUserChanged(User user) {
+        principalCache.invalidate(user.getEmail());
+    }
+}
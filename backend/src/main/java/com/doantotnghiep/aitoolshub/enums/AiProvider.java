@@ -0,0 +1,14 @@
+package com.doantotnghiep.aitoolshub.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum AiProvider {
+    HUGGING_FACE("huggingface"),
+    GEMINI("gemini"),
+    ELEVENLABS("elevenlabs");
+
+    private final String key;
+}
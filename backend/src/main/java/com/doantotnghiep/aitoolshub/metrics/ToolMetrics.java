@@ -0,0 +1,237 @@
+package com.doantotnghiep.aitoolshub.metrics;
+
+import com.doantotnghiep.aitoolshub.admission.AdmissionControl;
+import com.doantotnghiep.aitoolshub.enums.AiProvider;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.ConnectException;
+import java.net.http.HttpTimeoutException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Stage timings shared by the tool pipelines, so one request's time can be split into the provider
+ * call, the object upload and the history write:
+ * <ul>
+ *     <li>{@code ai.upstream.requests} timer per provider, model and outcome, plus
+ *     {@code ai.upstream.errors} by cause and the {@code ai.upstream.active} in-flight gauge</li>
+ *     <li>{@code blob.upload} timer and {@code blob.upload.bytes} per object prefix</li>
+ *     <li>{@code history.save} timer and {@code history.save.rows} per entity</li>
+ * </ul>
+ * Percentile histograms for these are switched on in {@code management.metrics.distribution}.
+ * <p>
+ * Every upstream attempt is also reported to {@link AdmissionControl} as a sample for its provider's
+ * concurrency limit: its latency (the time to the first element for streamed calls) and whether it
+ * failed with an overload signal. Cancelled attempts are not reported.
+ */
+@Component
+public class ToolMetrics {
+
+    private final Meter.MeterProvider<Timer> upstreamTimers = Timer.builder("ai.upstream.requests")
+            .description("Calls to AI providers, per attempt")
+            .withRegistry(Metrics.globalRegistry);
+    private final Meter.MeterProvider<Counter> upstreamErrors = Counter.builder("ai.upstream.errors")
+            .description("Failed calls to AI providers by cause")
+            .withRegistry(Metrics.globalRegistry);
+    private final Meter.MeterProvider<Timer> uploadTimers = Timer.builder("blob.upload")
+            .description("Object uploads to the blob store")
+            .withRegistry(Metrics.globalRegistry);
+    private final Meter.MeterProvider<DistributionSummary> uploadBytes = DistributionSummary.builder("blob.upload.bytes")
+            .baseUnit("bytes")
+            .withRegistry(Metrics.globalRegistry);
+    private final Meter.MeterProvider<Timer> historyTimers = Timer.builder("history.save")
+            .description("Batched history row inserts")
+            .withRegistry(Metrics.globalRegistry);
+    private final Meter.MeterProvider<DistributionSummary> historyRows = DistributionSummary.builder("history.save.rows")
+            .withRegistry(Metrics.globalRegistry);
+    private final Map<AiProvider, AtomicInteger> active = new EnumMap<>(AiProvider.class);
+    private final AdmissionControl admissionControl;
+
+    public ToolMetrics(AdmissionControl admissionControl) {
+        this.admissionControl = admissionControl;
+        for (AiProvider provider : AiProvider.values()) {
+            AtomicInteger inFlight = new AtomicInteger();
+            active.put(provider, inFlight);
+            Gauge.builder("ai.upstream.active", inFlight, AtomicInteger::get)
+                    .tag("provider", provider.getKey())
+                    .register(Metrics.globalRegistry);
+        }
+    }
+
+    /**
+     * Times each subscription to {@code call}, so every retry attempt is recorded separately.
+     */
+    public <T> Mono<T> upstream(AiProvider provider, String model, Mono<T> call) {
+        return Mono.defer(() -> {
+            Attempt attempt = new Attempt(provider, model);
+            return call.doOnSuccess(value -> {
+                        attempt.sample(null);
+                        attempt.finish("success", null);
+                    })
+                    .doOnError(e -> {
+                        attempt.sample(e);
+                        attempt.finish("error", e);
+                    })
+                    .doOnCancel(() -> attempt.finish("cancelled", null));
+        });
+    }
+
+    /**
+     * Times a streamed call from subscription until the stream ends. The admission sample is taken
+     * at the first element, as the rest of the stream's duration depends on its length.
+     */
+    public <T> Flux<T> upstream(AiProvider provider, String model, Flux<T> call) {
+        return Flux.defer(() -> {
+            Attempt attempt = new Attempt(provider, model);
+            return call.doOnNext(value -> attempt.sample(null))
+                    .doOnComplete(() -> {
+                        attempt.sample(null);
+                        attempt.finish("success", null);
+                    })
+                    .doOnError(e -> {
+                        attempt.sample(e);
+                        attempt.finish("error", e);
+                    })
+                    .doOnCancel(() -> attempt.finish("cancelled", null));
+        });
+    }
+
+    /**
+     * Times a blocking call made on the current thread.
+     */
+    public <T> T upstream(AiProvider provider, String model, Supplier<T> call) {
+        Attempt attempt = new Attempt(provider, model);
+        try {
+            T result = call.get();
+            attempt.sample(null);
+            attempt.finish("success", null);
+            return result;
+        } catch (RuntimeException e) {
+            attempt.sample(e);
+            attempt.finish("error", e);
+            throw e;
+        }
+    }
+
+    public void recordUpload(String key, long nanos, long bytes) {
+        String prefix = prefixOf(key);
+        uploadTimers.withTags("prefix", prefix).record(nanos, TimeUnit.NANOSECONDS);
+        uploadBytes.withTags("prefix", prefix).record(bytes);
+    }
+
+    public void recordHistorySave(String entity, long nanos, int rows) {
+        historyTimers.withTags("entity", entity).record(nanos, TimeUnit.NANOSECONDS);
+        historyRows.withTags("entity", entity).record(rows);
+    }
+
+    /**
+     * The model segment of a provider URL, e.g. {@code gemini-2.0-flash} from
+     * {@code .../models/gemini-2.0-flash:generateContent}.
+     */
+    public static String modelOf(String url) {
+        int models = url.indexOf("/models/");
+        if (models < 0) {
+            return "unknown";
+        }
+        String model = url.substring(models + "/models/".length());
+        int end = model.indexOf(':');
+        return end >= 0 ? model.substring(0, end) : model;
+    }
+
+    /**
+     * A low-cardinality label for why a call failed.
+     */
+    public static String cause(Throwable e) {
+        if (e instanceof WebClientResponseException response) {
+            return "http_" + response.getStatusCode().value();
+        }
+        if (e instanceof TimeoutException) {
+            return "timeout";
+        }
+        if (e instanceof WebClientRequestException request) {
+            return request.getCause() instanceof ConnectException ? "connect" : "io";
+        }
+        if (e instanceof RestClientResponseException response) {
+            return "http_" + response.getStatusCode().value();
+        }
+        if (e instanceof ResourceAccessException access) {
+            if (access.getCause() instanceof ConnectException) {
+                return "connect";
+            }
+            return access.getCause() instanceof HttpTimeoutException ? "timeout" : "io";
+        }
+        return e.getClass().getSimpleName();
+    }
+
+    private static String prefixOf(String key) {
+        int slash = key.indexOf('/');
+        if (slash < 0) {
+            return "none";
+        }
+        // cache/images/... and cache/tts/... are told apart by their second segment
+        int second = key.startsWith("cache/") ? key.indexOf('/', slash + 1) : slash;
+        return key.substring(0, second > 0 ? second : slash);
+    }
+
+    private final class Attempt {
+
+        private final AiProvider provider;
+        private final String model;
+        private final long start = System.nanoTime();
+        private boolean sampled;
+        private boolean finished;
+
+        private Attempt(AiProvider provider, String model) {
+            this.provider = provider;
+            this.model = model;
+            active.get(provider).incrementAndGet();
+        }
+
+        /**
+         * Reports the attempt to admission control once: the first element, completion or error,
+         * whichever comes first.
+         */
+        private void sample(Throwable error) {
+            synchronized (this) {
+                if (sampled) {
+                    return;
+                }
+                sampled = true;
+            }
+            admissionControl.onUpstreamCall(provider, System.nanoTime() - start,
+                    error != null && AdmissionControl.isOverloaded(error));
+        }
+
+        private void finish(String outcome, Throwable error) {
+            synchronized (this) {
+                if (finished) {
+                    return;
+                }
+                finished = true;
+            }
+            active.get(provider).decrementAndGet();
+            upstreamTimers.withTags("provider", provider.getKey(), "model", model, "outcome", outcome)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (error != null) {
+                upstreamErrors.withTags("provider", provider.getKey(), "model", model, "cause", cause(error))
+                        .increment();
+            }
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.doantotnghiep.aitoolshub.model;
+
+import java.util.List;
+
+/**
+ * Body of the bulk history delete endpoints: the ids of the rows to remove.
+ */
+public record BulkDeleteRequest(List<Long> ids) {
+
+    public BulkDeleteRequest {
+        ids = ids == null ? List.of() : ids;
+    }
+}
@@ -0,0 +1,12 @@
+package com.doantotnghiep.aitoolshub.model;
+
+import java.time.LocalDateTime;
+
+public record ChatbotHistoryItem(Long id, String conversationId, String input, String response,
+                                 LocalDateTime timestamp) implements HistoryItem {
+
+    @Override
+    public LocalDateTime createdAt() {
+        return timestamp;
+    }
+}
@@ -0,0 +1,28 @@
+package com.doantotnghiep.aitoolshub.model;
+
+import java.util.List;
+
+/**
+ * Body of the chatbot endpoints. Current clients send only the new {@code message}; older ones
+ * still send the whole transcript in {@code messages}, each entry with a {@code role} of
+ * {@code user} or {@code model}.
+ */
+public record ChatbotRequest(String conversationId, String message, List<Message> messages) {
+
+    public record Message(String role, String text) {
+    }
+
+    /**
+     * The new user message: {@code message}, or the last entry of {@code messages}. {@code null}
+     * when neither is present.
+     */
+    public String newMessage() {
+        if (message != null && !message.isBlank()) {
+            return message;
+        }
+        if (messages == null || messages.isEmpty()) {
+            return null;
+        }
+        return String.valueOf(messages.get(messages.size() - 1).text());
+    }
+}
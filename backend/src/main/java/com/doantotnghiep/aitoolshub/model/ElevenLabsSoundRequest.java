@@ -0,0 +1,10 @@
+package com.doantotnghiep.aitoolshub.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Request body of ElevenLabs' sound-generation endpoint.
+ */
+public record ElevenLabsSoundRequest(String text, @JsonProperty("duration_seconds") double durationSeconds,
+                                     @JsonProperty("prompt_influence") double promptInfluence) {
+}
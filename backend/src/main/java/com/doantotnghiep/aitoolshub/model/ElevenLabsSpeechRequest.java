@@ -0,0 +1,14 @@
+package com.doantotnghiep.aitoolshub.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Request body of ElevenLabs' text-to-speech endpoints, streaming and non-streaming alike.
+ */
+public record ElevenLabsSpeechRequest(String text, @JsonProperty("model_id") String modelId,
+                                      @JsonProperty("voice_settings") VoiceSettings voiceSettings) {
+
+    public record VoiceSettings(double speed, double stability,
+                                @JsonProperty("similarity_boost") double similarityBoost) {
+    }
+}
@@ -0,0 +1,27 @@
+package com.doantotnghiep.aitoolshub.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Request body of Gemini's {@code generateContent} and {@code streamGenerateContent} methods.
+ * {@code systemInstruction}, and the role of a system instruction, are left out when absent.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record GeminiRequest(List<Content> contents, GenerationConfig generationConfig, Content systemInstruction) {
+
+    public record Part(String text) {
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Content(String role, List<Part> parts) {
+
+        public static Content of(String role, String text) {
+            return new Content(role, List.of(new Part(text)));
+        }
+    }
+
+    public record GenerationConfig(double temperature, int maxOutputTokens) {
+    }
+}
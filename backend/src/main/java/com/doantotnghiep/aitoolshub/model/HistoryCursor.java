@@ -0,0 +1,39 @@
+package com.doantotnghiep.aitoolshub.model;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Keyset position in a history list ordered by {@code (createdAt DESC, id DESC)}: the next page
+ * starts strictly after this row. Encoded as an opaque URL-safe string for clients.
+ */
+public record HistoryCursor(LocalDateTime createdAt, long id) {
+
+    /** Positioned before the newest possible row (DATETIME's maximum), i.e. the first page. */
+    public static final HistoryCursor FIRST =
+            new HistoryCursor(LocalDateTime.of(9999, 12, 31, 23, 59, 59), Long.MAX_VALUE);
+
+    public static HistoryCursor after(HistoryItem item) {
+        return new HistoryCursor(item.createdAt(), item.id());
+    }
+
+    public String encode() {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static HistoryCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return FIRST;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            return new HistoryCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
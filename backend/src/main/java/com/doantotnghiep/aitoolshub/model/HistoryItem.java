@@ -0,0 +1,13 @@
+package com.doantotnghiep.aitoolshub.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Common shape of history projections, used to build keyset cursors.
+ */
+public interface HistoryItem {
+
+    Long id();
+
+    LocalDateTime createdAt();
+}
@@ -0,0 +1,9 @@
+package com.doantotnghiep.aitoolshub.model;
+
+import java.util.List;
+
+/**
+ * One page of history, newest first. {@code nextCursor} is {@code null} on the last page.
+ */
+public record HistoryPage<T>(List<T> items, String nextCursor) {
+}
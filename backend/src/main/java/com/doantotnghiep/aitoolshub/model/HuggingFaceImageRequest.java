@@ -0,0 +1,22 @@
+package com.doantotnghiep.aitoolshub.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Request body of the Hugging Face text-to-image inference endpoints.
+ */
+public record HuggingFaceImageRequest(String inputs, Parameters parameters, Options options) {
+
+    public record Parameters(@JsonProperty("negative_prompt") String negativePrompt,
+                             @JsonProperty("num_inference_steps") int numInferenceSteps) {
+    }
+
+    public record Options(@JsonProperty("wait_for_model") boolean waitForModel) {
+    }
+
+    public static HuggingFaceImageRequest of(ImageGenerationRequest request) {
+        return new HuggingFaceImageRequest(request.input(),
+                new Parameters(request.negativePrompt(), request.numInferenceSteps()),
+                new Options(true));
+    }
+}
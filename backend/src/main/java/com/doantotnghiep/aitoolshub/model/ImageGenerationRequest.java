@@ -0,0 +1,23 @@
+package com.doantotnghiep.aitoolshub.model;
+
+/**
+ * Body of the text-to-image endpoints. {@code cache} set to {@code false} bypasses the generation
+ * cache, and {@code preferredModel} ({@code "model1"} or {@code "model2"}) is only read by the auto
+ * endpoint.
+ */
+public record ImageGenerationRequest(String input, String negativePrompt, Integer numInferenceSteps,
+                                     Boolean cache, String preferredModel) {
+
+    public ImageGenerationRequest {
+        if (negativePrompt == null) {
+            negativePrompt = "";
+        }
+        if (numInferenceSteps == null) {
+            numInferenceSteps = 28;
+        }
+    }
+
+    public boolean useCache() {
+        return !Boolean.FALSE.equals(cache);
+    }
+}
@@ -0,0 +1,11 @@
+package com.doantotnghiep.aitoolshub.model;
+
+import java.time.LocalDateTime;
+
+public record ImageHistoryItem(Long id, String prompt, String imageUrl, String thumbnailUrl, String previewUrl,
+                               String modelUsed, LocalDateTime createdAt) implements HistoryItem {
+
+    public ImageHistoryItem withUrls(String imageUrl, String thumbnailUrl, String previewUrl) {
+        return new ImageHistoryItem(id, prompt, imageUrl, thumbnailUrl, previewUrl, modelUsed, createdAt);
+    }
+}
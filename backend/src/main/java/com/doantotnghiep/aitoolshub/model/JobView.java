@@ -0,0 +1,9 @@
+package com.doantotnghiep.aitoolshub.model;
+
+import com.doantotnghiep.aitoolshub.enums.JobStatus;
+
+import java.time.LocalDateTime;
+
+public record JobView(String jobId, String type, JobStatus status, String error, String resultUrl,
+                      LocalDateTime createdAt, LocalDateTime completedAt) {
+}
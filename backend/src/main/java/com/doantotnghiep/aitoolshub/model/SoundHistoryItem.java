@@ -0,0 +1,11 @@
+package com.doantotnghiep.aitoolshub.model;
+
+import java.time.LocalDateTime;
+
+public record SoundHistoryItem(Long id, String prompt, String audioUrl, Double durationSeconds,
+                               Double promptInfluence, LocalDateTime createdAt) implements HistoryItem {
+
+    public SoundHistoryItem withAudioUrl(String audioUrl) {
+        return new SoundHistoryItem(id, prompt, audioUrl, durationSeconds, promptInfluence, createdAt);
+    }
+}
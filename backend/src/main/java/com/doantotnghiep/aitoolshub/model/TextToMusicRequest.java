@@ -0,0 +1,8 @@
+package com.doantotnghiep.aitoolshub.model;
+
+/**
+ * Body of the text-to-music endpoints. {@code durationSeconds} and {@code promptInfluence} are
+ * optional.
+ */
+public record TextToMusicRequest(String text, Double durationSeconds, Double promptInfluence) {
+}
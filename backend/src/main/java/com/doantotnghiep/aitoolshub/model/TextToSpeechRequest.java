@@ -0,0 +1,34 @@
+package com.doantotnghiep.aitoolshub.model;
+
+import com.doantotnghiep.aitoolshub.enums.ElevenLabsVoice;
+
+/**
+ * Body of the text-to-speech endpoints. Voice settings left out fall back to ElevenLabs' usual
+ * defaults.
+ */
+public record TextToSpeechRequest(String input, String voice, Double speed, Double stability, Double similarity) {
+
+    public TextToSpeechRequest {
+        if (speed == null) {
+            speed = 1.0;
+        }
+        if (stability == null) {
+            stability = 0.5;
+        }
+        if (similarity == null) {
+            similarity = 0.75;
+        }
+    }
+
+    /**
+     * The voice named by {@code voice} ("Adam", "adam" or "ADAM" alike), or {@code null} when
+     * it names none.
+     */
+    public ElevenLabsVoice voiceOption() {
+        try {
+            return ElevenLabsVoice.valueOf(voice.trim().replace(" ", "_").toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
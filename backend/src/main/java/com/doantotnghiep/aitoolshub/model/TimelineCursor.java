@@ -0,0 +1,44 @@
+package com.doantotnghiep.aitoolshub.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Position in the merged history timeline: one {@link HistoryCursor} per source, in
+ * {@link TimelineItem.Source} order, each pointing after the last row of that source already
+ * returned. A {@code null} position marks a source with no rows left, which is then not queried
+ * again. Encoded as the sources' own cursors joined with {@code '.'}, an empty part meaning
+ * exhausted.
+ */
+public record TimelineCursor(List<HistoryCursor> positions) {
+
+    public static final TimelineCursor FIRST = new TimelineCursor(
+            Collections.nCopies(TimelineItem.Source.values().length, HistoryCursor.FIRST));
+
+    public HistoryCursor position(TimelineItem.Source source) {
+        return positions.get(source.ordinal());
+    }
+
+    public String encode() {
+        List<String> parts = new ArrayList<>(positions.size());
+        for (HistoryCursor position : positions) {
+            parts.add(position == null ? "" : position.encode());
+        }
+        return String.join(".", parts);
+    }
+
+    public static TimelineCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return FIRST;
+        }
+        String[] parts = cursor.split("\\.", -1);
+        if (parts.length != TimelineItem.Source.values().length) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return new TimelineCursor(Arrays.stream(parts)
+                .map(part -> part.isEmpty() ? null : HistoryCursor.decode(part))
+                .toList());
+    }
+}
@@ -0,0 +1,25 @@
+package com.doantotnghiep.aitoolshub.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * One entry of the merged history timeline: the tool it came from and that tool's own history
+ * item, unchanged.
+ */
+public record TimelineItem(Source type, HistoryItem entry) {
+
+    /**
+     * The history sources, in the order used to break timestamp ties and to lay out cursors.
+     */
+    public enum Source {
+        CHATBOT, IMAGE, TTS, SOUND
+    }
+
+    public Long id() {
+        return entry.id();
+    }
+
+    public LocalDateTime createdAt() {
+        return entry.createdAt();
+    }
+}
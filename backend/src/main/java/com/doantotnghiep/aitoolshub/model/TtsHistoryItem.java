@@ -0,0 +1,12 @@
+package com.doantotnghiep.aitoolshub.model;
+
+import java.time.LocalDateTime;
+
+public record TtsHistoryItem(Long id, String input, String voice, String audioUrl, double speed,
+                             double stability, double similarity,
+                             LocalDateTime createdAt) implements HistoryItem {
+
+    public TtsHistoryItem withAudioUrl(String audioUrl) {
+        return new TtsHistoryItem(id, input, voice, audioUrl, speed, stability, similarity, createdAt);
+    }
+}
@@ -2,10 +2,71 @@ package com.doantotnghiep.aitoolshub.repository;
 
 import com.doantotnghiep.aitoolshub.entity.ChatbotHistory;
 import com.doantotnghiep.aitoolshub.entity.User;
+import com.doantotnghiep.aitoolshub.model.ChatbotHistoryItem;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface ChatbotHistoryRepository extends JpaRepository<ChatbotHistory, Long> {
     List<ChatbotHistory> findByUserOrderByTimestampAsc(User user);
-}
\ No newline at end of file
+
+    @Query("""
+            SELECT new com.doantotnghiep.aitoolshub.model.ChatbotHistoryItem(
+                h.id, h.conversationId, h.input, h.response, h.timestamp)
+            FROM ChatbotHistory h
+            WHERE h.user.id = :userId
+              AND (h.timestamp < :createdAt OR (h.timestamp = :createdAt AND h.id < :id))
+            ORDER BY h.timestamp DESC, h.id DESC
+            """)
+    List<ChatbotHistoryItem> findPage(@Param("userId") Long userId,
+            @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+
+    @Query("""
+            SELECT new com.doantotnghiep.aitoolshub.model.ChatbotHistoryItem(
+                h.id, h.conversationId, h.input, h.response, h.timestamp)
+            FROM ChatbotHistory h
+            WHERE h.user.id = :userId AND h.conversationId = :conversationId
+            ORDER BY h.timestamp ASC, h.id ASC
+            """)
+    List<ChatbotHistoryItem> findConversation(@Param("userId") Long userId,
+            @Param("conversationId") String conversationId);
+
+    @Query("SELECT COUNT(h) FROM ChatbotHistory h WHERE h.user.id = :userId AND h.conversationId = :conversationId")
+    long countConversation(@Param("userId") Long userId, @Param("conversationId") String conversationId);
+
+    interface StoredChatRow extends StoredHistoryRow {
+        String getConversationId();
+    }
+
+    @Query("""
+            SELECT h.id AS id, h.user.id AS userId, h.gcsPath AS gcsPath, h.conversationId AS conversationId
+            FROM ChatbotHistory h
+            WHERE h.id IN :ids
+            """)
+    List<StoredChatRow> findStoredRows(@Param("ids") Collection<Long> ids);
+
+    @Query("""
+            SELECT h.id AS id, h.user.id AS userId, h.gcsPath AS gcsPath, h.conversationId AS conversationId
+            FROM ChatbotHistory h
+            WHERE h.user.id = :userId AND h.conversationId = :conversationId
+            """)
+    List<StoredChatRow> findStoredConversation(@Param("userId") Long userId,
+            @Param("conversationId") String conversationId);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ChatbotHistory h WHERE h.id IN :ids AND h.user.id = :userId")
+    int deleteOwned(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ChatbotHistory h WHERE h.user.id = :userId AND h.conversationId = :conversationId")
+    int deleteConversation(@Param("userId") Long userId, @Param("conversationId") String conversationId);
+}
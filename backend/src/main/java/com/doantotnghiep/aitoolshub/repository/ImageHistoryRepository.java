@@ -2,11 +2,83 @@ package com.doantotnghiep.aitoolshub.repository;
 
 import com.doantotnghiep.aitoolshub.entity.ImageHistory;
 import com.doantotnghiep.aitoolshub.entity.User;
+import com.doantotnghiep.aitoolshub.model.ImageHistoryItem;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 public interface ImageHistoryRepository extends JpaRepository<ImageHistory, Long> {
     List<ImageHistory> findByUser(User user);
 
     List<ImageHistory> findByUserOrderByCreatedAtDesc(User user);
-}
\ No newline at end of file
+
+    @Query("""
+            SELECT new com.doantotnghiep.aitoolshub.model.ImageHistoryItem(
+                h.id, h.prompt, h.imageUrl, h.thumbnailPath, h.previewPath, h.modelUsed, h.createdAt)
+            FROM ImageHistory h
+            WHERE h.user.id = :userId
+              AND (h.createdAt < :createdAt OR (h.createdAt = :createdAt AND h.id < :id))
+            ORDER BY h.createdAt DESC, h.id DESC
+            """)
+    List<ImageHistoryItem> findPage(@Param("userId") Long userId,
+            @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+
+    interface PendingDerivation {
+        Long getId();
+
+        String getGcsPath();
+    }
+
+    @Query("""
+            SELECT h.id AS id, h.gcsPath AS gcsPath
+            FROM ImageHistory h
+            WHERE h.thumbnailPath IS NULL AND h.id > :afterId
+            ORDER BY h.id
+            """)
+    List<PendingDerivation> findMissingDerivatives(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE ImageHistory h SET h.thumbnailPath = :thumbnailPath, h.previewPath = :previewPath WHERE h.id = :id")
+    int updateDerivatives(@Param("id") Long id, @Param("thumbnailPath") String thumbnailPath,
+            @Param("previewPath") String previewPath);
+
+    interface StoredImageRow extends StoredHistoryRow {
+        String getThumbnailPath();
+
+        String getPreviewPath();
+
+        @Override
+        default List<String> storedLocations() {
+            List<String> locations = new ArrayList<>(StoredHistoryRow.super.storedLocations());
+            if (getThumbnailPath() != null) {
+                locations.add(getThumbnailPath());
+            }
+            if (getPreviewPath() != null) {
+                locations.add(getPreviewPath());
+            }
+            return locations;
+        }
+    }
+
+    @Query("""
+            SELECT h.id AS id, h.user.id AS userId, h.gcsPath AS gcsPath,
+                h.thumbnailPath AS thumbnailPath, h.previewPath AS previewPath
+            FROM ImageHistory h
+            WHERE h.id IN :ids
+            """)
+    List<StoredImageRow> findStoredRows(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ImageHistory h WHERE h.id IN :ids AND h.user.id = :userId")
+    int deleteOwned(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
+}
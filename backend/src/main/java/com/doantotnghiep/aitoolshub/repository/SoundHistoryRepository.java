@@ -2,9 +2,17 @@ package com.doantotnghiep.aitoolshub.repository;
 
 import com.doantotnghiep.aitoolshub.entity.SoundHistory;
 import com.doantotnghiep.aitoolshub.entity.User;
+import com.doantotnghiep.aitoolshub.model.SoundHistoryItem;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -13,4 +21,27 @@ public interface SoundHistoryRepository extends JpaRepository<SoundHistory, Long
     List<SoundHistory> findByUserOrderByCreatedAtDesc(User user);
 
     List<SoundHistory> findByUserAndPromptContainingIgnoreCase(User user, String prompt);
-}
\ No newline at end of file
+
+    @Query("""
+            SELECT new com.doantotnghiep.aitoolshub.model.SoundHistoryItem(
+                h.id, h.prompt, COALESCE(h.gcsPath, h.audioUrl), h.durationSeconds, h.promptInfluence, h.createdAt)
+            FROM SoundHistory h
+            WHERE h.user.id = :userId
+              AND (h.createdAt < :createdAt OR (h.createdAt = :createdAt AND h.id < :id))
+            ORDER BY h.createdAt DESC, h.id DESC
+            """)
+    List<SoundHistoryItem> findPage(@Param("userId") Long userId,
+            @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+
+    @Query("""
+            SELECT h.id AS id, h.user.id AS userId, h.gcsPath AS gcsPath
+            FROM SoundHistory h
+            WHERE h.id IN :ids
+            """)
+    List<StoredHistoryRow> findStoredRows(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM SoundHistory h WHERE h.id IN :ids AND h.user.id = :userId")
+    int deleteOwned(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
+}
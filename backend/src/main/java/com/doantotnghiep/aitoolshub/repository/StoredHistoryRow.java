@@ -0,0 +1,24 @@
+package com.doantotnghiep.aitoolshub.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * What deleting a history row needs to know: who owns it and which stored objects go with it.
+ */
+public interface StoredHistoryRow {
+
+    Long getId();
+
+    Long getUserId();
+
+    String getGcsPath();
+
+    default List<String> storedLocations() {
+        List<String> locations = new ArrayList<>(1);
+        if (getGcsPath() != null && !getGcsPath().isBlank()) {
+            locations.add(getGcsPath());
+        }
+        return locations;
+    }
+}
@@ -2,9 +2,41 @@ package com.doantotnghiep.aitoolshub.repository;
 
 import com.doantotnghiep.aitoolshub.entity.TextToSpeechHistory;
 import com.doantotnghiep.aitoolshub.entity.User;
+import com.doantotnghiep.aitoolshub.model.TtsHistoryItem;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface TextToSpeechHistoryRepository extends JpaRepository<TextToSpeechHistory, Long> {
     List<TextToSpeechHistory> findByUserOrderByCreatedAtDesc(User user);
-}
\ No newline at end of file
+
+    @Query("""
+            SELECT new com.doantotnghiep.aitoolshub.model.TtsHistoryItem(
+                h.id, h.input, h.voice, COALESCE(h.gcsPath, h.audioUrl), h.speed, h.stability, h.similarity, h.createdAt)
+            FROM TextToSpeechHistory h
+            WHERE h.user.id = :userId
+              AND (h.createdAt < :createdAt OR (h.createdAt = :createdAt AND h.id < :id))
+            ORDER BY h.createdAt DESC, h.id DESC
+            """)
+    List<TtsHistoryItem> findPage(@Param("userId") Long userId,
+            @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+
+    @Query("""
+            SELECT h.id AS id, h.user.id AS userId, h.gcsPath AS gcsPath
+            FROM TextToSpeechHistory h
+            WHERE h.id IN :ids
+            """)
+    List<StoredHistoryRow> findStoredRows(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM TextToSpeechHistory h WHERE h.id IN :ids AND h.user.id = :userId")
+    int deleteOwned(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
+}
@@ -5,6 +5,8 @@ import com.doantotnghiep.aitoolshub.entity.User;
 import com.doantotnghiep.aitoolshub.enums.Role;
 import com.doantotnghiep.aitoolshub.repository.UserRepository;
 import java.text.Normalizer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -16,6 +18,8 @@ import java.util.UUID;
 @Service
 public class AuthService {
 
+    private static final Logger logger = LoggerFactory.getLogger(AuthService.class);
+
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
@@ -59,14 +63,14 @@ public class AuthService {
 
     public String authenticate(String email, String password) {
         try {
-            System.out.println("Authenticating email: " + email);
+            logger.debug("Authenticating {}", email);
             authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(email, password));
             User user = userRepository.findByEmail(email)
                     .orElseThrow(() -> new RuntimeException("User not found: " + email));
-            System.out.println("Authentication successful for email: " + user.getEmail());
+            logger.debug("Authentication successful for {}", user.getEmail());
             return jwtUtil.generateToken(user.getEmail());
         } catch (Exception e) {
-            System.out.println("Authentication failed: " + e.getMessage());
+            logger.debug("Authentication failed: {}", e.getMessage());
             throw new RuntimeException("Invalid email or password");
         }
     }
@@ -1,17 +1,26 @@
 package com.doantotnghiep.aitoolshub.service;
 
+import com.doantotnghiep.aitoolshub.config.AiClientRegistry;
 import com.doantotnghiep.aitoolshub.entity.ChatbotHistory;
 import com.doantotnghiep.aitoolshub.entity.User;
+import com.doantotnghiep.aitoolshub.enums.AiProvider;
+import com.doantotnghiep.aitoolshub.metrics.ToolMetrics;
+import com.doantotnghiep.aitoolshub.model.ChatbotRequest;
+import com.doantotnghiep.aitoolshub.model.GeminiRequest;
 import com.doantotnghiep.aitoolshub.repository.ChatbotHistoryRepository;
-import com.doantotnghiep.aitoolshub.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.MediaType;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -20,106 +29,258 @@ public class ChatbotService {
 
     private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(ChatbotService.class);
 
+    private static final GeminiRequest.GenerationConfig GENERATION_CONFIG =
+            new GeminiRequest.GenerationConfig(0.5, 1500);
+
     private final WebClient webClient;
-    private final GcsService gcsService;
+    private final AiClientRegistry aiClients;
+    private final HistoryWriter historyWriter;
     private final ChatbotHistoryRepository chatbotHistoryRepository;
-    private final UserRepository userRepository;
+    private final CurrentUserService currentUserService;
+    private final ConversationStore conversationStore;
+    private final ToolMetrics toolMetrics;
+    private final String model;
     private final String apiKey;
     private final String apiUrl;
+    private final String streamApiUrl;
 
     public ChatbotService(
-            WebClient.Builder webClientBuilder,
-            GcsService gcsService,
+            AiClientRegistry aiClients,
+            HistoryWriter historyWriter,
             ChatbotHistoryRepository chatbotHistoryRepository,
-            UserRepository userRepository,
+            CurrentUserService currentUserService,
+            ConversationStore conversationStore,
+            ToolMetrics toolMetrics,
             @Value("${google.api.key}") String apiKey,
-            @Value("${google.models.gemini.url}") String apiUrl) {
-        this.webClient = webClientBuilder.baseUrl(apiUrl).build();
-        this.gcsService = gcsService;
+            @Value("${google.models.gemini.url}") String apiUrl,
+            @Value("${google.models.gemini.stream-url}") String streamApiUrl) {
+        this.webClient = aiClients.client(AiProvider.GEMINI);
+        this.aiClients = aiClients;
+        this.historyWriter = historyWriter;
         this.chatbotHistoryRepository = chatbotHistoryRepository;
-        this.userRepository = userRepository;
+        this.currentUserService = currentUserService;
+        this.conversationStore = conversationStore;
+        this.toolMetrics = toolMetrics;
+        this.model = ToolMetrics.modelOf(apiUrl);
         this.apiKey = apiKey;
         this.apiUrl = apiUrl;
+        this.streamApiUrl = streamApiUrl;
+    }
+
+    public Mono<Map<String, String>> callChatbotApi(ChatbotRequest request) {
+        String conversationId = request.conversationId();
+        if (conversationId == null || conversationId.isBlank()) {
+            throw new IllegalArgumentException("conversationId is required");
+        }
+
+        String input = request.newMessage();
+        if (input == null) {
+            throw new IllegalArgumentException("A message is required");
+        }
+
+        return currentUserService.currentUser()
+                .flatMap(user -> payload(user, conversationId, input, request)
+                        .flatMap(payload -> webClient.post()
+                                .uri(apiUrl + "?key=" + apiKey)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .bodyValue(payload)
+                                .retrieve()
+                                .bodyToMono(byte[].class)
+                                .transform(call -> toolMetrics.upstream(AiProvider.GEMINI, model, call)))
+                        .map(response -> {
+                            String extractedText = extractTextFromResponse(response);
+                            saveHistory(user, conversationId, input, extractedText);
+
+                            return Map.<String, String>of(
+                                    "extractedText", extractedText,
+                                    "conversationId", conversationId
+                            );
+                        }))
+                .onErrorResume(e -> Mono.just(Map.of("extractedText", "Chatbot API Error: " + e.getMessage())));
     }
 
-    public Mono<Map<String, String>> callChatbotApi(Map<String, Object> request) {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found: " + email));
+    /**
+     * Blocking counterpart of {@link #callChatbotApi} for the {@code blocking} execution mode. Errors
+     * from Gemini are reported in {@code extractedText}, as in the reactive version.
+     */
+    public Map<String, String> chat(ChatbotRequest request) {
+        User user = currentUserService.getCurrentUser();
 
-        String conversationId = (String) request.get("conversationId");
+        String conversationId = request.conversationId();
         if (conversationId == null || conversationId.isBlank()) {
             throw new IllegalArgumentException("conversationId is required");
         }
 
-        List<Map<String, Object>> messages = (List<Map<String, Object>>) request.get("messages");
-        if (messages == null || messages.isEmpty()) {
-            throw new IllegalArgumentException("Messages are required");
+        String input = request.newMessage();
+        if (input == null) {
+            throw new IllegalArgumentException("A message is required");
         }
 
-        Map<String, Object> payload = Map.of(
-                "contents", messages.stream().map(message -> Map.of(
-                        "role", message.get("role").equals("user") ? "user" : "model",
-                        "parts", List.of(Map.of("text", message.get("text")))
-                )).toList(),
-                "generationConfig", Map.of(
-                        "temperature", 0.5,
-                        "maxOutputTokens", 1500
-                )
-        );
-
-        return webClient.post()
-                .uri(apiUrl + "?key=" + apiKey)
+        GeminiRequest payload = buildPayload(user, conversationId, input, request);
+
+        try {
+            byte[] response = toolMetrics.upstream(AiProvider.GEMINI, model, () ->
+                    aiClients.restClient(AiProvider.GEMINI).post()
+                            .uri(apiUrl + "?key=" + apiKey)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .body(payload)
+                            .retrieve()
+                            .body(byte[].class));
+            String extractedText = extractTextFromResponse(response);
+            saveHistory(user, conversationId, input, extractedText);
+
+            return Map.of(
+                    "extractedText", extractedText,
+                    "conversationId", conversationId
+            );
+        } catch (RuntimeException e) {
+            return Map.of("extractedText", "Chatbot API Error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Streams the Gemini completion as server-sent events. Each {@code delta} event carries the
+     * next piece of text as soon as Gemini produces it; the history row is persisted once the
+     * upstream stream completes and a final {@code done} event closes the stream.
+     */
+    public Flux<ServerSentEvent<Map<String, String>>> streamChatbotApi(ChatbotRequest request) {
+        String conversationId = request.conversationId();
+        if (conversationId == null || conversationId.isBlank()) {
+            return Flux.error(new IllegalArgumentException("conversationId is required"));
+        }
+
+        String input = request.newMessage();
+        if (input == null) {
+            return Flux.error(new IllegalArgumentException("A message is required"));
+        }
+
+        return currentUserService.currentUser()
+                .flatMapMany(user -> payload(user, conversationId, input, request)
+                        .flatMapMany(payload -> streamEvents(user, conversationId, input, payload)))
+                .onErrorResume(e -> {
+                    logger.error("Error streaming chatbot response: {}", e.getMessage());
+                    return Flux.just(ServerSentEvent.<Map<String, String>>builder()
+                            .event("error")
+                            .data(Map.of("error", "Chatbot API Error: " + e.getMessage()))
+                            .build());
+                });
+    }
+
+    private Flux<ServerSentEvent<Map<String, String>>> streamEvents(User user, String conversationId, String input,
+            GeminiRequest payload) {
+        StringBuilder assembled = new StringBuilder();
+
+        Flux<ServerSentEvent<Map<String, String>>> deltas = webClient.post()
+                .uri(streamApiUrl + "?alt=sse&key=" + apiKey)
                 .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.TEXT_EVENT_STREAM)
                 .bodyValue(payload)
                 .retrieve()
-                .bodyToMono(Map.class)
-                .map(response -> {
-                    String extractedText = extractTextFromResponse(response);
-                    String input = messages.get(messages.size() - 1).get("text").toString();
+                .bodyToFlux(new ParameterizedTypeReference<ServerSentEvent<String>>() {})
+                .transform(call -> toolMetrics.upstream(AiProvider.GEMINI, model, call))
+                .mapNotNull(ServerSentEvent::data)
+                .mapNotNull(this::extractChunkText)
+                .filter(chunk -> !chunk.isEmpty())
+                .doOnNext(assembled::append)
+                .map(chunk -> ServerSentEvent.<Map<String, String>>builder()
+                        .event("delta")
+                        .data(Map.of("text", chunk))
+                        .build());
+
+        Mono<ServerSentEvent<Map<String, String>>> done = Mono.fromSupplier(() -> {
+            String extractedText = assembled.isEmpty() ? "No response from AI" : assembled.toString();
+            saveHistory(user, conversationId, input, extractedText);
+            return ServerSentEvent.<Map<String, String>>builder()
+                    .event("done")
+                    .data(Map.of("conversationId", conversationId))
+                    .build();
+        });
+
+        return deltas.concatWith(done);
+    }
+
+    // Building the context may load the transcript from the database, so it never runs on an event loop
+    private Mono<GeminiRequest> payload(User user, String conversationId, String input, ChatbotRequest request) {
+        return Mono.fromCallable(() -> buildPayload(user, conversationId, input, request))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    // Older clients resend the whole transcript; it only matters when the server has none yet. The
+    // transcript need not alternate: a failed call leaves a user message without a reply, and it
+    // may open with a model greeting. A turn is a user message answered by the model message right
+    // after it; anything else is skipped. The last entry is the new message itself
+    static List<ConversationStore.Turn> clientTurns(ChatbotRequest request) {
+        List<ChatbotRequest.Message> messages = request.messages();
+        if (messages == null || messages.size() < 3) {
+            return List.of();
+        }
+        List<ConversationStore.Turn> turns = new ArrayList<>();
+        String question = null;
+        for (ChatbotRequest.Message message : messages.subList(0, messages.size() - 1)) {
+            if ("user".equals(message.role())) {
+                question = String.valueOf(message.text());
+            } else if ("model".equals(message.role()) && question != null) {
+                turns.add(new ConversationStore.Turn(question, String.valueOf(message.text())));
+                question = null;
+            }
+        }
+        return turns;
+    }
 
+    GeminiRequest buildPayload(User user, String conversationId, String input, ChatbotRequest request) {
+        ConversationStore.Context context = conversationStore.buildContext(
+                user.getId(), conversationId, input, clientTurns(request));
+
+        List<GeminiRequest.Content> contents = new ArrayList<>(context.turns().size() * 2 + 1);
+        for (ConversationStore.Turn turn : context.turns()) {
+            contents.add(GeminiRequest.Content.of("user", turn.input()));
+            contents.add(GeminiRequest.Content.of("model", turn.response()));
+        }
+        contents.add(GeminiRequest.Content.of("user", input));
+
+        GeminiRequest.Content systemInstruction = context.summary() != null
+                ? GeminiRequest.Content.of(null, context.summary())
+                : null;
+        return new GeminiRequest(contents, GENERATION_CONFIG, systemInstruction);
+    }
+
+    private void saveHistory(User user, String conversationId, String input, String extractedText) {
+        conversationStore.append(user.getId(), conversationId, input, extractedText);
+        LocalDateTime timestamp = LocalDateTime.now();
+        historyWriter.submit(HistoryWriter.Entry.withUpload(
+                "chatbot/" + user.getId() + "/" + conversationId + "/" + System.currentTimeMillis() + ".txt",
+                extractedText.getBytes(),
+                chatbotHistoryRepository,
+                gcsPath -> {
                     ChatbotHistory history = new ChatbotHistory();
                     history.setInput(input);
                     history.setResponse(extractedText);
-                    history.setTimestamp(LocalDateTime.now());
+                    history.setTimestamp(timestamp);
                     history.setUser(user);
                     history.setConversationId(conversationId);
-
-                    String gcsPath = gcsService.uploadFile(
-                            "chatbot/" + user.getId() + "/" + conversationId + "/" + System.currentTimeMillis() + ".txt",
-                            extractedText.getBytes()
-                    );
                     history.setGcsPath(gcsPath);
+                    return history;
+                }));
+    }
 
-                    chatbotHistoryRepository.save(history);
-
-                    return Map.of(
-                            "extractedText", extractedText,
-                            "conversationId", conversationId,
-                            "id", history.getId().toString()
-                    );
-                })
-                .onErrorResume(e -> Mono.just(Map.of("extractedText", "Chatbot API Error: " + e.getMessage())));
+    private String extractChunkText(String chunk) {
+        try {
+            return GeminiResponseParser.candidateText(chunk);
+        } catch (IOException e) {
+            logger.error("Error extracting text from stream chunk: {}", e.getMessage());
+            return null;
+        }
     }
 
-    private String extractTextFromResponse(Map response) {
-        String extractedText = "No response from AI";
+    String extractTextFromResponse(byte[] response) {
         try {
-            if (response.containsKey("candidates")) {
-                List<Map<String, Object>> candidates = (List<Map<String, Object>>) response.get("candidates");
-                if (!candidates.isEmpty()) {
-                    Map<String, Object> content = (Map<String, Object>) candidates.get(0).get("content");
-                    if (content != null && content.containsKey("parts")) {
-                        List<Map<String, String>> parts = (List<Map<String, String>>) content.get("parts");
-                        if (!parts.isEmpty()) {
-                            extractedText = parts.get(0).get("text");
-                        }
-                    }
-                }
+            String text = GeminiResponseParser.candidateText(response);
+            if (text != null) {
+                return text;
             }
-        } catch (Exception e) {
+        } catch (IOException e) {
             logger.error("Error extracting text from response: {}", e.getMessage());
         }
-        return extractedText;
+        return "No response from AI";
     }
-}
\ No newline at end of file
+}
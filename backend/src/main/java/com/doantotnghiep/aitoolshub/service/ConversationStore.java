@@ -0,0 +1,236 @@
+package com.doantotnghiep.aitoolshub.service;
+
+import com.doantotnghiep.aitoolshub.model.ChatbotHistoryItem;
+import com.doantotnghiep.aitoolshub.repository.ChatbotHistoryRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Server-side chat transcripts, so clients only send the newest message. Conversations are held in
+ * a bounded in-memory map and rebuilt from {@code chatbot_history} when missing (after a restart or
+ * eviction).
+ * <p>
+ * The map is a per-instance cache, not the source of truth. Each call counts the conversation's
+ * stored rows and re-reads it when the table holds more turns than the cache, which picks up turns
+ * written by other instances and turns that were still queued in {@link HistoryWriter} when the
+ * conversation was loaded. Turns appended here but not yet stored are kept across a re-read.
+ * Deletions made on another instance are only seen once the cached conversation is evicted.
+ * <p>
+ * Before each call the transcript is fitted to a token budget: the newest turns are sent verbatim
+ * and older ones are folded into a short "earlier in this conversation" note, which is passed to
+ * Gemini as a system instruction.
+ */
+@Service
+public class ConversationStore {
+
+    public record Turn(String input, String response) {
+    }
+
+    /**
+     * What to send upstream for one call: the verbatim recent turns, plus a note covering the turns
+     * that did not fit ({@code null} when everything fits).
+     */
+    public record Context(List<Turn> turns, String summary) {
+    }
+
+    private static final class Conversation {
+        private final List<Turn> turns = new ArrayList<>();
+        // Leading turns that came from the table at the last read; the rest were appended here since
+        private int loadedTurns;
+        private volatile long lastAccessMillis = System.currentTimeMillis();
+    }
+
+    private final ChatbotHistoryRepository chatbotHistoryRepository;
+    private final Map<String, Conversation> conversations = new ConcurrentHashMap<>();
+    private final int maxTokens;
+    private final int summaryMaxTokens;
+    private final int maxConversations;
+    private final long idleTtlMillis;
+    private final DistributionSummary fullTokens;
+    private final DistributionSummary sentTokens;
+    private final DistributionSummary savedTokens;
+
+    public ConversationStore(ChatbotHistoryRepository chatbotHistoryRepository,
+            @Value("${chatbot.context.max-tokens:4000}") int maxTokens,
+            @Value("${chatbot.context.summary-max-tokens:300}") int summaryMaxTokens,
+            @Value("${chatbot.context.max-conversations:5000}") int maxConversations,
+            @Value("${chatbot.context.idle-ttl:3600000}") long idleTtlMillis) {
+        this.chatbotHistoryRepository = chatbotHistoryRepository;
+        this.maxTokens = maxTokens;
+        this.summaryMaxTokens = summaryMaxTokens;
+        this.maxConversations = maxConversations;
+        this.idleTtlMillis = idleTtlMillis;
+        this.fullTokens = DistributionSummary.builder("chatbot.context.tokens")
+                .description("Estimated tokens of the full transcript plus the new message")
+                .tag("kind", "full").register(Metrics.globalRegistry);
+        this.sentTokens = DistributionSummary.builder("chatbot.context.tokens")
+                .description("Estimated tokens actually sent upstream")
+                .tag("kind", "sent").register(Metrics.globalRegistry);
+        this.savedTokens = DistributionSummary.builder("chatbot.context.tokens.saved")
+                .description("Estimated tokens trimmed from the request by the context budget")
+                .register(Metrics.globalRegistry);
+        Gauge.builder("chatbot.conversations.cached", conversations, Map::size).register(Metrics.globalRegistry);
+    }
+
+    /**
+     * Fits the stored transcript and {@code newMessage} into the token budget. When the store has
+     * nothing for the conversation, {@code clientTurns} (sent by older clients) seed it.
+     */
+    public Context buildContext(Long userId, String conversationId, String newMessage, List<Turn> clientTurns) {
+        Conversation conversation = load(userId, conversationId, clientTurns);
+        List<Turn> history;
+        synchronized (conversation) {
+            history = List.copyOf(conversation.turns);
+        }
+
+        int budget = maxTokens - estimateTokens(newMessage);
+        int used = 0;
+        int firstKept = history.size();
+        while (firstKept > 0) {
+            Turn turn = history.get(firstKept - 1);
+            int cost = estimateTokens(turn.input()) + estimateTokens(turn.response());
+            if (used + cost > budget) {
+                break;
+            }
+            used += cost;
+            firstKept--;
+        }
+
+        int full = estimateTokens(newMessage);
+        for (Turn turn : history) {
+            full += estimateTokens(turn.input()) + estimateTokens(turn.response());
+        }
+        String summary = firstKept > 0 ? summarize(history.subList(0, firstKept)) : null;
+        int sent = estimateTokens(newMessage) + used + (summary != null ? estimateTokens(summary) : 0);
+        fullTokens.record(full);
+        sentTokens.record(sent);
+        savedTokens.record(Math.max(0, full - sent));
+
+        return new Context(history.subList(firstKept, history.size()), summary);
+    }
+
+    public void append(Long userId, String conversationId, String input, String response) {
+        Conversation conversation = conversations.get(key(userId, conversationId));
+        if (conversation == null) {
+            return;
+        }
+        synchronized (conversation) {
+            conversation.turns.add(new Turn(input, response));
+        }
+    }
+
+    public void evict(Long userId, String conversationId) {
+        conversations.remove(key(userId, conversationId));
+    }
+
+    private Conversation load(Long userId, String conversationId, List<Turn> clientTurns) {
+        String key = key(userId, conversationId);
+        Conversation conversation = conversations.get(key);
+        if (conversation == null) {
+            if (conversations.size() >= maxConversations) {
+                evictIdle();
+            }
+            conversation = conversations.computeIfAbsent(key, k -> {
+                Conversation loaded = new Conversation();
+                loaded.turns.addAll(readTurns(userId, conversationId));
+                if (loaded.turns.isEmpty() && clientTurns != null) {
+                    loaded.turns.addAll(clientTurns);
+                }
+                loaded.loadedTurns = loaded.turns.size();
+                return loaded;
+            });
+        } else {
+            refreshIfBehind(conversation, userId, conversationId);
+        }
+        conversation.lastAccessMillis = System.currentTimeMillis();
+        return conversation;
+    }
+
+    private void refreshIfBehind(Conversation conversation, Long userId, String conversationId) {
+        long stored = chatbotHistoryRepository.countConversation(userId, conversationId);
+        synchronized (conversation) {
+            if (stored <= conversation.turns.size()) {
+                return;
+            }
+        }
+        List<Turn> rows = readTurns(userId, conversationId);
+        synchronized (conversation) {
+            List<Turn> appended = new ArrayList<>(
+                    conversation.turns.subList(conversation.loadedTurns, conversation.turns.size()));
+            appended.removeAll(rows);
+            conversation.turns.clear();
+            conversation.turns.addAll(rows);
+            conversation.loadedTurns = rows.size();
+            conversation.turns.addAll(appended);
+        }
+    }
+
+    private List<Turn> readTurns(Long userId, String conversationId) {
+        List<Turn> turns = new ArrayList<>();
+        for (ChatbotHistoryItem item : chatbotHistoryRepository.findConversation(userId, conversationId)) {
+            turns.add(new Turn(item.input(), item.response()));
+        }
+        return turns;
+    }
+
+    // Drops conversations idle past the TTL; if the map is still full, drops the least recently
+    // used tenth
+    private void evictIdle() {
+        long now = System.currentTimeMillis();
+        conversations.values().removeIf(conversation -> now - conversation.lastAccessMillis > idleTtlMillis);
+        if (conversations.size() >= maxConversations) {
+            conversations.entrySet().stream()
+                    .sorted((a, b) -> Long.compare(a.getValue().lastAccessMillis, b.getValue().lastAccessMillis))
+                    .limit(Math.max(1, maxConversations / 10))
+                    .map(Map.Entry::getKey)
+                    .toList()
+                    .forEach(conversations::remove);
+        }
+    }
+
+    // Keeps the gist of the dropped turns without an extra model call: the user's questions, each
+    // shortened, newest last. When the summary budget runs out it is the oldest questions that go,
+    // so they are picked newest first and put back in order afterwards
+    private String summarize(List<Turn> dropped) {
+        int maxChars = summaryMaxTokens * 4;
+        String header = "Earlier in this conversation the user asked about:";
+        int length = header.length();
+        List<String> questions = new ArrayList<>();
+        for (int i = dropped.size() - 1; i >= Math.max(0, dropped.size() - 20); i--) {
+            String question = dropped.get(i).input().replaceAll("\\s+", " ").trim();
+            if (question.length() > 120) {
+                question = question.substring(0, 117) + "...";
+            }
+            if (length + question.length() + 3 > maxChars) {
+                break;
+            }
+            length += question.length() + 3;
+            questions.add(question);
+        }
+        Collections.reverse(questions);
+
+        StringBuilder summary = new StringBuilder(length).append(header);
+        for (String question : questions) {
+            summary.append("\n- ").append(question);
+        }
+        return summary.toString();
+    }
+
+    // Roughly four characters per token for English text, which is close enough for budgeting
+    static int estimateTokens(String text) {
+        return text == null ? 0 : (text.length() + 3) / 4;
+    }
+
+    private static String key(Long userId, String conversationId) {
+        return userId + ":" + conversationId;
+    }
+}
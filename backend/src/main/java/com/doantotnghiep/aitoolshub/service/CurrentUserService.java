@@ -0,0 +1,64 @@
+package com.doantotnghiep.aitoolshub.service;
+
+import com.doantotnghiep.aitoolshub.entity.AuthenticatedUser;
+import com.doantotnghiep.aitoolshub.entity.User;
+import com.doantotnghiep.aitoolshub.repository.UserRepository;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Optional;
+
+@Service
+public class CurrentUserService {
+
+    private final UserRepository userRepository;
+
+    public CurrentUserService(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Resolves the user of the current request. JWT-authenticated requests already carry the user
+     * id in their principal, so this only queries the database for other principals (e.g. OAuth2
+     * sessions). The returned reference is meant for associations and ownership checks.
+     */
+    public User getCurrentUser() {
+        return resolve(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    /**
+     * Reactive variant of {@link #getCurrentUser()} that works on both web stacks. On a servlet
+     * request thread the authentication is captured when this is called, so the result may be
+     * subscribed later on any thread; under WebFlux it is read from the subscriber's
+     * {@link ReactiveSecurityContextHolder} context. A database lookup runs on {@code boundedElastic}.
+     */
+    public Mono<User> currentUser() {
+        Authentication threadBound = SecurityContextHolder.getContext().getAuthentication();
+        Mono<Optional<Authentication>> authentication = threadBound != null
+                ? Mono.just(Optional.of(threadBound))
+                : ReactiveSecurityContextHolder.getContext()
+                        .mapNotNull(SecurityContext::getAuthentication)
+                        .map(Optional::of)
+                        .defaultIfEmpty(Optional.empty());
+        return authentication.flatMap(auth -> {
+            if (auth.isPresent() && auth.get().getPrincipal() instanceof AuthenticatedUser principal) {
+                return Mono.just(principal.toUserReference());
+            }
+            return Mono.fromCallable(() -> resolve(auth.orElse(null))).subscribeOn(Schedulers.boundedElastic());
+        });
+    }
+
+    private User resolve(Authentication authentication) {
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser principal) {
+            return principal.toUserReference();
+        }
+        String email = authentication != null ? authentication.getName() : null;
+        return userRepository.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found: " + email));
+    }
+}
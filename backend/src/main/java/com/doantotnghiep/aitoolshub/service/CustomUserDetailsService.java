@@ -1,12 +1,16 @@
 package com.doantotnghiep.aitoolshub.service;
 
+import com.doantotnghiep.aitoolshub.entity.AuthenticatedUser;
 import com.doantotnghiep.aitoolshub.entity.User;
 import com.doantotnghiep.aitoolshub.repository.UserRepository;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
 
@@ -26,10 +30,10 @@ public class CustomUserDetailsService implements UserDetailsService {
                 ? "" // Hoặc một giá trị placeholder
                 : user.getPassword();
 
-        return org.springframework.security.core.userdetails.User
-                .withUsername(user.getEmail())
-                .password(password)
-                .roles(user.getRole().name())
-                .build();
+        return new AuthenticatedUser(
+                user.getId(),
+                user.getEmail(),
+                password,
+                List.of(new SimpleGrantedAuthority("ROLE_" + user.getRole().name())));
     }
 }
\ No newline at end of file
@@ -0,0 +1,104 @@
+package com.doantotnghiep.aitoolshub.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+
+/**
+ * Pulls the answer out of a Gemini {@code GenerateContentResponse} with Jackson's streaming API.
+ * Only {@code candidates[0].content.parts[*].text} is read: every other field is skipped without
+ * being materialized, and parsing stops as soon as the first candidate's content is done, so the
+ * safety ratings and usage metadata that follow are never even tokenized.
+ */
+final class GeminiResponseParser {
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private GeminiResponseParser() {
+    }
+
+    /**
+     * The concatenated text parts of the first candidate, or {@code null} when the response has
+     * none. A streamed chunk has the same shape, carrying only the text produced since the
+     * previous chunk.
+     */
+    static String candidateText(byte[] json) throws IOException {
+        try (JsonParser parser = JSON.createParser(json)) {
+            return candidateText(parser);
+        }
+    }
+
+    static String candidateText(String json) throws IOException {
+        try (JsonParser parser = JSON.createParser(json)) {
+            return candidateText(parser);
+        }
+    }
+
+    private static String candidateText(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            return null;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("candidates".equals(field) && value == JsonToken.START_ARRAY) {
+                return parser.nextToken() == JsonToken.START_OBJECT ? textOfCandidate(parser) : null;
+            }
+            parser.skipChildren();
+        }
+        return null;
+    }
+
+    // Positioned on the candidate's START_OBJECT
+    private static String textOfCandidate(JsonParser parser) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("content".equals(field) && value == JsonToken.START_OBJECT) {
+                return textOfContent(parser);
+            }
+            parser.skipChildren();
+        }
+        return null;
+    }
+
+    private static String textOfContent(JsonParser parser) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("parts".equals(field) && value == JsonToken.START_ARRAY) {
+                return textOfParts(parser);
+            }
+            parser.skipChildren();
+        }
+        return null;
+    }
+
+    // Nearly every response has a single part, which is returned without copying it into a builder
+    private static String textOfParts(JsonParser parser) throws IOException {
+        String first = null;
+        StringBuilder joined = null;
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("text".equals(field) && value == JsonToken.VALUE_STRING) {
+                    String text = parser.getText();
+                    if (first == null) {
+                        first = text;
+                    } else {
+                        if (joined == null) {
+                            joined = new StringBuilder(first);
+                        }
+                        joined.append(text);
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return joined != null ? joined.toString() : first;
+    }
+}
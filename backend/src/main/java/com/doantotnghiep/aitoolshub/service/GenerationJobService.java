@@ -0,0 +1,301 @@
+package com.doantotnghiep.aitoolshub.service;
+
+import com.doantotnghiep.aitoolshub.admission.AdaptiveConcurrencyLimit;
+import com.doantotnghiep.aitoolshub.admission.AdmissionControl;
+import com.doantotnghiep.aitoolshub.enums.AiProvider;
+import com.doantotnghiep.aitoolshub.enums.JobStatus;
+import com.doantotnghiep.aitoolshub.model.JobView;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs long generations (images, music) as background jobs so the submitting request returns
+ * immediately. Generations run on a fixed worker pool with a bounded queue; job state and results
+ * live in an in-memory store bounded both by job count and by the total size of the stored results,
+ * and finished jobs expire after {@code jobs.ttl}.
+ * <p>
+ * Each generation takes a permit from its provider's {@link AdaptiveConcurrencyLimit} like a direct
+ * request does, waiting up to {@code jobs.provider-wait} for one; the job stays pending meanwhile.
+ */
+@Service
+public class GenerationJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(GenerationJobService.class);
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor workerPool;
+    private final ScheduledExecutorService sweeper;
+    private final AtomicLong storedBytes = new AtomicLong();
+    private final AdmissionControl admissionControl;
+    private final int maxJobs;
+    private final long maxResultBytes;
+    private final long ttlMillis;
+    private final long providerWaitMillis;
+    private final Counter rejectedCounter;
+
+    public GenerationJobService(
+            AdmissionControl admissionControl,
+            @Value("${jobs.workers:8}") int workers,
+            @Value("${jobs.queue-capacity:100}") int queueCapacity,
+            @Value("${jobs.max-stored:500}") int maxJobs,
+            @Value("${jobs.max-result-bytes:268435456}") long maxResultBytes,
+            @Value("${jobs.ttl:600000}") long ttlMillis,
+            @Value("${jobs.provider-wait:60000}") long providerWaitMillis,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.admissionControl = admissionControl;
+        this.maxJobs = maxJobs;
+        this.maxResultBytes = maxResultBytes;
+        this.ttlMillis = ttlMillis;
+        this.providerWaitMillis = providerWaitMillis;
+        this.workerPool = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), namedThreads("generation-job-", virtualThreads));
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(namedThreads("generation-job-sweeper-", false));
+        this.sweeper.scheduleWithFixedDelay(() -> evictExpired(System.currentTimeMillis()),
+                30, 30, TimeUnit.SECONDS);
+
+        Gauge.builder("generation.jobs.stored", jobs, Map::size).register(Metrics.globalRegistry);
+        Gauge.builder("generation.jobs.stored.bytes", storedBytes, AtomicLong::get)
+                .baseUnit("bytes")
+                .register(Metrics.globalRegistry);
+        Gauge.builder("generation.jobs.running", workerPool, ThreadPoolExecutor::getActiveCount)
+                .register(Metrics.globalRegistry);
+        Gauge.builder("generation.jobs.queued", workerPool, pool -> pool.getQueue().size())
+                .register(Metrics.globalRegistry);
+        this.rejectedCounter = Counter.builder("generation.jobs.rejected").register(Metrics.globalRegistry);
+    }
+
+    private static final class Job {
+        private final String id;
+        private final String type;
+        private final AiProvider provider;
+        private final Long ownerId;
+        private final MediaType contentType;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private final Sinks.Many<JobView> updates = Sinks.many().replay().latest();
+        private volatile JobStatus status = JobStatus.PENDING;
+        private volatile String error;
+        private volatile byte[] result;
+        private volatile LocalDateTime completedAt;
+        private volatile long expiresAtMillis = Long.MAX_VALUE;
+
+        private Job(String id, String type, AiProvider provider, Long ownerId, MediaType contentType) {
+            this.id = id;
+            this.type = type;
+            this.provider = provider;
+            this.ownerId = ownerId;
+            this.contentType = contentType;
+        }
+
+        private JobView view() {
+            String resultUrl = status == JobStatus.SUCCEEDED ? "/api/tools/jobs/" + id + "/result" : null;
+            return new JobView(id, type, status, error, resultUrl, createdAt, completedAt);
+        }
+
+        private synchronized void transition(JobStatus next) {
+            status = next;
+            updates.tryEmitNext(view());
+            if (next.isTerminal()) {
+                updates.tryEmitComplete();
+            }
+        }
+    }
+
+    /**
+     * Queues {@code generation} and returns the new job's state. The generation must already be
+     * assembled on the request thread, since it resolves the current user at assembly time.
+     *
+     * @param provider the provider {@code generation} calls, whose concurrency limit it runs under
+     * @throws RejectedExecutionException when the store or the worker queue is full
+     */
+    public JobView submit(String type, AiProvider provider, Long ownerId, MediaType contentType,
+            Mono<byte[]> generation) {
+        long now = System.currentTimeMillis();
+        if (jobs.size() >= maxJobs) {
+            evictExpired(now);
+            if (jobs.size() >= maxJobs) {
+                rejectedCounter.increment();
+                throw new RejectedExecutionException("Too many generation jobs, try again later");
+            }
+        }
+
+        Job job = new Job(UUID.randomUUID().toString(), type, provider, ownerId, contentType);
+        jobs.put(job.id, job);
+        job.transition(JobStatus.PENDING);
+        try {
+            workerPool.execute(() -> run(job, generation));
+        } catch (RejectedExecutionException e) {
+            remove(job);
+            rejectedCounter.increment();
+            throw new RejectedExecutionException("Generation queue is full, try again later");
+        }
+        return job.view();
+    }
+
+    public JobView getJob(String jobId, Long ownerId) {
+        Job job = find(jobId, ownerId);
+        return job != null ? job.view() : null;
+    }
+
+    /**
+     * Emits the job's current state followed by every later change, completing once the job
+     * finishes. Empty when the job is unknown or belongs to someone else.
+     */
+    public Flux<JobView> watch(String jobId, Long ownerId) {
+        Job job = find(jobId, ownerId);
+        return job != null ? job.updates.asFlux() : Flux.empty();
+    }
+
+    public byte[] getResult(String jobId, Long ownerId) {
+        Job job = find(jobId, ownerId);
+        return job != null ? job.result : null;
+    }
+
+    public MediaType getResultType(String jobId, Long ownerId) {
+        Job job = find(jobId, ownerId);
+        return job != null ? job.contentType : null;
+    }
+
+    private Job find(String jobId, Long ownerId) {
+        Job job = jobs.get(jobId);
+        if (job == null || !job.ownerId.equals(ownerId)) {
+            return null;
+        }
+        if (job.expiresAtMillis <= System.currentTimeMillis()) {
+            remove(job);
+            return null;
+        }
+        return job;
+    }
+
+    private void run(Job job, Mono<byte[]> generation) {
+        AdaptiveConcurrencyLimit limit = admissionControl.limitFor(job.provider);
+        try {
+            if (limit != null && !limit.acquire(providerWaitMillis, TimeUnit.MILLISECONDS)) {
+                admissionControl.countConcurrencyRejection(job.provider);
+                fail(job, "Service is busy, please retry shortly");
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail(job, "Generation was cancelled");
+            return;
+        }
+
+        job.transition(JobStatus.RUNNING);
+        byte[] result;
+        try {
+            result = generation.block();
+        } catch (Exception e) {
+            logger.error("Generation job {} ({}) failed: {}", job.id, job.type, e.getMessage());
+            fail(job, e.getMessage());
+            return;
+        } finally {
+            if (limit != null) {
+                limit.release();
+            }
+        }
+
+        if (result == null) {
+            fail(job, "Generation returned no data");
+        } else if (!reserve(result.length)) {
+            logger.warn("Generation job {} ({}) dropped its {} byte result, the result store is full",
+                    job.id, job.type, result.length);
+            fail(job, "Result store is full, try again later");
+        } else {
+            job.result = result;
+            finish(job, JobStatus.SUCCEEDED);
+        }
+    }
+
+    /**
+     * Counts {@code bytes} against the result budget, first evicting expired jobs if it would not
+     * fit. Returns false when it still does not.
+     */
+    private boolean reserve(long bytes) {
+        if (tryReserve(bytes)) {
+            return true;
+        }
+        evictExpired(System.currentTimeMillis());
+        return tryReserve(bytes);
+    }
+
+    private boolean tryReserve(long bytes) {
+        while (true) {
+            long current = storedBytes.get();
+            if (current + bytes > maxResultBytes) {
+                return false;
+            }
+            if (storedBytes.compareAndSet(current, current + bytes)) {
+                return true;
+            }
+        }
+    }
+
+    private void fail(Job job, String error) {
+        job.error = error;
+        finish(job, JobStatus.FAILED);
+    }
+
+    private void finish(Job job, JobStatus status) {
+        job.completedAt = LocalDateTime.now();
+        job.expiresAtMillis = System.currentTimeMillis() + ttlMillis;
+        job.transition(status);
+    }
+
+    private void evictExpired(long now) {
+        for (Job job : jobs.values()) {
+            if (job.expiresAtMillis <= now) {
+                remove(job);
+            }
+        }
+    }
+
+    private void remove(Job job) {
+        byte[] result = job.result;
+        if (jobs.remove(job.id, job) && result != null) {
+            storedBytes.addAndGet(-result.length);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        sweeper.shutdownNow();
+        workerPool.shutdownNow();
+    }
+
+    private static ThreadFactory namedThreads(String prefix, boolean virtual) {
+        if (virtual) {
+            return Thread.ofVirtual().name(prefix, 1).factory();
+        }
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
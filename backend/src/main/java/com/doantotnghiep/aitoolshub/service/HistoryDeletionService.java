@@ -0,0 +1,175 @@
+package com.doantotnghiep.aitoolshub.service;
+
+import com.doantotnghiep.aitoolshub.blob.BlobStore;
+import com.doantotnghiep.aitoolshub.cache.SpeechSynthesisCache;
+import com.doantotnghiep.aitoolshub.repository.ChatbotHistoryRepository;
+import com.doantotnghiep.aitoolshub.repository.ImageHistoryRepository;
+import com.doantotnghiep.aitoolshub.repository.SoundHistoryRepository;
+import com.doantotnghiep.aitoolshub.repository.StoredHistoryRow;
+import com.doantotnghiep.aitoolshub.repository.TextToSpeechHistoryRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Deletes history rows in bulk. Ownership of every requested row is checked with one query and a
+ * request touching anyone else's row deletes nothing; the rows then go in one set-based statement,
+ * and their stored objects are removed afterwards in batched storage deletes. A storage failure
+ * only leaves an orphaned object behind and is logged, never reported as a failed delete.
+ */
+@Service
+public class HistoryDeletionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(HistoryDeletionService.class);
+
+    /**
+     * Outcome of a delete: how many rows went, and which requested ids did not exist.
+     */
+    public record Result(int deleted, List<Long> missing) {
+    }
+
+    @FunctionalInterface
+    private interface RowQuery<R> {
+        List<R> find(Collection<Long> ids);
+    }
+
+    @FunctionalInterface
+    private interface RowDelete {
+        int delete(Long userId, Collection<Long> ids);
+    }
+
+    private final ChatbotHistoryRepository chatbotHistoryRepository;
+    private final ImageHistoryRepository imageHistoryRepository;
+    private final TextToSpeechHistoryRepository textToSpeechHistoryRepository;
+    private final SoundHistoryRepository soundHistoryRepository;
+    private final ConversationStore conversationStore;
+    private final BlobStore blobStore;
+    private final int maxIds;
+    private final int storageBatchSize;
+    private final Counter storageFailureCounter;
+
+    public HistoryDeletionService(ChatbotHistoryRepository chatbotHistoryRepository,
+            ImageHistoryRepository imageHistoryRepository,
+            TextToSpeechHistoryRepository textToSpeechHistoryRepository,
+            SoundHistoryRepository soundHistoryRepository,
+            ConversationStore conversationStore,
+            BlobStore blobStore,
+            @Value("${history.delete.max-ids:500}") int maxIds,
+            @Value("${history.delete.storage-batch-size:100}") int storageBatchSize) {
+        this.chatbotHistoryRepository = chatbotHistoryRepository;
+        this.imageHistoryRepository = imageHistoryRepository;
+        this.textToSpeechHistoryRepository = textToSpeechHistoryRepository;
+        this.soundHistoryRepository = soundHistoryRepository;
+        this.conversationStore = conversationStore;
+        this.blobStore = blobStore;
+        this.maxIds = maxIds;
+        this.storageBatchSize = Math.max(1, storageBatchSize);
+        this.storageFailureCounter = Counter.builder("history.delete.storage.failures")
+                .register(Metrics.globalRegistry);
+    }
+
+    public Result deleteChatbotHistory(Long userId, Collection<Long> ids) {
+        return delete(userId, ids, chatbotHistoryRepository::findStoredRows, chatbotHistoryRepository::deleteOwned,
+                rows -> rows.stream()
+                        .map(ChatbotHistoryRepository.StoredChatRow::getConversationId)
+                        .filter(Objects::nonNull)
+                        .distinct()
+                        .forEach(conversationId -> conversationStore.evict(userId, conversationId)));
+    }
+
+    /**
+     * Deletes every message of one of the user's conversations. Unknown conversations delete
+     * nothing, so repeating the call is harmless.
+     */
+    public Result deleteConversation(Long userId, String conversationId) {
+        List<ChatbotHistoryRepository.StoredChatRow> rows =
+                chatbotHistoryRepository.findStoredConversation(userId, conversationId);
+        int deleted = rows.isEmpty() ? 0 : chatbotHistoryRepository.deleteConversation(userId, conversationId);
+        conversationStore.evict(userId, conversationId);
+        deleteStoredObjects(rows);
+        return new Result(deleted, List.of());
+    }
+
+    public Result deleteImageHistory(Long userId, Collection<Long> ids) {
+        return delete(userId, ids, imageHistoryRepository::findStoredRows, imageHistoryRepository::deleteOwned,
+                rows -> { });
+    }
+
+    public Result deleteTtsHistory(Long userId, Collection<Long> ids) {
+        return delete(userId, ids, textToSpeechHistoryRepository::findStoredRows,
+                textToSpeechHistoryRepository::deleteOwned, rows -> { });
+    }
+
+    public Result deleteSoundHistory(Long userId, Collection<Long> ids) {
+        return delete(userId, ids, soundHistoryRepository::findStoredRows, soundHistoryRepository::deleteOwned,
+                rows -> { });
+    }
+
+    private <R extends StoredHistoryRow> Result delete(Long userId, Collection<Long> ids, RowQuery<R> query,
+            RowDelete rowDelete, Consumer<List<R>> afterDelete) {
+        Set<Long> requested = new LinkedHashSet<>();
+        for (Long id : ids) {
+            if (id != null) {
+                requested.add(id);
+            }
+        }
+        if (requested.isEmpty()) {
+            throw new IllegalArgumentException("At least one id is required");
+        }
+        if (requested.size() > maxIds) {
+            throw new IllegalArgumentException("At most " + maxIds + " ids can be deleted at once");
+        }
+
+        List<R> rows = query.find(requested);
+        for (R row : rows) {
+            if (!userId.equals(row.getUserId())) {
+                throw new AccessDeniedException("History " + row.getId() + " belongs to another user");
+            }
+        }
+        List<Long> missing = new ArrayList<>(requested);
+        rows.forEach(row -> missing.remove(row.getId()));
+        if (rows.isEmpty()) {
+            return new Result(0, missing);
+        }
+
+        List<Long> found = rows.stream().map(StoredHistoryRow::getId).toList();
+        int deleted = rowDelete.delete(userId, found);
+        afterDelete.accept(rows);
+        deleteStoredObjects(rows);
+        return new Result(deleted, missing);
+    }
+
+    private void deleteStoredObjects(List<? extends StoredHistoryRow> rows) {
+        List<String> keys = new ArrayList<>();
+        for (StoredHistoryRow row : rows) {
+            for (String location : row.storedLocations()) {
+                String key = blobStore.keyOf(location);
+                // Cached objects are shared between users' history rows and must outlive any single row
+                if (!key.startsWith(SpeechSynthesisCache.OBJECT_PREFIX)) {
+                    keys.add(key);
+                }
+            }
+        }
+        for (int start = 0; start < keys.size(); start += storageBatchSize) {
+            List<String> batch = keys.subList(start, Math.min(keys.size(), start + storageBatchSize));
+            try {
+                blobStore.deleteAll(batch);
+            } catch (Exception e) {
+                storageFailureCounter.increment(batch.size());
+                logger.warn("Could not delete {} stored objects: {}", batch.size(), e.getMessage());
+            }
+        }
+    }
+}
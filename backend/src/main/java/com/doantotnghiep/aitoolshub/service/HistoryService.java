@@ -0,0 +1,228 @@
+package com.doantotnghiep.aitoolshub.service;
+
+import com.doantotnghiep.aitoolshub.model.*;
+import com.doantotnghiep.aitoolshub.repository.ChatbotHistoryRepository;
+import com.doantotnghiep.aitoolshub.repository.ImageHistoryRepository;
+import com.doantotnghiep.aitoolshub.repository.SoundHistoryRepository;
+import com.doantotnghiep.aitoolshub.repository.TextToSpeechHistoryRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
+
+/**
+ * Keyset-paginated history reads. Each page is fetched with one extra row to tell whether another
+ * page follows, and rows are projected straight into DTOs so the user entity is never loaded. The
+ * timeline merges all four histories the same way, see {@link #getTimeline}.
+ */
+@Service
+public class HistoryService {
+
+    @FunctionalInterface
+    private interface PageQuery<T> {
+        List<T> find(Long userId, LocalDateTime createdAt, Long id, Pageable pageable);
+    }
+
+    /**
+     * Next unmerged row of one source's timeline read.
+     */
+    private record Head(TimelineItem.Source source, List<? extends HistoryItem> rows, int index) {
+
+        HistoryItem item() {
+            return rows.get(index);
+        }
+    }
+
+    // Newest first; equal timestamps fall back to source order, then id, matching each source's keyset order
+    private static final Comparator<Head> TIMELINE_ORDER = Comparator
+            .comparing((Head head) -> head.item().createdAt(), Comparator.reverseOrder())
+            .thenComparing(Head::source)
+            .thenComparing(head -> head.item().id(), Comparator.reverseOrder());
+
+    // The four keyset reads are blocking JPA calls; they run side by side off the request thread
+    private final Executor timelineReads = runnable -> Schedulers.boundedElastic().schedule(runnable);
+
+    private final ChatbotHistoryRepository chatbotHistoryRepository;
+    private final ImageHistoryRepository imageHistoryRepository;
+    private final TextToSpeechHistoryRepository textToSpeechHistoryRepository;
+    private final SoundHistoryRepository soundHistoryRepository;
+    private final SignedUrlService signedUrlService;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+
+    public HistoryService(ChatbotHistoryRepository chatbotHistoryRepository,
+            ImageHistoryRepository imageHistoryRepository,
+            TextToSpeechHistoryRepository textToSpeechHistoryRepository,
+            SoundHistoryRepository soundHistoryRepository,
+            SignedUrlService signedUrlService,
+            @Value("${history.page.default-size:20}") int defaultPageSize,
+            @Value("${history.page.max-size:100}") int maxPageSize) {
+        this.chatbotHistoryRepository = chatbotHistoryRepository;
+        this.imageHistoryRepository = imageHistoryRepository;
+        this.textToSpeechHistoryRepository = textToSpeechHistoryRepository;
+        this.soundHistoryRepository = soundHistoryRepository;
+        this.signedUrlService = signedUrlService;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+    }
+
+    public HistoryPage<ChatbotHistoryItem> getChatbotHistory(Long userId, String cursor, Integer limit) {
+        return page(chatbotHistoryRepository::findPage, userId, cursor, limit);
+    }
+
+    // The original and its derived sizes are all signed, so clients never build storage URLs
+    public HistoryPage<ImageHistoryItem> getImageHistory(Long userId, String cursor, Integer limit) {
+        HistoryPage<ImageHistoryItem> page = page(imageHistoryRepository::findPage, userId, cursor, limit);
+        Map<String, String> urls = signedUrlService.signAll(page.items().stream()
+                .flatMap(item -> Stream.of(item.imageUrl(), item.thumbnailUrl(), item.previewUrl()))
+                .filter(Objects::nonNull)
+                .toList());
+        return new HistoryPage<>(page.items().stream()
+                .map(item -> item.withUrls(urls.get(item.imageUrl()), urls.get(item.thumbnailUrl()),
+                        urls.get(item.previewUrl())))
+                .toList(), page.nextCursor());
+    }
+
+    // Audio rows store the object path; the page is signed in one pass on the way out
+    public HistoryPage<TtsHistoryItem> getTtsHistory(Long userId, String cursor, Integer limit) {
+        HistoryPage<TtsHistoryItem> page = page(textToSpeechHistoryRepository::findPage, userId, cursor, limit);
+        Map<String, String> urls = signedUrlService.signAll(
+                page.items().stream().map(TtsHistoryItem::audioUrl).toList());
+        return new HistoryPage<>(page.items().stream()
+                .map(item -> item.withAudioUrl(urls.get(item.audioUrl())))
+                .toList(), page.nextCursor());
+    }
+
+    public HistoryPage<SoundHistoryItem> getSoundHistory(Long userId, String cursor, Integer limit) {
+        HistoryPage<SoundHistoryItem> page = page(soundHistoryRepository::findPage, userId, cursor, limit);
+        Map<String, String> urls = signedUrlService.signAll(
+                page.items().stream().map(SoundHistoryItem::audioUrl).toList());
+        return new HistoryPage<>(page.items().stream()
+                .map(item -> item.withAudioUrl(urls.get(item.audioUrl())))
+                .toList(), page.nextCursor());
+    }
+
+    /**
+     * One newest-first page across all four histories. Each source is read from its own position
+     * in the composite cursor with a keyset query for at most {@code limit + 1} rows, all four in
+     * parallel, and the results are k-way merged until the page is full. Sources already exhausted
+     * are not queried again, and only the rows that made the page are signed.
+     */
+    public HistoryPage<TimelineItem> getTimeline(Long userId, String cursor, Integer limit) {
+        int size = pageSize(limit);
+        TimelineCursor position = TimelineCursor.decode(cursor);
+        TimelineItem.Source[] sources = TimelineItem.Source.values();
+
+        List<CompletableFuture<List<? extends HistoryItem>>> reads = new ArrayList<>(sources.length);
+        for (TimelineItem.Source source : sources) {
+            HistoryCursor from = position.position(source);
+            reads.add(from == null
+                    ? CompletableFuture.completedFuture(List.of())
+                    : CompletableFuture.supplyAsync(
+                            () -> readTimelineSource(source, userId, from, PageRequest.of(0, size + 1)), timelineReads));
+        }
+
+        PriorityQueue<Head> heads = new PriorityQueue<>(sources.length, TIMELINE_ORDER);
+        List<List<? extends HistoryItem>> rows = new ArrayList<>(sources.length);
+        for (TimelineItem.Source source : sources) {
+            List<? extends HistoryItem> sourceRows = reads.get(source.ordinal()).join();
+            rows.add(sourceRows);
+            if (!sourceRows.isEmpty()) {
+                heads.add(new Head(source, sourceRows, 0));
+            }
+        }
+
+        List<TimelineItem> items = new ArrayList<>(size);
+        int[] merged = new int[sources.length];
+        while (items.size() < size && !heads.isEmpty()) {
+            Head head = heads.poll();
+            items.add(new TimelineItem(head.source(), head.item()));
+            merged[head.source().ordinal()]++;
+            if (head.index() + 1 < head.rows().size()) {
+                heads.add(new Head(head.source(), head.rows(), head.index() + 1));
+            }
+        }
+        if (heads.isEmpty()) {
+            return new HistoryPage<>(signTimeline(items), null);
+        }
+
+        List<HistoryCursor> next = new ArrayList<>(sources.length);
+        for (TimelineItem.Source source : sources) {
+            List<? extends HistoryItem> sourceRows = rows.get(source.ordinal());
+            int count = merged[source.ordinal()];
+            if (count == sourceRows.size()) {
+                // Fewer rows than a page plus one came back and all of them were used
+                next.add(null);
+            } else if (count == 0) {
+                next.add(position.position(source));
+            } else {
+                next.add(HistoryCursor.after(sourceRows.get(count - 1)));
+            }
+        }
+        return new HistoryPage<>(signTimeline(items), new TimelineCursor(next).encode());
+    }
+
+    private List<? extends HistoryItem> readTimelineSource(TimelineItem.Source source, Long userId,
+            HistoryCursor from, Pageable pageable) {
+        return switch (source) {
+            case CHATBOT -> chatbotHistoryRepository.findPage(userId, from.createdAt(), from.id(), pageable);
+            case IMAGE -> imageHistoryRepository.findPage(userId, from.createdAt(), from.id(), pageable);
+            case TTS -> textToSpeechHistoryRepository.findPage(userId, from.createdAt(), from.id(), pageable);
+            case SOUND -> soundHistoryRepository.findPage(userId, from.createdAt(), from.id(), pageable);
+        };
+    }
+
+    // Same URLs as the per-tool lists, signed for the whole page in one pass
+    private List<TimelineItem> signTimeline(List<TimelineItem> items) {
+        Map<String, String> urls = signedUrlService.signAll(items.stream()
+                .flatMap(item -> switch (item.entry()) {
+                    case ImageHistoryItem image ->
+                            Stream.of(image.imageUrl(), image.thumbnailUrl(), image.previewUrl());
+                    case TtsHistoryItem tts -> Stream.of(tts.audioUrl());
+                    case SoundHistoryItem sound -> Stream.of(sound.audioUrl());
+                    default -> Stream.<String>empty();
+                })
+                .filter(Objects::nonNull)
+                .toList());
+        return items.stream()
+                .map(item -> new TimelineItem(item.type(), switch (item.entry()) {
+                    case ImageHistoryItem image -> image.withUrls(urls.get(image.imageUrl()),
+                            urls.get(image.thumbnailUrl()), urls.get(image.previewUrl()));
+                    case TtsHistoryItem tts -> tts.withAudioUrl(urls.get(tts.audioUrl()));
+                    case SoundHistoryItem sound -> sound.withAudioUrl(urls.get(sound.audioUrl()));
+                    default -> item.entry();
+                }))
+                .toList();
+    }
+
+    public int pageSize(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return defaultPageSize;
+        }
+        return Math.min(limit, maxPageSize);
+    }
+
+    private <T extends HistoryItem> HistoryPage<T> page(PageQuery<T> query, Long userId, String cursor,
+            Integer limit) {
+        int size = pageSize(limit);
+        HistoryCursor position = HistoryCursor.decode(cursor);
+        List<T> rows = query.find(userId, position.createdAt(), position.id(), PageRequest.of(0, size + 1));
+        if (rows.size() <= size) {
+            return new HistoryPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, size);
+        return new HistoryPage<>(items, HistoryCursor.after(items.get(size - 1)).encode());
+    }
+}
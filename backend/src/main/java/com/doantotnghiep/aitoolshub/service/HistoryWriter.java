@@ -0,0 +1,332 @@
+package com.doantotnghiep.aitoolshub.service;
+
+import com.doantotnghiep.aitoolshub.blob.BlobStore;
+import com.doantotnghiep.aitoolshub.metrics.ToolMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Write-behind stage for generation history. Tool services hand over the generated bytes and a
+ * factory for the history row; a small worker pool uploads the objects concurrently and saves the
+ * rows in batches, so the HTTP response never waits for the two remote writes.
+ * <p>
+ * The queue is bounded. When it is full the calling thread performs the write itself, which slows
+ * producers down instead of dropping history; an event-loop caller hands that write to
+ * {@code boundedElastic} instead, as it must never block. Those overflow writes are capped by
+ * {@code history.writer.max-overflow}; past the cap the row is dropped and counted, so sustained
+ * overload cannot pile up in {@code boundedElastic}'s own queue. With {@code spring.threads.virtual.enabled} the
+ * workers and uploads run on virtual threads; the pool sizes still bound how many writes are in flight.
+ */
+@Service
+public class HistoryWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(HistoryWriter.class);
+
+    private final BlobStore blobStore;
+    private final ToolMetrics toolMetrics;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<Entry<?>> queue;
+    private final int workers;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final ExecutorService workerPool;
+    private final ExecutorService uploadPool;
+    private final Semaphore overflowPermits;
+    private final Counter writtenCounter;
+    private final Counter failedCounter;
+    private final Counter callerRunsCounter;
+    private final Counter droppedCounter;
+    private volatile boolean running = true;
+
+    public HistoryWriter(BlobStore blobStore, ToolMetrics toolMetrics, TransactionTemplate transactionTemplate,
+            @Value("${history.writer.queue-capacity:1000}") int queueCapacity,
+            @Value("${history.writer.workers:2}") int workers,
+            @Value("${history.writer.batch-size:50}") int batchSize,
+            @Value("${history.writer.upload-concurrency:8}") int uploadConcurrency,
+            @Value("${history.writer.max-attempts:3}") int maxAttempts,
+            @Value("${history.writer.max-overflow:64}") int maxOverflow,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.blobStore = blobStore;
+        this.toolMetrics = toolMetrics;
+        this.transactionTemplate = transactionTemplate;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.workerPool = Executors.newFixedThreadPool(workers, namedThreads("history-writer-", virtualThreads));
+        this.uploadPool = Executors.newFixedThreadPool(uploadConcurrency, namedThreads("history-upload-", virtualThreads));
+        this.overflowPermits = new Semaphore(maxOverflow);
+
+        Gauge.builder("history.writer.queue.depth", queue, Collection::size)
+                .description("History writes waiting to be persisted")
+                .register(Metrics.globalRegistry);
+        this.writtenCounter = Counter.builder("history.writer.written").register(Metrics.globalRegistry);
+        this.failedCounter = Counter.builder("history.writer.failed").register(Metrics.globalRegistry);
+        this.callerRunsCounter = Counter.builder("history.writer.caller.runs").register(Metrics.globalRegistry);
+        this.droppedCounter = Counter.builder("history.writer.dropped").register(Metrics.globalRegistry);
+    }
+
+    /**
+     * A pending history row. When {@code content} is present it is uploaded to {@code objectPath}
+     * first and the resulting storage path is passed to {@code entityFactory}; otherwise the
+     * factory receives {@code null}. {@code afterSave}, when set, receives the saved row on the
+     * writer thread and must not block.
+     */
+    public record Entry<T>(String objectPath, byte[] content, JpaRepository<T, Long> repository,
+                           Function<String, T> entityFactory, Consumer<T> afterSave) {
+
+        public static <T> Entry<T> withUpload(String objectPath, byte[] content,
+                JpaRepository<T, Long> repository, Function<String, T> entityFactory) {
+            return withUpload(objectPath, content, repository, entityFactory, null);
+        }
+
+        public static <T> Entry<T> withUpload(String objectPath, byte[] content,
+                JpaRepository<T, Long> repository, Function<String, T> entityFactory, Consumer<T> afterSave) {
+            return new Entry<>(objectPath, content, repository, entityFactory, afterSave);
+        }
+
+        public static <T> Entry<T> rowOnly(JpaRepository<T, Long> repository, Function<String, T> entityFactory) {
+            return new Entry<>(null, null, repository, entityFactory, null);
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        for (int i = 0; i < workers; i++) {
+            workerPool.execute(this::drainLoop);
+        }
+    }
+
+    public void submit(Entry<?> entry) {
+        if (!running || !queue.offer(entry)) {
+            if (!Schedulers.isInNonBlockingThread()) {
+                callerRunsCounter.increment();
+                writeBatch(List.of(entry));
+            } else if (overflowPermits.tryAcquire()) {
+                callerRunsCounter.increment();
+                Schedulers.boundedElastic().schedule(() -> {
+                    try {
+                        writeBatch(List.of(entry));
+                    } finally {
+                        overflowPermits.release();
+                    }
+                });
+            } else {
+                droppedCounter.increment();
+                logger.warn("History writer overloaded, dropping history row for {}", entry.objectPath());
+            }
+        }
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    private void drainLoop() {
+        while (running || !queue.isEmpty()) {
+            try {
+                Entry<?> first = queue.poll(500, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                List<Entry<?>> batch = new ArrayList<>(batchSize);
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                writeBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                logger.error("History writer worker error: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    private void writeBatch(List<Entry<?>> batch) {
+        List<CompletableFuture<String>> uploads = batch.stream()
+                .map(entry -> entry.content() == null
+                        ? CompletableFuture.<String>completedFuture(null)
+                        : CompletableFuture.supplyAsync(() -> upload(entry), uploadPool))
+                .toList();
+
+        Map<JpaRepository<Object, Long>, List<Pending>> pendingByRepository = new IdentityHashMap<>();
+        for (int i = 0; i < batch.size(); i++) {
+            Entry<?> entry = batch.get(i);
+            try {
+                Pending pending = new Pending(entry, uploads.get(i).join());
+                pendingByRepository.computeIfAbsent(repositoryOf(entry), repository -> new ArrayList<>()).add(pending);
+            } catch (Exception e) {
+                failedCounter.increment();
+                logger.error("Dropping history row for {}: {}", entry.objectPath(), e.getMessage());
+            }
+        }
+
+        pendingByRepository.forEach(this::save);
+    }
+
+    /**
+     * Saves one repository's rows in a single transaction. When that keeps failing, the rows are
+     * saved one by one so a single bad row does not take the rest of the batch down with it; rows
+     * that still fail are dropped and their uploaded objects deleted. Entities are rebuilt for every
+     * attempt, as a rolled-back insert can leave its generated id behind on the entity.
+     */
+    private void save(JpaRepository<Object, Long> repository, List<Pending> pending) {
+        long start = System.nanoTime();
+        try {
+            List<Object> rows = retry(() -> transactionTemplate.execute(
+                    status -> repository.saveAll(pending.stream().map(Pending::newRow).toList())));
+            toolMetrics.recordHistorySave(rows.get(0).getClass().getSimpleName(), System.nanoTime() - start,
+                    rows.size());
+            writtenCounter.increment(rows.size());
+            for (int i = 0; i < rows.size(); i++) {
+                pending.get(i).saved(rows.get(i));
+            }
+            return;
+        } catch (Exception e) {
+            if (pending.size() == 1) {
+                drop(pending.get(0), e);
+                return;
+            }
+            logger.warn("Failed to save {} history rows together, saving them one by one: {}", pending.size(),
+                    e.getMessage());
+        }
+
+        for (Pending row : pending) {
+            try {
+                Object saved = transactionTemplate.execute(status -> repository.save(row.newRow()));
+                writtenCounter.increment();
+                row.saved(saved);
+            } catch (Exception e) {
+                drop(row, e);
+            }
+        }
+    }
+
+    private void drop(Pending pending, Exception e) {
+        failedCounter.increment();
+        String objectPath = pending.entry().objectPath();
+        logger.error("Dropping history row for {}: {}", objectPath, e.getMessage(), e);
+        if (pending.location() == null || pending.entry().content() == null) {
+            return;
+        }
+        try {
+            blobStore.delete(objectPath);
+        } catch (Exception deleteError) {
+            logger.warn("Could not delete the upload of dropped history row {}: {}", objectPath,
+                    deleteError.getMessage());
+        }
+    }
+
+    private String upload(Entry<?> entry) {
+        long start = System.nanoTime();
+        String location = retry(() -> blobStore.put(entry.objectPath(), entry.content()));
+        toolMetrics.recordUpload(entry.objectPath(), System.nanoTime() - start, entry.content().length);
+        return location;
+    }
+
+    /**
+     * An entry whose object, if any, is stored at {@code location}.
+     */
+    private record Pending(Entry<?> entry, String location) {
+
+        private Object newRow() {
+            return toEntity(entry, location);
+        }
+
+        private void saved(Object row) {
+            try {
+                afterSave(entry, row);
+            } catch (Exception e) {
+                logger.warn("After-save hook failed for {}: {}", entry.objectPath(), e.getMessage());
+            }
+        }
+    }
+
+    private static <T> Object toEntity(Entry<T> entry, String gcsPath) {
+        return entry.entityFactory().apply(gcsPath);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> void afterSave(Entry<T> entry, Object row) {
+        if (entry.afterSave() != null) {
+            entry.afterSave().accept((T) row);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static JpaRepository<Object, Long> repositoryOf(Entry<?> entry) {
+        return (JpaRepository<Object, Long>) entry.repository();
+    }
+
+    private <R> R retry(Supplier<R> action) {
+        RuntimeException last = null;
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            try {
+                return action.get();
+            } catch (RuntimeException e) {
+                last = e;
+                logger.warn("History write attempt {}/{} failed: {}", attempt, maxAttempts, e.getMessage());
+                if (attempt == maxAttempts) {
+                    break;
+                }
+                try {
+                    Thread.sleep(200L * attempt);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        throw last != null ? last : new IllegalStateException("History write interrupted");
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        workerPool.shutdown();
+        if (!workerPool.awaitTermination(30, TimeUnit.SECONDS)) {
+            logger.warn("History writer stopped with {} pending writes", queue.size());
+        }
+        uploadPool.shutdown();
+    }
+
+    private static ThreadFactory namedThreads(String prefix, boolean virtual) {
+        if (virtual) {
+            return Thread.ofVirtual().name(prefix, 1).factory();
+        }
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,98 @@
+package com.doantotnghiep.aitoolshub.service;
+
+import com.doantotnghiep.aitoolshub.blob.BlobStore;
+import com.doantotnghiep.aitoolshub.repository.ImageHistoryRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gives image history rows created before derivatives existed (or whose live derivation was
+ * skipped) a thumbnail and preview. Rows are walked by id in small batches, one image at a time,
+ * and a batch is skipped while live derivations are queued, so the backfill never competes with
+ * generation traffic for the CPU pool. Rows whose original cannot be read are passed over until
+ * the next restart.
+ */
+@Service
+public class ImageDerivativeBackfill {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageDerivativeBackfill.class);
+
+    private final ImageHistoryRepository imageHistoryRepository;
+    private final ImageDerivativeService imageDerivatives;
+    private final BlobStore blobStore;
+    private final int batchSize;
+    private final ScheduledExecutorService scheduler;
+    private final Counter backfilledCounter;
+    private final Counter skippedCounter;
+    private long lastId;
+
+    public ImageDerivativeBackfill(ImageHistoryRepository imageHistoryRepository,
+            ImageDerivativeService imageDerivatives, BlobStore blobStore,
+            @Value("${images.derivatives.backfill.enabled:true}") boolean enabled,
+            @Value("${images.derivatives.backfill.batch-size:20}") int batchSize,
+            @Value("${images.derivatives.backfill.interval-ms:30000}") long intervalMillis) {
+        this.imageHistoryRepository = imageHistoryRepository;
+        this.imageDerivatives = imageDerivatives;
+        this.blobStore = blobStore;
+        this.batchSize = batchSize;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "image-derivative-backfill");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.backfilledCounter = Counter.builder("image.derivatives.backfilled").register(Metrics.globalRegistry);
+        this.skippedCounter = Counter.builder("image.derivatives.backfill.skipped").register(Metrics.globalRegistry);
+        if (enabled && imageDerivatives.isEnabled()) {
+            scheduler.scheduleWithFixedDelay(this::runBatch, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    void runBatch() {
+        if (imageDerivatives.isBusy()) {
+            return;
+        }
+        try {
+            List<ImageHistoryRepository.PendingDerivation> rows =
+                    imageHistoryRepository.findMissingDerivatives(lastId, PageRequest.of(0, batchSize));
+            for (ImageHistoryRepository.PendingDerivation row : rows) {
+                lastId = row.getId();
+                backfill(row);
+            }
+        } catch (Exception e) {
+            logger.error("Image derivative backfill failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private void backfill(ImageHistoryRepository.PendingDerivation row) {
+        String key = blobStore.keyOf(row.getGcsPath());
+        byte[] original = blobStore.get(key);
+        if (original == null) {
+            skippedCounter.increment();
+            logger.warn("Skipping derivatives for image {}: original {} not found", row.getId(), key);
+            return;
+        }
+        ImageDerivativeService.Derivatives derivatives = imageDerivatives.await(imageDerivatives.derive(key, original));
+        if (derivatives.thumbnailPath() == null) {
+            skippedCounter.increment();
+            return;
+        }
+        imageHistoryRepository.updateDerivatives(row.getId(), derivatives.thumbnailPath(), derivatives.previewPath());
+        backfilledCounter.increment();
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,241 @@
+package com.doantotnghiep.aitoolshub.service;
+
+import com.doantotnghiep.aitoolshub.blob.BlobStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.scheduler.Schedulers;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Derives a small thumbnail and a mid-size preview from each generated image and stores them next
+ * to the original ({@code images/12/1700000000000.jpg} gets {@code ..._thumb.jpg} and
+ * {@code ..._preview.jpg}). The image is decoded once; both sizes are then scaled and encoded in
+ * parallel on a bounded CPU pool and uploaded on {@code boundedElastic}.
+ * <p>
+ * Derivation is best effort. When the pool's queue is full, or decoding fails, the image simply
+ * has no derivatives and {@link ImageDerivativeBackfill} picks it up later.
+ */
+@Service
+public class ImageDerivativeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageDerivativeService.class);
+
+    /**
+     * Locations of the stored derivatives; both are {@code null} when derivation did not happen.
+     */
+    public record Derivatives(String thumbnailPath, String previewPath) {
+
+        public static final Derivatives NONE = new Derivatives(null, null);
+    }
+
+    private final BlobStore blobStore;
+    private final boolean enabled;
+    private final int thumbnailSize;
+    private final int previewSize;
+    private final float quality;
+    private final long timeoutMillis;
+    private final ThreadPoolExecutor cpuPool;
+    private final Executor uploads = runnable -> Schedulers.boundedElastic().schedule(runnable);
+    private final Counter derivedCounter;
+    private final Counter failedCounter;
+    private final Counter rejectedCounter;
+
+    public ImageDerivativeService(BlobStore blobStore,
+            @Value("${images.derivatives.enabled:true}") boolean enabled,
+            @Value("${images.derivatives.thumbnail-size:256}") int thumbnailSize,
+            @Value("${images.derivatives.preview-size:768}") int previewSize,
+            @Value("${images.derivatives.quality:0.8}") float quality,
+            @Value("${images.derivatives.threads:0}") int threads,
+            @Value("${images.derivatives.queue-capacity:100}") int queueCapacity,
+            @Value("${images.derivatives.timeout-ms:10000}") long timeoutMillis) {
+        this.blobStore = blobStore;
+        this.enabled = enabled;
+        this.thumbnailSize = thumbnailSize;
+        this.previewSize = previewSize;
+        this.quality = quality;
+        this.timeoutMillis = timeoutMillis;
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.cpuPool = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), namedThreads("image-derivative-"));
+        // Decoding and encoding happen in memory; ImageIO's disk cache would only add temp files
+        ImageIO.setUseCache(false);
+
+        Gauge.builder("image.derivatives.queued", cpuPool, pool -> pool.getQueue().size())
+                .register(Metrics.globalRegistry);
+        this.derivedCounter = Counter.builder("image.derivatives").tag("result", "derived")
+                .register(Metrics.globalRegistry);
+        this.failedCounter = Counter.builder("image.derivatives").tag("result", "failed")
+                .register(Metrics.globalRegistry);
+        this.rejectedCounter = Counter.builder("image.derivatives").tag("result", "rejected")
+                .register(Metrics.globalRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * True while live derivations are waiting for the pool, so background work can hold off.
+     */
+    public boolean isBusy() {
+        return !cpuPool.getQueue().isEmpty();
+    }
+
+    /**
+     * Starts deriving and storing both sizes of the image stored under {@code originalKey}. Never
+     * blocks the caller; a full pool yields {@link Derivatives#NONE} at once.
+     */
+    public CompletableFuture<Derivatives> derive(String originalKey, byte[] image) {
+        if (!enabled) {
+            return CompletableFuture.completedFuture(Derivatives.NONE);
+        }
+        CompletableFuture<BufferedImage> decoded;
+        try {
+            decoded = CompletableFuture.supplyAsync(() -> decode(image), cpuPool);
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            return CompletableFuture.completedFuture(Derivatives.NONE);
+        }
+        CompletableFuture<String> thumbnail = store(decoded, originalKey, "thumb", thumbnailSize);
+        CompletableFuture<String> preview = store(decoded, originalKey, "preview", previewSize);
+        return thumbnail.thenCombine(preview, Derivatives::new)
+                .whenComplete((derivatives, e) -> {
+                    if (e == null) {
+                        derivedCounter.increment();
+                    } else {
+                        failedCounter.increment();
+                        logger.warn("Could not derive images for {}: {}", originalKey, e.getMessage());
+                    }
+                });
+    }
+
+    /**
+     * Waits up to {@code images.derivatives.timeout-ms} for {@code derivation}, falling back to
+     * {@link Derivatives#NONE} when it fails or takes longer.
+     */
+    public Derivatives await(CompletableFuture<Derivatives> derivation) {
+        try {
+            return derivation.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Derivatives.NONE;
+        } catch (Exception e) {
+            return Derivatives.NONE;
+        }
+    }
+
+    static String derivativeKey(String originalKey, String suffix) {
+        int slash = originalKey.lastIndexOf('/');
+        int dot = originalKey.lastIndexOf('.');
+        String base = dot > slash ? originalKey.substring(0, dot) : originalKey;
+        return base + "_" + suffix + ".jpg";
+    }
+
+    private CompletableFuture<String> store(CompletableFuture<BufferedImage> decoded, String originalKey,
+            String suffix, int maxEdge) {
+        String key = derivativeKey(originalKey, suffix);
+        return decoded.thenApplyAsync(source -> encode(scale(source, maxEdge)), cpuPool)
+                .thenApplyAsync(bytes -> blobStore.put(key, bytes), uploads);
+    }
+
+    private static BufferedImage decode(byte[] image) {
+        try {
+            BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(image));
+            if (decoded == null) {
+                throw new IllegalArgumentException("Unsupported image format");
+            }
+            return decoded;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Fits the image into {@code maxEdge} pixels, halving in steps so bilinear filtering never
+     * skips source pixels. The result is always opaque RGB, as JPEG needs.
+     */
+    static BufferedImage scale(BufferedImage source, int maxEdge) {
+        double factor = Math.min(1.0, (double) maxEdge / Math.max(source.getWidth(), source.getHeight()));
+        int targetWidth = Math.max(1, (int) Math.round(source.getWidth() * factor));
+        int targetHeight = Math.max(1, (int) Math.round(source.getHeight() * factor));
+
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            BufferedImage next = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = next.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+                        RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setColor(Color.WHITE);
+                graphics.fillRect(0, 0, width, height);
+                graphics.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = next;
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    private byte[] encode(BufferedImage image) {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream stream = ImageIO.createImageOutputStream(out)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            writer.setOutput(stream);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    @PreDestroy
+    public void stop() {
+        cpuPool.shutdownNow();
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,149 @@
+package com.doantotnghiep.aitoolshub.service;
+
+import com.google.cloud.vision.v1.AnnotateImageRequest;
+import com.google.cloud.vision.v1.AnnotateImageResponse;
+import com.google.cloud.vision.v1.BatchAnnotateImagesResponse;
+import com.google.cloud.vision.v1.ImageAnnotatorClient;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Groups concurrent OCR requests into a single {@code batchAnnotateImages} call. A batch is sent
+ * as soon as it holds {@code maxBatchSize} images or {@code maxBatchBytes} of requests, or
+ * {@code maxDelayMillis} after its first image arrived, whichever comes first, and each caller gets
+ * back its own response. An image that would push a batch over the byte budget starts the next one.
+ * <p>
+ * When a whole batch call fails, its images are retried one by one, so one oversized or rejected
+ * image only fails its own caller.
+ */
+@Service
+public class OcrBatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(OcrBatcher.class);
+
+    private record Pending(AnnotateImageRequest request, CompletableFuture<AnnotateImageResponse> result) {
+    }
+
+    private final ObjectProvider<ImageAnnotatorClient> clientProvider;
+    private final int maxBatchSize;
+    private final long maxBatchBytes;
+    private final long maxDelayMillis;
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ocr-batch-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ExecutorService callPool;
+
+    private List<Pending> pending = new ArrayList<>();
+    private long pendingBytes;
+    private ScheduledFuture<?> scheduledFlush;
+
+    public OcrBatcher(ObjectProvider<ImageAnnotatorClient> clientProvider,
+            @Value("${ocr.batch.max-size:16}") int maxBatchSize,
+            @Value("${ocr.batch.max-bytes:8388608}") long maxBatchBytes,
+            @Value("${ocr.batch.max-delay-ms:5}") long maxDelayMillis,
+            @Value("${ocr.batch.concurrency:4}") int concurrency) {
+        this.clientProvider = clientProvider;
+        this.maxBatchSize = maxBatchSize;
+        this.maxBatchBytes = maxBatchBytes;
+        this.maxDelayMillis = maxDelayMillis;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.callPool = Executors.newFixedThreadPool(concurrency, runnable -> {
+            Thread thread = new Thread(runnable, "ocr-batch-call-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public CompletableFuture<AnnotateImageResponse> submit(AnnotateImageRequest request) {
+        Pending item = new Pending(request, new CompletableFuture<>());
+        long size = request.getSerializedSize();
+        List<List<Pending>> ready = new ArrayList<>(2);
+        synchronized (this) {
+            if (!pending.isEmpty() && pendingBytes + size > maxBatchBytes) {
+                ready.add(takePending());
+            }
+            pending.add(item);
+            pendingBytes += size;
+            if (pending.size() >= maxBatchSize || pendingBytes >= maxBatchBytes) {
+                ready.add(takePending());
+            } else if (pending.size() == 1) {
+                scheduledFlush = timer.schedule(this::flushOnTimer, maxDelayMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+        ready.forEach(this::dispatch);
+        return item.result();
+    }
+
+    private void flushOnTimer() {
+        List<Pending> ready;
+        synchronized (this) {
+            ready = takePending();
+        }
+        dispatch(ready);
+    }
+
+    // Caller must hold the lock
+    private List<Pending> takePending() {
+        List<Pending> ready = pending;
+        pending = new ArrayList<>();
+        pendingBytes = 0;
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        return ready;
+    }
+
+    private void dispatch(List<Pending> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        callPool.execute(() -> send(batch));
+    }
+
+    private void send(List<Pending> batch) {
+        try {
+            BatchAnnotateImagesResponse response = clientProvider.getObject()
+                    .batchAnnotateImages(batch.stream().map(Pending::request).toList());
+            List<AnnotateImageResponse> responses = response.getResponsesList();
+            for (int i = 0; i < batch.size(); i++) {
+                if (i < responses.size()) {
+                    batch.get(i).result().complete(responses.get(i));
+                } else {
+                    batch.get(i).result().completeExceptionally(
+                            new RuntimeException("Missing OCR response for image " + i));
+                }
+            }
+        } catch (Exception e) {
+            if (batch.size() == 1) {
+                logger.error("OCR request failed: {}", e.getMessage());
+                batch.get(0).result().completeExceptionally(e);
+                return;
+            }
+            logger.warn("OCR batch of {} images failed, retrying them one by one: {}", batch.size(), e.getMessage());
+            batch.forEach(item -> dispatch(List.of(item)));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+        callPool.shutdown();
+    }
+}
@@ -0,0 +1,112 @@
+package com.doantotnghiep.aitoolshub.service;
+
+import com.doantotnghiep.aitoolshub.blob.BlobStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Signs read URLs for stored objects when they are handed to a client, instead of persisting
+ * URLs that die after a week. Signing is delegated to the {@link BlobStore} (both backends sign
+ * locally, without a network call), and each URL is reused until it is close to expiry.
+ */
+@Service
+public class SignedUrlService {
+
+    private record Entry(String url, long refreshAtMillis) {
+    }
+
+    private final BlobStore blobStore;
+    private final long lifetimeMillis;
+    private final long refreshMarginMillis;
+    private final int maxEntries;
+    private final Map<String, Entry> cache = new ConcurrentHashMap<>();
+    private final Counter hits;
+    private final Counter signed;
+
+    public SignedUrlService(BlobStore blobStore,
+            @Value("${gcs.signed-url.lifetime:3600000}") long lifetimeMillis,
+            @Value("${gcs.signed-url.refresh-margin:300000}") long refreshMarginMillis,
+            @Value("${gcs.signed-url.cache-size:20000}") int maxEntries) {
+        this.blobStore = blobStore;
+        this.lifetimeMillis = lifetimeMillis;
+        this.refreshMarginMillis = Math.min(refreshMarginMillis, lifetimeMillis / 2);
+        this.maxEntries = maxEntries;
+        this.hits = Counter.builder("signed.url.requests").tag("result", "hit").register(Metrics.globalRegistry);
+        this.signed = Counter.builder("signed.url.requests").tag("result", "signed").register(Metrics.globalRegistry);
+        Gauge.builder("signed.url.cache.size", cache, Map::size).register(Metrics.globalRegistry);
+    }
+
+    /**
+     * Returns a signed URL for {@code location}, which may be a stored location or a bare
+     * object key. Values that are already HTTP URLs (legacy rows) are returned unchanged.
+     */
+    public String sign(String location) {
+        if (location == null || location.isBlank() || location.startsWith("http")) {
+            return location;
+        }
+        long now = System.currentTimeMillis();
+        Entry entry = cache.get(location);
+        if (entry != null && entry.refreshAtMillis() > now) {
+            hits.increment();
+            return entry.url();
+        }
+        return signAndCache(location, now);
+    }
+
+    /**
+     * Signs every location in one pass and returns the URLs keyed by the input value.
+     */
+    public Map<String, String> signAll(Collection<String> locations) {
+        Map<String, String> urls = new HashMap<>(locations.size() * 2);
+        long now = System.currentTimeMillis();
+        for (String location : locations) {
+            if (location == null || urls.containsKey(location)) {
+                continue;
+            }
+            if (location.isBlank() || location.startsWith("http")) {
+                urls.put(location, location);
+                continue;
+            }
+            Entry entry = cache.get(location);
+            if (entry != null && entry.refreshAtMillis() > now) {
+                hits.increment();
+                urls.put(location, entry.url());
+                continue;
+            }
+            urls.put(location, signAndCache(location, now));
+        }
+        return urls;
+    }
+
+    public void invalidate(String location) {
+        if (location != null) {
+            cache.remove(location);
+        }
+    }
+
+    private String signAndCache(String location, long now) {
+        String url;
+        try {
+            url = blobStore.signUrl(blobStore.keyOf(location), lifetimeMillis);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to generate signed URL for " + location + ": " + e.getMessage(), e);
+        }
+        signed.increment();
+        if (cache.size() >= maxEntries) {
+            cache.values().removeIf(entry -> entry.refreshAtMillis() <= now);
+            if (cache.size() >= maxEntries) {
+                cache.clear();
+            }
+        }
+        cache.put(location, new Entry(url, now + lifetimeMillis - refreshMarginMillis));
+        return url;
+    }
+}
@@ -1,125 +1,323 @@
 package com.doantotnghiep.aitoolshub.service;
 
+import com.doantotnghiep.aitoolshub.cache.ImageGenerationCache;
+import com.doantotnghiep.aitoolshub.config.AiClientRegistry;
 import com.doantotnghiep.aitoolshub.entity.ImageHistory;
 import com.doantotnghiep.aitoolshub.entity.User;
+import com.doantotnghiep.aitoolshub.enums.AiProvider;
+import com.doantotnghiep.aitoolshub.metrics.ToolMetrics;
+import com.doantotnghiep.aitoolshub.model.HuggingFaceImageRequest;
+import com.doantotnghiep.aitoolshub.model.ImageGenerationRequest;
 import com.doantotnghiep.aitoolshub.repository.ImageHistoryRepository;
-import com.doantotnghiep.aitoolshub.repository.UserRepository;
-import io.netty.channel.ChannelOption;
-import io.netty.handler.timeout.ReadTimeoutHandler;
-import io.netty.handler.timeout.WriteTimeoutHandler;
+import com.doantotnghiep.aitoolshub.resilience.CircuitBreaker;
+import com.doantotnghiep.aitoolshub.resilience.LatencyTracker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Metrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
-import org.springframework.http.client.reactive.ReactorClientHttpConnector;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
-import reactor.netty.http.client.HttpClient;
+import reactor.core.publisher.SignalType;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.Map;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @Service
 public class TextToImageService {
 
+    private static final Logger logger = LoggerFactory.getLogger(TextToImageService.class);
+
     private final WebClient webClient;
-    private final GcsService gcsService;
+    private final AiClientRegistry aiClients;
+    private final HistoryWriter historyWriter;
+    private final ImageGenerationCache imageCache;
+    private final ImageDerivativeService imageDerivatives;
+    private final ToolMetrics toolMetrics;
     private final ImageHistoryRepository imageHistoryRepository;
-    private final UserRepository userRepository;
+    private final CurrentUserService currentUserService;
     private final String apiKey;
-    private final String apiUrlModel1;
-    private final String apiUrlModel2;
+    private final ImageModel model1;
+    private final ImageModel model2;
+    private final double hedgePercentile;
+    private final long hedgeMinDelayMillis;
+    private final long hedgeDefaultDelayMillis;
+    private final int hedgeMinSamples;
+    private final Meter.MeterProvider<Counter> autoRequests = Counter.builder("image.auto.requests")
+            .withRegistry(Metrics.globalRegistry);
 
     private static final int MAX_PROMPT_LENGTH = 1000; // Adjust based on your database column length
 
-    public TextToImageService(WebClient.Builder webClientBuilder, GcsService gcsService,
-            ImageHistoryRepository imageHistoryRepository, UserRepository userRepository,
+    /**
+     * One Hugging Face image endpoint together with its observed latency and circuit breaker.
+     */
+    private record ImageModel(String name, String apiUrl, LatencyTracker latency, CircuitBreaker breaker) {
+    }
+
+    private record GeneratedImage(ImageModel model, byte[] imageData) {
+    }
+
+    public TextToImageService(AiClientRegistry aiClients, HistoryWriter historyWriter,
+            ImageGenerationCache imageCache, ImageDerivativeService imageDerivatives, ToolMetrics toolMetrics,
+            ImageHistoryRepository imageHistoryRepository, CurrentUserService currentUserService,
             @Value("${huggingface.api.token}") String apiKey,
             @Value("${huggingface.models.model1.url}") String apiUrlModel1,
-            @Value("${huggingface.models.model2.url}") String apiUrlModel2) {
-        // Configure HttpClient with a 5-minute timeout
-        HttpClient httpClient = HttpClient.create()
-                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 300_000) // 5 minutes for connection timeout
-                .doOnConnected(conn -> conn
-                        .addHandlerLast(new ReadTimeoutHandler(300, TimeUnit.SECONDS)) // 5 minutes for read timeout
-                        .addHandlerLast(new WriteTimeoutHandler(300, TimeUnit.SECONDS))); // 5 minutes for write timeout
-
-        // Build WebClient with the configured HttpClient
-        this.webClient = webClientBuilder
-                .clientConnector(new ReactorClientHttpConnector(httpClient))
-                .build();
-        this.gcsService = gcsService;
+            @Value("${huggingface.models.model2.url}") String apiUrlModel2,
+            @Value("${huggingface.auto.hedge.percentile:0.95}") double hedgePercentile,
+            @Value("${huggingface.auto.hedge.min-delay-ms:2000}") long hedgeMinDelayMillis,
+            @Value("${huggingface.auto.hedge.default-delay-ms:30000}") long hedgeDefaultDelayMillis,
+            @Value("${huggingface.auto.hedge.min-samples:20}") int hedgeMinSamples,
+            @Value("${huggingface.auto.latency-window:200}") int latencyWindow,
+            @Value("${huggingface.auto.circuit-breaker.window-size:20}") int breakerWindow,
+            @Value("${huggingface.auto.circuit-breaker.minimum-calls:5}") int breakerMinimumCalls,
+            @Value("${huggingface.auto.circuit-breaker.failure-rate-threshold:0.5}") double breakerThreshold,
+            @Value("${huggingface.auto.circuit-breaker.open-duration-ms:30000}") long breakerOpenMillis) {
+        this.webClient = aiClients.client(AiProvider.HUGGING_FACE);
+        this.aiClients = aiClients;
+        this.historyWriter = historyWriter;
+        this.imageCache = imageCache;
+        this.imageDerivatives = imageDerivatives;
+        this.toolMetrics = toolMetrics;
         this.imageHistoryRepository = imageHistoryRepository;
-        this.userRepository = userRepository;
+        this.currentUserService = currentUserService;
         this.apiKey = apiKey;
-        this.apiUrlModel1 = apiUrlModel1;
-        this.apiUrlModel2 = apiUrlModel2;
+        this.hedgePercentile = hedgePercentile;
+        this.hedgeMinDelayMillis = hedgeMinDelayMillis;
+        this.hedgeDefaultDelayMillis = hedgeDefaultDelayMillis;
+        this.hedgeMinSamples = hedgeMinSamples;
+        this.model1 = new ImageModel("stable-diffusion-xl-base-1.0", apiUrlModel1,
+                new LatencyTracker(latencyWindow),
+                new CircuitBreaker("model1", breakerWindow, breakerMinimumCalls, breakerThreshold, breakerOpenMillis));
+        this.model2 = new ImageModel("stable-diffusion-3.5-large", apiUrlModel2,
+                new LatencyTracker(latencyWindow),
+                new CircuitBreaker("model2", breakerWindow, breakerMinimumCalls, breakerThreshold, breakerOpenMillis));
+        for (ImageModel model : new ImageModel[]{model1, model2}) {
+            Gauge.builder("image.model.breaker.open", model.breaker(),
+                            breaker -> breaker.getState() == CircuitBreaker.State.CLOSED ? 0 : 1)
+                    .tag("model", model.name()).register(Metrics.globalRegistry);
+        }
+    }
+
+    private Mono<byte[]> callModelApi(ImageGenerationRequest request, ImageModel model) {
+        return currentUserService.currentUser()
+                .flatMap(user -> generate(request, model)
+                        .doOnNext(imageData -> saveHistory(user, request, model, imageData)));
+    }
+
+    private Mono<byte[]> generate(ImageGenerationRequest request, ImageModel model) {
+        HuggingFaceImageRequest hfPayload = HuggingFaceImageRequest.of(request);
+
+        Mono<byte[]> generation = Mono.defer(() -> {
+            long start = System.currentTimeMillis();
+            return webClient.post()
+                    .uri(model.apiUrl())
+                    .header("Authorization", "Bearer " + apiKey)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(hfPayload)
+                    .retrieve()
+                    .bodyToMono(byte[].class)
+                    .timeout(Duration.ofMinutes(5)) // 5-minute timeout for the entire Mono pipeline
+                    .transform(call -> toolMetrics.upstream(AiProvider.HUGGING_FACE, model.name(), call))
+                    .doOnNext(imageData -> model.latency().record(System.currentTimeMillis() - start));
+        });
+
+        if (useCache(request)) {
+            String cacheKey = cacheKey(request, model);
+            generation = imageCache.lookup(cacheKey)
+                    .switchIfEmpty(generation.doOnNext(imageData -> imageCache.store(cacheKey, imageData)));
+        }
+        return generation;
+    }
+
+    /**
+     * Blocking counterpart of {@link #callModelApi} for the {@code blocking} execution mode: the
+     * cache lookup, the Hugging Face call and the history hand-off all run on the calling thread.
+     */
+    private byte[] generateBlocking(ImageGenerationRequest request, ImageModel model) {
+        User user = currentUserService.getCurrentUser();
+        boolean useCache = useCache(request);
+        String cacheKey = useCache ? cacheKey(request, model) : null;
+
+        byte[] imageData = useCache ? imageCache.find(cacheKey) : null;
+        if (imageData == null) {
+            long start = System.currentTimeMillis();
+            imageData = toolMetrics.upstream(AiProvider.HUGGING_FACE, model.name(), () ->
+                    aiClients.restClient(AiProvider.HUGGING_FACE).post()
+                            .uri(model.apiUrl())
+                            .header("Authorization", "Bearer " + apiKey)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .body(HuggingFaceImageRequest.of(request))
+                            .retrieve()
+                            .body(byte[].class));
+            model.latency().record(System.currentTimeMillis() - start);
+            if (useCache) {
+                imageCache.store(cacheKey, imageData);
+            }
+        }
+        saveHistory(user, request, model, imageData);
+        return imageData;
+    }
+
+    // Identical payloads for the same model are served from the cache unless the client opts out
+    private boolean useCache(ImageGenerationRequest request) {
+        return imageCache.isEnabled() && request.useCache();
     }
 
-    private Mono<byte[]> callModelApi(Map<String, Object> payload, String apiUrl, String modelName) {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found: " + email));
+    private String cacheKey(ImageGenerationRequest request, ImageModel model) {
+        return imageCache.key(model.name(), request.input(), request.negativePrompt(),
+                request.numInferenceSteps());
+    }
 
-        String input = (String) payload.get("input");
+    private void saveHistory(User user, ImageGenerationRequest request, ImageModel model, byte[] imageData) {
+        String input = request.input();
         // Truncate the prompt if it exceeds the maximum length
         String truncatedPrompt = input.length() > MAX_PROMPT_LENGTH
                 ? input.substring(0, MAX_PROMPT_LENGTH) + "..."
                 : input;
-
         if (input.length() > MAX_PROMPT_LENGTH) {
-            System.out.println("Prompt truncated from " + input.length() + " to " + MAX_PROMPT_LENGTH + " characters");
+            logger.info("Prompt truncated from {} to {} characters", input.length(), MAX_PROMPT_LENGTH);
+        }
+
+        LocalDateTime createdAt = LocalDateTime.now();
+        String objectPath = "images/" + user.getId() + "/" + System.currentTimeMillis() + ".jpg";
+        // Thumbnail and preview are derived while the original uploads. The row is saved without
+        // them and updated once they are stored, so the writer never waits on the CPU pool; images
+        // whose derivation fails are left to the backfill
+        CompletableFuture<ImageDerivativeService.Derivatives> derivation =
+                imageDerivatives.derive(objectPath, imageData);
+        historyWriter.submit(HistoryWriter.Entry.withUpload(
+                objectPath,
+                imageData,
+                imageHistoryRepository,
+                gcsPath -> ImageHistory.builder()
+                        .user(user)
+                        .prompt(truncatedPrompt)
+                        .gcsPath(gcsPath)
+                        .imageUrl(gcsPath)
+                        .modelUsed(model.name())
+                        .createdAt(createdAt)
+                        .build(),
+                row -> derivation.thenAcceptAsync(derivatives -> recordDerivatives(row.getId(), derivatives),
+                        runnable -> Schedulers.boundedElastic().schedule(runnable))));
+    }
+
+    private void recordDerivatives(Long historyId, ImageDerivativeService.Derivatives derivatives) {
+        if (derivatives.thumbnailPath() == null && derivatives.previewPath() == null) {
+            return;
+        }
+        try {
+            imageHistoryRepository.updateDerivatives(historyId, derivatives.thumbnailPath(),
+                    derivatives.previewPath());
+        } catch (Exception e) {
+            logger.warn("Could not record derivatives for image history {}: {}", historyId, e.getMessage());
         }
+    }
+
+    public Mono<byte[]> callModel1Api(ImageGenerationRequest request) {
+        return callModelApi(request, model1);
+    }
+
+    public Mono<byte[]> callModel2Api(ImageGenerationRequest request) {
+        return callModelApi(request, model2);
+    }
+
+    public byte[] generateModel1(ImageGenerationRequest request) {
+        return generateBlocking(request, model1);
+    }
+
+    public byte[] generateModel2(ImageGenerationRequest request) {
+        return generateBlocking(request, model2);
+    }
+
+    /**
+     * Generates with the preferred model ({@code "preferredModel": "model2"} selects the second one,
+     * the default is model1) and brings in the other model when the preferred one struggles:
+     * <ul>
+     *   <li>if the preferred model's circuit breaker is open, the other model is used directly;</li>
+     *   <li>if the preferred model fails, the other model is tried at once;</li>
+     *   <li>if the preferred model is still running after its observed p95 latency, a hedged request
+     *       goes to the other model and whichever image arrives first wins. The loser is cancelled.</li>
+     * </ul>
+     * The history row records the model that actually produced the image.
+     */
+    public Mono<byte[]> callAutoApi(ImageGenerationRequest request) {
+        return currentUserService.currentUser().flatMap(user -> callAutoApi(user, request));
+    }
+
+    private Mono<byte[]> callAutoApi(User user, ImageGenerationRequest request) {
+        boolean preferModel2 = "model2".equals(request.preferredModel());
+        ImageModel primary = preferModel2 ? model2 : model1;
+        ImageModel secondary = preferModel2 ? model1 : model2;
+
+        return Mono.defer(() -> {
+                    if (!primary.breaker().tryAcquire()) {
+                        countAuto(secondary, "failover");
+                        return guarded(request, secondary)
+                                .switchIfEmpty(Mono.error(new RuntimeException(
+                                        "Both image models are unavailable, please try again later")));
+                    }
+
+                    Sinks.Empty<Void> primaryFailed = Sinks.empty();
+                    Mono<GeneratedImage> first = withBreaker(request, primary)
+                            .doOnError(e -> primaryFailed.tryEmitEmpty());
+                    Mono<GeneratedImage> hedge = Mono.firstWithSignal(
+                                    Mono.delay(hedgeDelay(primary)).then(), primaryFailed.asMono())
+                            .then(Mono.defer(() -> guarded(request, secondary)));
+
+                    return Mono.firstWithValue(first, hedge)
+                            .onErrorMap(e -> new RuntimeException(
+                                    "Both image models failed: " + e.getMessage(), e))
+                            .doOnNext(image -> countAuto(image.model(),
+                                    image.model() == primary ? "primary" : "hedge"));
+                })
+                .doOnNext(image -> saveHistory(user, request, image.model(), image.imageData()))
+                .map(GeneratedImage::imageData);
+    }
+
+    // Runs the model only if its breaker lets the call through; completes empty otherwise
+    private Mono<GeneratedImage> guarded(ImageGenerationRequest request, ImageModel model) {
+        return Mono.defer(() -> model.breaker().tryAcquire() ? withBreaker(request, model) : Mono.empty());
+    }
 
-        Map<String, Object> hfPayload = Map.of(
-                "inputs", input,
-                "parameters", Map.of(
-                        "negative_prompt", payload.getOrDefault("negativePrompt", ""),
-                        "num_inference_steps", payload.getOrDefault("numInferenceSteps", 28)
-                ),
-                "options", Map.of("wait_for_model", true)
-        );
-
-        return webClient.post()
-                .uri(apiUrl)
-                .header("Authorization", "Bearer " + apiKey)
-                .contentType(MediaType.APPLICATION_JSON)
-                .bodyValue(hfPayload)
-                .retrieve()
-                .bodyToMono(byte[].class)
-                .timeout(Duration.ofMinutes(5)) // 5-minute timeout for the entire Mono pipeline
-                .flatMap(imageData -> {
-                    try {
-                        String gcsPath = gcsService.uploadFile(
-                                "images/" + user.getId() + "/" + System.currentTimeMillis() + ".jpg",
-                                imageData
-                        );
-
-                        ImageHistory history = ImageHistory.builder()
-                                .user(user)
-                                .prompt(truncatedPrompt)
-                                .gcsPath(gcsPath)
-                                .imageUrl(gcsPath)
-                                .modelUsed(modelName)
-                                .createdAt(LocalDateTime.now())
-                                .build();
-                        imageHistoryRepository.save(history);
-
-                        return Mono.just(imageData);
-                    } catch (Exception e) {
-                        System.err.println("Error saving to database: " + e.getMessage());
-                        return Mono.error(new RuntimeException("Failed to save image history: " + e.getMessage()));
+    // Reports the outcome of a call that already holds a breaker permit
+    private Mono<GeneratedImage> withBreaker(ImageGenerationRequest request, ImageModel model) {
+        AtomicBoolean reported = new AtomicBoolean();
+        return generate(request, model)
+                .map(imageData -> new GeneratedImage(model, imageData))
+                .doOnNext(image -> {
+                    if (reported.compareAndSet(false, true)) {
+                        model.breaker().onSuccess();
+                    }
+                })
+                .doOnError(e -> {
+                    if (reported.compareAndSet(false, true)) {
+                        logger.warn("Image model {} failed: {}", model.name(), e.getMessage());
+                        model.breaker().onFailure();
+                    }
+                })
+                .doFinally(signal -> {
+                    if (signal == SignalType.CANCEL && reported.compareAndSet(false, true)) {
+                        model.breaker().onIgnored();
                     }
                 });
     }
 
-    public Mono<byte[]> callModel1Api(Map<String, Object> payload) {
-        return callModelApi(payload, apiUrlModel1, "stable-diffusion-xl-base-1.0");
+    private Duration hedgeDelay(ImageModel model) {
+        if (model.latency().getCount() < hedgeMinSamples) {
+            return Duration.ofMillis(hedgeDefaultDelayMillis);
+        }
+        return Duration.ofMillis(Math.max(hedgeMinDelayMillis, model.latency().percentile(hedgePercentile)));
     }
 
-    public Mono<byte[]> callModel2Api(Map<String, Object> payload) {
-        return callModelApi(payload, apiUrlModel2, "stable-diffusion-3.5-large");
+    private void countAuto(ImageModel winner, String outcome) {
+        autoRequests.withTags("model", winner.name(), "outcome", outcome).increment();
     }
-}
\ No newline at end of file
+}
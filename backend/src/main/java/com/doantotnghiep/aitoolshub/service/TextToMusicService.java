@@ -1,57 +1,53 @@
 package com.doantotnghiep.aitoolshub.service;
 
+import com.doantotnghiep.aitoolshub.config.AiClientRegistry;
 import com.doantotnghiep.aitoolshub.entity.SoundHistory;
 import com.doantotnghiep.aitoolshub.entity.User;
+import com.doantotnghiep.aitoolshub.enums.AiProvider;
+import com.doantotnghiep.aitoolshub.metrics.ToolMetrics;
+import com.doantotnghiep.aitoolshub.model.ElevenLabsSoundRequest;
 import com.doantotnghiep.aitoolshub.repository.SoundHistoryRepository;
-import com.doantotnghiep.aitoolshub.repository.UserRepository;
-import com.google.cloud.storage.BlobId;
-import com.google.cloud.storage.BlobInfo;
-import com.google.cloud.storage.Storage;
-import com.google.cloud.storage.Storage.SignUrlOption;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.http.MediaType;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 import reactor.util.retry.Retry;
 
-import java.net.URL;
 import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.Map;
-import java.util.concurrent.TimeUnit;
-
-import org.springframework.web.reactive.function.client.ExchangeStrategies;
 
 @Service
 public class TextToMusicService {
 
+    private static final Logger logger = LoggerFactory.getLogger(TextToMusicService.class);
+    private static final String MODEL = "sound-generation";
+    private static final int MAX_RETRIES = 3;
+    private static final Duration RETRY_BACKOFF = Duration.ofSeconds(5);
+
     private final WebClient webClient;
-    private final GcsService gcsService;
+    private final AiClientRegistry aiClients;
+    private final HistoryWriter historyWriter;
     private final SoundHistoryRepository soundHistoryRepository;
-    private final UserRepository userRepository;
-    private final Storage storage;
+    private final CurrentUserService currentUserService;
+    private final ToolMetrics toolMetrics;
     @Value("${elevenlabs.api.key}")
     private String apiKey;
     @Value("${elevenlabs.api.url1}")
     private String apiUrl;
-    @Value("${gcs.bucket}")
-    private String bucketName;
-
-    public TextToMusicService(WebClient.Builder webClientBuilder, GcsService gcsService,
-            SoundHistoryRepository soundHistoryRepository, UserRepository userRepository,
-            Storage storage) {
-        this.webClient = webClientBuilder
-                .exchangeStrategies(ExchangeStrategies.builder()
-                        .codecs(configurer -> configurer.defaultCodecs()
-                                .maxInMemorySize(10 * 1024 * 1024))
-                        .build())
-                .build();
-        this.gcsService = gcsService;
+
+    public TextToMusicService(AiClientRegistry aiClients, HistoryWriter historyWriter,
+            SoundHistoryRepository soundHistoryRepository, CurrentUserService currentUserService,
+            ToolMetrics toolMetrics) {
+        this.webClient = aiClients.client(AiProvider.ELEVENLABS);
+        this.aiClients = aiClients;
+        this.historyWriter = historyWriter;
         this.soundHistoryRepository = soundHistoryRepository;
-        this.userRepository = userRepository;
-        this.storage = storage;
+        this.currentUserService = currentUserService;
+        this.toolMetrics = toolMetrics;
     }
 
     public Mono<byte[]> callTextToMusicApi(String input, Double durationSeconds,
@@ -68,93 +64,118 @@ public class TextToMusicService {
             return Mono.error(new RuntimeException("Input text cannot be empty"));
         }
 
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found: " + email));
-
-        Map<String, Object> payload = Map.of(
-                "text", input,
-                "duration_seconds", durationSeconds != null ? durationSeconds : 5.0,
-                "prompt_influence", promptInfluence != null ? promptInfluence : 0.3
-        );
-
-        return webClient.post()
-                .uri(apiUrl)
-                .header("xi-api-key", apiKey)
-                .contentType(MediaType.APPLICATION_JSON)
-                .bodyValue(payload)
-                .retrieve()
-                .onStatus(status -> status.is4xxClientError() || status.is5xxServerError(),
-                        response -> response.bodyToMono(String.class)
-                                .flatMap(errorBody -> {
-                                    System.err.println(
-                                            "ElevenLabs API Error Response: " + errorBody);
-                                    return Mono.error(new RuntimeException(
-                                            "ElevenLabs API Error: " + errorBody));
+        ElevenLabsSoundRequest payload = soundRequest(input, durationSeconds, promptInfluence);
+
+        return currentUserService.currentUser()
+                .flatMap(user -> webClient.post()
+                        .uri(apiUrl)
+                        .header("xi-api-key", apiKey)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(payload)
+                        .retrieve()
+                        .onStatus(status -> status.is4xxClientError() || status.is5xxServerError(),
+                                response -> response.bodyToMono(String.class)
+                                        .flatMap(errorBody -> {
+                                            logger.warn("ElevenLabs API error response: {}", errorBody);
+                                            return Mono.error(new RuntimeException(
+                                                    "ElevenLabs API Error: " + errorBody));
+                                        })
+                        )
+                        .bodyToMono(byte[].class)
+                        .timeout(Duration.ofSeconds(120))
+                        .transform(call -> toolMetrics.upstream(AiProvider.ELEVENLABS, MODEL, call))
+                        .retryWhen(Retry.backoff(MAX_RETRIES, RETRY_BACKOFF)
+                                .filter(throwable -> throwable.getMessage().contains("busy"))
+                                .doBeforeRetry(retrySignal ->
+                                        logger.info("Retrying ElevenLabs API call, attempt {}",
+                                                retrySignal.totalRetries() + 1)))
+                        .doOnNext(audioData -> saveHistory(user, input, durationSeconds, promptInfluence, audioData)))
+                .doOnNext(response -> logger.debug("Received audio file of {} bytes", response.length))
+                .doOnError(e -> logger.error("Error calling ElevenLabs API: {}", e.getMessage()));
+    }
+
+    /**
+     * Blocking counterpart of {@link #callTextToMusicApi} for the {@code blocking} execution mode,
+     * with the same exponential backoff while ElevenLabs reports that it is busy.
+     */
+    public byte[] generateMusic(String input, Double durationSeconds, Double promptInfluence) {
+        if (apiUrl == null || apiUrl.isBlank()) {
+            throw new RuntimeException("ElevenLabs API URL is not configured");
+        }
+
+        if (apiKey == null || apiKey.isBlank()) {
+            throw new RuntimeException("ElevenLabs API key is not configured");
+        }
+
+        if (input == null || input.isBlank()) {
+            throw new RuntimeException("Input text cannot be empty");
+        }
+
+        User user = currentUserService.getCurrentUser();
+
+        ElevenLabsSoundRequest payload = soundRequest(input, durationSeconds, promptInfluence);
+
+        for (int attempt = 0; ; attempt++) {
+            try {
+                byte[] audioData = toolMetrics.upstream(AiProvider.ELEVENLABS, MODEL, () ->
+                        aiClients.restClient(AiProvider.ELEVENLABS).post()
+                                .uri(apiUrl)
+                                .header("xi-api-key", apiKey)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .body(payload)
+                                .retrieve()
+                                .onStatus(HttpStatusCode::isError, (request, response) -> {
+                                    String errorBody = new String(response.getBody().readAllBytes());
+                                    logger.warn("ElevenLabs API error response: {}", errorBody);
+                                    throw new RuntimeException("ElevenLabs API Error: " + errorBody);
                                 })
-                )
-                .bodyToMono(byte[].class)
-                .timeout(Duration.ofSeconds(120))
-                .retryWhen(Retry.backoff(3, Duration.ofSeconds(5))
-                        .filter(throwable -> throwable.getMessage().contains("busy"))
-                        .doBeforeRetry(retrySignal ->
-                                System.out.println("Retrying ElevenLabs API call... Attempt " +
-                                        (retrySignal.totalRetries() + 1))))
-                .flatMap(audioData -> {
-                    try {
-                        String filePath =
-                                "sounds/" + user.getId() + "/" + System.currentTimeMillis()
-                                        + ".mp3";
-                        String gcsPath = gcsService.uploadFile(filePath, audioData);
-                        BlobId blobId = BlobId.of(bucketName, filePath);
-                        BlobInfo blobInfo = BlobInfo.newBuilder(blobId).build();
-                        URL signedUrl;
-                        try {
-                            signedUrl = storage.signUrl(
-                                    blobInfo,
-                                    7,
-                                    TimeUnit.DAYS,
-                                    SignUrlOption.withV4Signature()
-                            );
-                        } catch (Exception e) {
-                            throw new RuntimeException(
-                                    "Failed to generate signed URL for GCS file: " + e.getMessage(),
-                                    e);
-                        }
-                        String audioUrl = signedUrl.toString();
-
-                        SoundHistory history = SoundHistory.builder()
-                                .user(user)
-                                .prompt(input)
-                                .audioUrl(audioUrl)
-                                .durationSeconds(durationSeconds)
-                                .promptInfluence(promptInfluence)
-                                .createdAt(LocalDateTime.now())
-                                .build();
-                        soundHistoryRepository.save(history);
-
-                        return Mono.just(audioData);
-                    } catch (Exception e) {
-                        System.err.println("Error saving to database: " + e.getMessage());
-                        return Mono.error(new RuntimeException(
-                                "Failed to save sound history: " + e.getMessage()));
-                    }
-                })
-                .doOnSuccess(response -> {
-                    System.out.println(
-                            "Received audio file of size: " + response.length + " bytes");
-                    System.out.println("First 10 bytes of the response: " + bytesToHex(response));
-                })
-                .doOnError(e -> {
-                    System.err.println("Error calling ElevenLabs API: " + e.getMessage());
-                });
+                                .body(byte[].class));
+                if (audioData == null) {
+                    throw new RuntimeException("No audio returned from ElevenLabs");
+                }
+                saveHistory(user, input, durationSeconds, promptInfluence, audioData);
+                logger.debug("Received audio file of {} bytes", audioData.length);
+                return audioData;
+            } catch (RuntimeException e) {
+                if (attempt >= MAX_RETRIES || e.getMessage() == null || !e.getMessage().contains("busy")) {
+                    logger.error("Error calling ElevenLabs API: {}", e.getMessage());
+                    throw e;
+                }
+                logger.info("Retrying ElevenLabs API call, attempt {}", attempt + 1);
+                sleep(RETRY_BACKOFF.multipliedBy(1L << attempt));
+            }
+        }
+    }
+
+    private static ElevenLabsSoundRequest soundRequest(String input, Double durationSeconds, Double promptInfluence) {
+        return new ElevenLabsSoundRequest(input,
+                durationSeconds != null ? durationSeconds : 5.0,
+                promptInfluence != null ? promptInfluence : 0.3);
+    }
+
+    private void saveHistory(User user, String input, Double durationSeconds, Double promptInfluence,
+            byte[] audioData) {
+        String filePath = "sounds/" + user.getId() + "/" + System.currentTimeMillis() + ".mp3";
+        LocalDateTime createdAt = LocalDateTime.now();
+        historyWriter.submit(HistoryWriter.Entry.withUpload(filePath, audioData,
+                soundHistoryRepository,
+                gcsPath -> SoundHistory.builder()
+                        .user(user)
+                        .prompt(input)
+                        .gcsPath(gcsPath)
+                        .audioUrl(gcsPath)
+                        .durationSeconds(durationSeconds)
+                        .promptInfluence(promptInfluence)
+                        .createdAt(createdAt)
+                        .build()));
     }
 
-    private String bytesToHex(byte[] bytes) {
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < Math.min(bytes.length, 10); i++) {
-            sb.append(String.format("%02X ", bytes[i]));
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting to retry ElevenLabs", e);
         }
-        return sb.toString();
     }
-}
\ No newline at end of file
+}
@@ -1,118 +1,299 @@
 package com.doantotnghiep.aitoolshub.service;
 
+import com.doantotnghiep.aitoolshub.blob.BlobStore;
+import com.doantotnghiep.aitoolshub.cache.SpeechSynthesisCache;
+import com.doantotnghiep.aitoolshub.config.AiClientRegistry;
 import com.doantotnghiep.aitoolshub.entity.TextToSpeechHistory;
 import com.doantotnghiep.aitoolshub.entity.User;
+import com.doantotnghiep.aitoolshub.enums.AiProvider;
 import com.doantotnghiep.aitoolshub.enums.ElevenLabsVoice;
+import com.doantotnghiep.aitoolshub.metrics.ToolMetrics;
+import com.doantotnghiep.aitoolshub.model.ElevenLabsSpeechRequest;
 import com.doantotnghiep.aitoolshub.repository.TextToSpeechHistoryRepository;
-import com.doantotnghiep.aitoolshub.repository.UserRepository;
-import com.google.cloud.storage.BlobId;
-import com.google.cloud.storage.BlobInfo;
-import com.google.cloud.storage.Storage;
-import com.google.cloud.storage.Storage.SignUrlOption;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.http.MediaType;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.ExchangeStrategies;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
-import java.net.URL;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.Map;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 
 @Service
 public class TextToSpeechService {
 
+    private static final Logger logger = LoggerFactory.getLogger(TextToSpeechService.class);
+    private static final String MODEL_ID = "eleven_turbo_v2_5";
+
     private final WebClient webClient;
-    private final GcsService gcsService;
+    private final AiClientRegistry aiClients;
+    private final HistoryWriter historyWriter;
+    private final BlobStore blobStore;
+    private final SpeechSynthesisCache speechCache;
+    private final ToolMetrics toolMetrics;
     private final TextToSpeechHistoryRepository textToSpeechHistoryRepository;
-    private final UserRepository userRepository;
-    private final Storage storage;
+    private final CurrentUserService currentUserService;
     private final String apiKey;
     private final String apiUrl;
-    private final String bucketName;
+    private final long streamUploadTimeoutMillis;
 
-    public TextToSpeechService(WebClient.Builder webClientBuilder, GcsService gcsService,
+    public TextToSpeechService(AiClientRegistry aiClients, HistoryWriter historyWriter,
+            BlobStore blobStore, SpeechSynthesisCache speechCache, ToolMetrics toolMetrics,
             TextToSpeechHistoryRepository textToSpeechHistoryRepository,
-            UserRepository userRepository,
-            Storage storage,
+            CurrentUserService currentUserService,
             @Value("${elevenlabs.api.key}") String apiKey,
             @Value("${elevenlabs.api.url}") String apiUrl,
-            @Value("${gcs.bucket}") String bucketName) {
-        this.webClient = webClientBuilder
-                .exchangeStrategies(ExchangeStrategies.builder()
-                        .codecs(configurer -> configurer.defaultCodecs()
-                                .maxInMemorySize(10 * 1024 * 1024))
-                        .build())
-                .build();
-        this.gcsService = gcsService;
+            @Value("${elevenlabs.stream.upload-timeout-ms:120000}") long streamUploadTimeoutMillis) {
+        this.webClient = aiClients.client(AiProvider.ELEVENLABS);
+        this.aiClients = aiClients;
+        this.historyWriter = historyWriter;
+        this.blobStore = blobStore;
+        this.speechCache = speechCache;
+        this.toolMetrics = toolMetrics;
         this.textToSpeechHistoryRepository = textToSpeechHistoryRepository;
-        this.userRepository = userRepository;
-        this.storage = storage;
+        this.currentUserService = currentUserService;
         this.apiKey = apiKey;
         this.apiUrl = apiUrl;
-        this.bucketName = bucketName;
+        this.streamUploadTimeoutMillis = streamUploadTimeoutMillis;
     }
 
     public Mono<byte[]> callTextToSpeechApi(String input, ElevenLabsVoice voiceEnum, double speed,
             double stability, double similarity) {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found: " + email));
-
         String voiceId = voiceEnum.getVoiceId();
         String url = apiUrl + "/" + voiceId;
 
-        Map<String, Object> payload = Map.of(
-                "text", input,
-                "model_id", "eleven_turbo_v2_5",
-                "voice_settings", Map.of(
-                        "speed", speed,
-                        "stability", stability,
-                        "similarity_boost", similarity
-                )
-        );
-
-        return webClient.post()
+        ElevenLabsSpeechRequest payload = buildPayload(input, speed, stability, similarity);
+
+        // Audio is shared through the cache, so every history row points at the cached object
+        // and a hit never uploads again
+        String cacheKey = speechCache.key(input, voiceId, MODEL_ID, speed, stability, similarity);
+
+        return currentUserService.currentUser()
+                .flatMap(user -> speechCache.getOrSynthesize(cacheKey, () -> webClient.post()
+                                .uri(url)
+                                .header("xi-api-key", apiKey)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .bodyValue(payload)
+                                .retrieve()
+                                .bodyToMono(byte[].class)
+                                .transform(call -> toolMetrics.upstream(AiProvider.ELEVENLABS, MODEL_ID, call)))
+                        .doOnNext(synthesis -> saveHistory(user, input, voiceEnum, cacheKey, synthesis, speed,
+                                stability, similarity))
+                        .map(SpeechSynthesisCache.Synthesis::audio));
+    }
+
+    /**
+     * Blocking counterpart of {@link #callTextToSpeechApi} for the {@code blocking} execution mode.
+     * The ElevenLabs call is a plain blocking call; going through the cache keeps identical concurrent
+     * requests coalesced, and on a virtual thread waiting for it only parks the thread.
+     */
+    public byte[] synthesize(String input, ElevenLabsVoice voiceEnum, double speed, double stability,
+            double similarity) {
+        User user = currentUserService.getCurrentUser();
+
+        String voiceId = voiceEnum.getVoiceId();
+        ElevenLabsSpeechRequest payload = buildPayload(input, speed, stability, similarity);
+        String cacheKey = speechCache.key(input, voiceId, MODEL_ID, speed, stability, similarity);
+
+        SpeechSynthesisCache.Synthesis synthesis = speechCache.getOrSynthesize(cacheKey, () -> Mono.fromSupplier(() ->
+                        toolMetrics.upstream(AiProvider.ELEVENLABS, MODEL_ID, () ->
+                                aiClients.restClient(AiProvider.ELEVENLABS).post()
+                                        .uri(apiUrl + "/" + voiceId)
+                                        .header("xi-api-key", apiKey)
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .body(payload)
+                                        .retrieve()
+                                        .body(byte[].class))))
+                .block();
+        if (synthesis == null || synthesis.audio() == null) {
+            throw new RuntimeException("No audio returned from ElevenLabs");
+        }
+        saveHistory(user, input, voiceEnum, cacheKey, synthesis, speed, stability, similarity);
+        return synthesis.audio();
+    }
+
+    /**
+     * Records the history row once the audio is known to be stored. Audio the cache could not
+     * store is uploaded under the user's own key by the history writer instead.
+     */
+    private void saveHistory(User user, String input, ElevenLabsVoice voiceEnum, String cacheKey,
+            SpeechSynthesisCache.Synthesis synthesis, double speed, double stability, double similarity) {
+        LocalDateTime createdAt = LocalDateTime.now();
+        Function<String, TextToSpeechHistory> row = location -> TextToSpeechHistory.builder()
+                .user(user)
+                .input(input)
+                .voice(voiceEnum.name())
+                .gcsPath(location)
+                .audioUrl(location)
+                .speed(speed)
+                .stability(stability)
+                .similarity(similarity)
+                .createdAt(createdAt)
+                .build();
+        synthesis.stored().thenAccept(stored -> {
+            if (stored) {
+                String location = blobStore.locationOf(speechCache.objectPath(cacheKey));
+                historyWriter.submit(HistoryWriter.Entry.rowOnly(textToSpeechHistoryRepository,
+                        ignored -> row.apply(location)));
+            } else {
+                String filePath = "tts/" + user.getId() + "/" + System.currentTimeMillis() + ".mp3";
+                historyWriter.submit(HistoryWriter.Entry.withUpload(filePath, synthesis.audio(),
+                        textToSpeechHistoryRepository, row));
+            }
+        });
+    }
+
+    /**
+     * Streams the synthesized audio as it is produced by ElevenLabs' streaming endpoint. The same
+     * chunks are written to a resumable upload, and the history row is recorded once the whole
+     * file has been stored, even if the client disconnects early.
+     * <p>
+     * Nothing happens until the client subscribes: only then is the upload leg attached and the
+     * upstream call started, so a response that is never written leaves no upload behind. The
+     * writer itself is opened on the first chunk, and the upload gives up after
+     * {@code elevenlabs.stream.upload-timeout-ms}.
+     */
+    public Flux<DataBuffer> streamTextToSpeechApi(String input, ElevenLabsVoice voiceEnum, double speed,
+            double stability, double similarity) {
+        return currentUserService.currentUser()
+                .flatMapMany(user -> streamAndStore(user, input, voiceEnum, speed, stability, similarity));
+    }
+
+    private Flux<DataBuffer> streamAndStore(User user, String input, ElevenLabsVoice voiceEnum, double speed,
+            double stability, double similarity) {
+        String url = apiUrl + "/" + voiceEnum.getVoiceId() + "/stream";
+        String filePath = "tts/" + user.getId() + "/" + System.currentTimeMillis() + ".mp3";
+
+        // Chunks are copied out of the pooled buffers so the client and the upload can each
+        // consume them at their own pace
+        Flux<byte[]> chunks = webClient.post()
                 .uri(url)
                 .header("xi-api-key", apiKey)
                 .contentType(MediaType.APPLICATION_JSON)
-                .bodyValue(payload)
+                .bodyValue(buildPayload(input, speed, stability, similarity))
                 .retrieve()
-                .bodyToMono(byte[].class)
-                .map(audioData -> {
-                    String filePath =
-                            "tts/" + user.getId() + "/" + System.currentTimeMillis() + ".mp3";
-                    String gcsPath = gcsService.uploadFile(filePath, audioData);
-                    BlobId blobId = BlobId.of(bucketName, filePath);
-                    BlobInfo blobInfo = BlobInfo.newBuilder(blobId)
-                            .build(); // Create BlobInfo from BlobId
-                    URL signedUrl;
-                    try {
-                        signedUrl = storage.signUrl(blobInfo, 7, TimeUnit.DAYS,
-                                SignUrlOption.withV4Signature());
-                    } catch (Exception e) {
-                        throw new RuntimeException(
-                                "Failed to generate signed URL for GCS file: " + e.getMessage(), e);
+                .bodyToFlux(DataBuffer.class)
+                .map(buffer -> {
+                    byte[] bytes = new byte[buffer.readableByteCount()];
+                    buffer.read(bytes);
+                    DataBufferUtils.release(buffer);
+                    return bytes;
+                })
+                .transform(call -> toolMetrics.upstream(AiProvider.ELEVENLABS, MODEL_ID, call))
+                .publish()
+                .autoConnect(2);
+
+        // The upstream call starts once both the client and the upload leg have subscribed. The
+        // client's subscription is the first; subscribing the upload from its doOnSubscribe makes
+        // the second, so neither side misses a chunk
+        return chunks.<DataBuffer>map(DefaultDataBufferFactory.sharedInstance::wrap)
+                .doOnSubscribe(subscription ->
+                        upload(chunks, user, input, voiceEnum, filePath, speed, stability, similarity));
+    }
+
+    private void upload(Flux<byte[]> chunks, User user, String input, ElevenLabsVoice voiceEnum, String filePath,
+            double speed, double stability, double similarity) {
+        long uploadStart = System.nanoTime();
+        AtomicLong uploadedBytes = new AtomicLong();
+        AtomicReference<OutputStream> writer = new AtomicReference<>();
+        chunks.publishOn(Schedulers.boundedElastic())
+                .doOnNext(chunk -> {
+                    write(writerFor(writer, filePath), chunk);
+                    uploadedBytes.addAndGet(chunk.length);
+                })
+                .then(Mono.fromCallable(() -> {
+                    OutputStream stream = writer.get();
+                    if (stream != null) {
+                        close(stream);
+                    }
+                    return stream != null;
+                }))
+                .timeout(Duration.ofMillis(streamUploadTimeoutMillis))
+                .onErrorResume(e -> Mono.fromCallable(() -> {
+                    logger.error("Streaming TTS upload failed for {}: {}", filePath, e.getMessage());
+                    abort(writer.get(), filePath);
+                    return false;
+                }).subscribeOn(Schedulers.boundedElastic()))
+                .subscribe(stored -> {
+                    if (!stored) {
+                        return;
                     }
-                    String audioUrl = signedUrl.toString();
-
-                    TextToSpeechHistory history = TextToSpeechHistory.builder()
-                            .user(user)
-                            .input(input)
-                            .voice(voiceEnum.name())
-                            .gcsPath(gcsPath)
-                            .audioUrl(audioUrl)
-                            .speed(speed)
-                            .stability(stability)
-                            .similarity(similarity)
-                            .createdAt(LocalDateTime.now())
-                            .build();
-                    textToSpeechHistoryRepository.save(history);
-
-                    return audioData;
+                    toolMetrics.recordUpload(filePath, System.nanoTime() - uploadStart, uploadedBytes.get());
+                    LocalDateTime createdAt = LocalDateTime.now();
+                    historyWriter.submit(HistoryWriter.Entry.rowOnly(textToSpeechHistoryRepository,
+                            ignored -> TextToSpeechHistory.builder()
+                                    .user(user)
+                                    .input(input)
+                                    .voice(voiceEnum.name())
+                                    .gcsPath(blobStore.locationOf(filePath))
+                                    .audioUrl(blobStore.locationOf(filePath))
+                                    .speed(speed)
+                                    .stability(stability)
+                                    .similarity(similarity)
+                                    .createdAt(createdAt)
+                                    .build()));
                 });
     }
-}
\ No newline at end of file
+
+    private OutputStream writerFor(AtomicReference<OutputStream> writer, String filePath) {
+        OutputStream stream = writer.get();
+        if (stream == null) {
+            try {
+                stream = blobStore.openOutputStream(filePath);
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to open audio upload: " + e.getMessage(), e);
+            }
+            writer.set(stream);
+        }
+        return stream;
+    }
+
+    private void abort(OutputStream stream, String filePath) {
+        if (stream == null) {
+            return;
+        }
+        try {
+            stream.close();
+        } catch (IOException | RuntimeException e) {
+            logger.debug("Closing aborted upload {} failed: {}", filePath, e.getMessage());
+        }
+        try {
+            blobStore.delete(filePath);
+        } catch (RuntimeException e) {
+            logger.warn("Failed to delete partial upload {}: {}", filePath, e.getMessage());
+        }
+    }
+
+    private ElevenLabsSpeechRequest buildPayload(String input, double speed, double stability, double similarity) {
+        return new ElevenLabsSpeechRequest(input, MODEL_ID,
+                new ElevenLabsSpeechRequest.VoiceSettings(speed, stability, similarity));
+    }
+
+    private void write(OutputStream stream, byte[] chunk) {
+        try {
+            stream.write(chunk);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write audio chunk: " + e.getMessage(), e);
+        }
+    }
+
+    private void close(OutputStream stream) {
+        try {
+            stream.close();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to finish audio upload: " + e.getMessage(), e);
+        }
+    }
+}
@@ -23,7 +23,8 @@ CREATE TABLE IF NOT EXISTS text_to_speech_history (
     stability DOUBLE NOT NULL,
     similarity DOUBLE NOT NULL,
     created_at DATETIME NOT NULL,
-    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    INDEX idx_tts_history_user_created_id (user_id, created_at, id)
     );
 
 CREATE TABLE IF NOT EXISTS image_history (
@@ -33,8 +34,11 @@ CREATE TABLE IF NOT EXISTS image_history (
     gcs_path VARCHAR(255) NOT NULL,
     image_url VARCHAR(255) NOT NULL,
     model_used VARCHAR(255) NOT NULL,
+    thumbnail_path VARCHAR(255),
+    preview_path VARCHAR(255),
     created_at DATETIME NOT NULL,
-    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    INDEX idx_image_history_user_created_id (user_id, created_at, id)
     );
 
 CREATE TABLE IF NOT EXISTS chatbot_history (
@@ -45,7 +49,8 @@ CREATE TABLE IF NOT EXISTS chatbot_history (
                                                gcs_path VARCHAR(255),
     conversation_id VARCHAR(255),
     user_id BIGINT NOT NULL,
-    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    INDEX idx_chatbot_history_user_time_id (user_id, timestamp, id)
     );
 
 CREATE TABLE IF NOT EXISTS sound_history (
@@ -59,5 +64,6 @@ CREATE TABLE IF NOT EXISTS sound_history (
     created_at DATETIME NOT NULL,
     FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
     INDEX idx_sound_history_user_id (user_id),
-    INDEX idx_sound_history_created_at (created_at)
+    INDEX idx_sound_history_created_at (created_at),
+    INDEX idx_sound_history_user_created_id (user_id, created_at, id)
     );
\ No newline at end of file
@@ -0,0 +1,131 @@
+package com.doantotnghiep.aitoolshub.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveConcurrencyLimitTest {
+
+    private static final long TARGET_NANOS = 1_000_000_000L;
+    private static final long FAST_NANOS = 1_000_000L;
+
+    @Test
+    void admitsUpToTheLimit() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 4, 0.5, TARGET_NANOS);
+
+        assertTrue(limit.tryAcquire());
+        assertTrue(limit.tryAcquire());
+        assertFalse(limit.tryAcquire());
+        assertEquals(2, limit.getInFlight());
+
+        limit.release();
+
+        assertEquals(1, limit.getInFlight());
+        assertTrue(limit.tryAcquire());
+    }
+
+    @Test
+    void initialLimitIsClamped() {
+        assertEquals(4, new AdaptiveConcurrencyLimit(10, 1, 4, 0.5, TARGET_NANOS).getLimit());
+        assertEquals(2, new AdaptiveConcurrencyLimit(0, 2, 4, 0.5, TARGET_NANOS).getLimit());
+    }
+
+    @Test
+    void fastCallsGrowTheLimitWhileItIsUsed() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 3, 0.5, TARGET_NANOS);
+        limit.tryAcquire();
+
+        limit.onSample(FAST_NANOS, false);
+        assertEquals(3, limit.getLimit());
+
+        limit.onSample(FAST_NANOS, false);
+        assertEquals(3, limit.getLimit());
+    }
+
+    @Test
+    void fastCallsLeaveAnIdleLimitAlone() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(4, 1, 8, 0.5, TARGET_NANOS);
+        limit.tryAcquire();
+
+        limit.onSample(FAST_NANOS, false);
+
+        assertEquals(4, limit.getLimit());
+    }
+
+    @Test
+    void overloadAndSlowCallsBackOffToTheMinimum() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(4, 1, 8, 0.5, TARGET_NANOS);
+
+        limit.onSample(FAST_NANOS, true);
+        assertEquals(2, limit.getLimit());
+
+        limit.onSample(TARGET_NANOS + 1, false);
+        assertEquals(1, limit.getLimit());
+
+        limit.onSample(FAST_NANOS, true);
+        assertEquals(1, limit.getLimit());
+    }
+
+    @Test
+    void samplesDoNotReleasePermits() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(1, 1, 4, 0.5, TARGET_NANOS);
+        limit.tryAcquire();
+
+        limit.onSample(FAST_NANOS, true);
+
+        assertEquals(1, limit.getInFlight());
+        assertFalse(limit.tryAcquire());
+    }
+
+    @Test
+    void acquireGivesUpAfterTheTimeout() throws InterruptedException {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(1, 1, 4, 0.5, TARGET_NANOS);
+        limit.tryAcquire();
+
+        assertFalse(limit.acquire(20, TimeUnit.MILLISECONDS));
+        assertEquals(1, limit.getInFlight());
+    }
+
+    @Test
+    void acquireWakesUpWhenAPermitIsReleased() throws Exception {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(1, 1, 4, 0.5, TARGET_NANOS);
+        limit.tryAcquire();
+
+        CompletableFuture<Boolean> waiter = CompletableFuture.supplyAsync(() -> {
+            try {
+                return limit.acquire(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(50);
+        limit.release();
+
+        assertTrue(waiter.get(5, TimeUnit.SECONDS));
+        assertEquals(1, limit.getInFlight());
+    }
+
+    @Test
+    void acquireWakesUpWhenTheLimitGrows() throws Exception {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(1, 1, 4, 0.5, TARGET_NANOS);
+        limit.tryAcquire();
+
+        CompletableFuture<Boolean> waiter = CompletableFuture.supplyAsync(() -> {
+            try {
+                return limit.acquire(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(50);
+        limit.onSample(FAST_NANOS, false);
+
+        assertTrue(waiter.get(5, TimeUnit.SECONDS));
+        assertEquals(2, limit.getInFlight());
+    }
+}
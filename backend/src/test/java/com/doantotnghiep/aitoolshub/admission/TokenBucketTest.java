@@ -0,0 +1,50 @@
+package com.doantotnghiep.aitoolshub.admission;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketTest {
+
+    @Test
+    void admitsUpToCapacityThenReportsTheWait() {
+        TokenBucket bucket = new TokenBucket(2, 1);
+
+        assertEquals(0, bucket.tryConsume());
+        assertEquals(0, bucket.tryConsume());
+
+        long waitNanos = bucket.tryConsume();
+        assertTrue(waitNanos > 0, "wait should be positive, was " + waitNanos);
+        assertTrue(waitNanos <= 1_000_000_000L, "one token refills within a second, was " + waitNanos);
+    }
+
+    @Test
+    void refillsOverTime() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(1, 1000);
+        assertEquals(0, bucket.tryConsume());
+
+        Thread.sleep(10);
+
+        assertEquals(0, bucket.tryConsume());
+    }
+
+    @Test
+    void neverHoldsMoreThanCapacity() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(1, 1000);
+        Thread.sleep(10);
+
+        assertEquals(0, bucket.tryConsume());
+        assertTrue(bucket.tryConsume() > 0);
+    }
+
+    @Test
+    void tracksLastUse() {
+        TokenBucket bucket = new TokenBucket(1, 1);
+        long before = System.nanoTime();
+
+        bucket.tryConsume();
+
+        assertTrue(bucket.getLastUsedNanos() >= before);
+    }
+}
@@ -0,0 +1,71 @@
+package com.doantotnghiep.aitoolshub.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class LruByteCacheTest {
+
+    private final LruByteCache cache = new LruByteCache(10);
+
+    @Test
+    void returnsStoredValues() {
+        cache.put("a", new byte[]{1, 2, 3});
+
+        assertArrayEquals(new byte[]{1, 2, 3}, cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals(3, cache.sizeInBytes());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedPastTheByteBudget() {
+        cache.put("a", new byte[4]);
+        cache.put("b", new byte[4]);
+        cache.get("a");
+
+        cache.put("c", new byte[4]);
+
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("c"));
+        assertEquals(8, cache.sizeInBytes());
+    }
+
+    @Test
+    void evictsAsManyEntriesAsNeeded() {
+        cache.put("a", new byte[3]);
+        cache.put("b", new byte[3]);
+        cache.put("c", new byte[3]);
+
+        cache.put("d", new byte[8]);
+
+        assertNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertNull(cache.get("c"));
+        assertEquals(8, cache.sizeInBytes());
+    }
+
+    @Test
+    void replacingAnEntryAccountsForTheOldValue() {
+        cache.put("a", new byte[6]);
+
+        cache.put("a", new byte[2]);
+
+        assertEquals(2, cache.get("a").length);
+        assertEquals(2, cache.sizeInBytes());
+    }
+
+    @Test
+    void ignoresValuesLargerThanTheBudget() {
+        cache.put("a", new byte[4]);
+
+        cache.put("big", new byte[11]);
+
+        assertNull(cache.get("big"));
+        assertNotNull(cache.get("a"));
+        assertEquals(4, cache.sizeInBytes());
+    }
+}
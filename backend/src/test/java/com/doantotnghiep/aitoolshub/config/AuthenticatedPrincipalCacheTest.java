@@ -0,0 +1,111 @@
+package com.doantotnghiep.aitoolshub.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AuthenticatedPrincipalCacheTest {
+
+    private static final long HOUR = 3_600_000;
+
+    @Test
+    void returnsTheCachedPrincipal() {
+        AuthenticatedPrincipalCache cache = new AuthenticatedPrincipalCache(10, HOUR);
+        UserDetails alice = principal("alice@example.com");
+
+        cache.put("token", alice, expiresIn(HOUR));
+
+        assertSame(alice, cache.get("token"));
+        assertNull(cache.get("other-token"));
+    }
+
+    @Test
+    void anEntryNeverOutlivesItsToken() throws InterruptedException {
+        AuthenticatedPrincipalCache cache = new AuthenticatedPrincipalCache(10, HOUR);
+
+        cache.put("token", principal("alice@example.com"), expiresIn(30));
+        Thread.sleep(60);
+
+        assertNull(cache.get("token"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void anEntryExpiresAfterTheTtlEvenWhenTheTokenLivesLonger() throws InterruptedException {
+        AuthenticatedPrincipalCache cache = new AuthenticatedPrincipalCache(10, 30);
+
+        cache.put("token", principal("alice@example.com"), expiresIn(HOUR));
+        Thread.sleep(60);
+
+        assertNull(cache.get("token"));
+    }
+
+    @Test
+    void doesNotCacheAnExpiredToken() {
+        AuthenticatedPrincipalCache cache = new AuthenticatedPrincipalCache(10, HOUR);
+
+        cache.put("token", principal("alice@example.com"), expiresIn(-1_000));
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void invalidateDropsEveryTokenOfTheUser() {
+        AuthenticatedPrincipalCache cache = new AuthenticatedPrincipalCache(10, HOUR);
+        UserDetails bob = principal("bob@example.com");
+        cache.put("alice-laptop", principal("alice@example.com"), expiresIn(HOUR));
+        cache.put("alice-phone", principal("alice@example.com"), expiresIn(HOUR));
+        cache.put("bob-laptop", bob, expiresIn(HOUR));
+
+        cache.invalidate("alice@example.com");
+
+        assertNull(cache.get("alice-laptop"));
+        assertNull(cache.get("alice-phone"));
+        assertSame(bob, cache.get("bob-laptop"));
+    }
+
+    @Test
+    void staysWithinItsMaximumSize() {
+        AuthenticatedPrincipalCache cache = new AuthenticatedPrincipalCache(10, HOUR);
+        UserDetails alice = principal("alice@example.com");
+
+        for (int i = 0; i < 100; i++) {
+            cache.put("token-" + i, alice, expiresIn(HOUR));
+            assertTrue(cache.size() <= 10, "size " + cache.size());
+        }
+        assertSame(alice, cache.get("token-99"));
+    }
+
+    @Test
+    void evictsExpiredEntriesBeforeLiveOnes() throws InterruptedException {
+        AuthenticatedPrincipalCache cache = new AuthenticatedPrincipalCache(10, HOUR);
+        UserDetails alice = principal("alice@example.com");
+        for (int i = 0; i < 5; i++) {
+            cache.put("short-" + i, alice, expiresIn(30));
+            cache.put("long-" + i, alice, expiresIn(HOUR));
+        }
+        Thread.sleep(60);
+
+        cache.put("new", alice, expiresIn(HOUR));
+
+        assertEquals(6, cache.size());
+        for (int i = 0; i < 5; i++) {
+            assertSame(alice, cache.get("long-" + i));
+        }
+    }
+
+    private static UserDetails principal(String email) {
+        return User.withUsername(email).password("secret").roles("USER").build();
+    }
+
+    private static Date expiresIn(long millis) {
+        return new Date(System.currentTimeMillis() + millis);
+    }
+}
@@ -0,0 +1,81 @@
+package com.doantotnghiep.aitoolshub.entity;
+
+import com.doantotnghiep.aitoolshub.config.AuthenticatedPrincipalCache;
+import com.doantotnghiep.aitoolshub.enums.Role;
+import jakarta.persistence.EntityListeners;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.lang.reflect.Method;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UserChangeListenerTest {
+
+    private final AuthenticatedPrincipalCache cache = new AuthenticatedPrincipalCache(10, 3_600_000);
+    private final UserChangeListener listener = new UserChangeListener(cache);
+
+    @Test
+    void aPasswordResetDropsTheUsersPrincipals() {
+        User alice = user("alice@example.com");
+        cache.put("alice-token", principal(alice), tomorrow());
+        cache.put("bob-token", principal(user("bob@example.com")), tomorrow());
+
+        alice.setPassword("new-hash");
+        alice.setResetToken(null);
+        listener.onUserChanged(alice);
+
+        assertNull(cache.get("alice-token"));
+        assertNotNull(cache.get("bob-token"));
+    }
+
+    @Test
+    void aRoleChangeDropsTheUsersPrincipals() {
+        User alice = user("alice@example.com");
+        cache.put("alice-token", principal(alice), tomorrow());
+
+        alice.setRole(Role.ADMIN);
+        listener.onUserChanged(alice);
+
+        assertNull(cache.get("alice-token"));
+    }
+
+    // Saving or deleting a User only reaches the listener through these JPA annotations
+    @Test
+    void runsAfterEveryUpdateAndDeleteOfAUser() throws NoSuchMethodException {
+        EntityListeners listeners = User.class.getAnnotation(EntityListeners.class);
+        Method callback = UserChangeListener.class.getMethod("onUserChanged", User.class);
+
+        assertNotNull(listeners);
+        assertEquals(List.of(UserChangeListener.class), List.of(listeners.value()));
+        assertTrue(callback.isAnnotationPresent(PostUpdate.class));
+        assertTrue(callback.isAnnotationPresent(PostRemove.class));
+    }
+
+    private static User user(String email) {
+        return User.builder()
+                .username(email.substring(0, email.indexOf('@')))
+                .email(email)
+                .password("hash")
+                .role(Role.USER)
+                .build();
+    }
+
+    // Built the way CustomUserDetailsService builds it, keyed by email
+    private static UserDetails principal(User user) {
+        return new AuthenticatedUser(user.getId(), user.getEmail(), user.getPassword(),
+                List.of(new SimpleGrantedAuthority("ROLE_" + user.getRole().name())));
+    }
+
+    private static Date tomorrow() {
+        return new Date(System.currentTimeMillis() + 86_400_000);
+    }
+}
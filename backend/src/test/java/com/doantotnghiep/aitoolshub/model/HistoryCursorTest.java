@@ -0,0 +1,64 @@
+package com.doantotnghiep.aitoolshub.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class HistoryCursorTest {
+
+    @Test
+    void roundTrips() {
+        HistoryCursor cursor = new HistoryCursor(LocalDateTime.of(2025, 3, 14, 9, 26, 53, 589_000_000), 42);
+
+        assertEquals(cursor, HistoryCursor.decode(cursor.encode()));
+    }
+
+    @Test
+    void firstRoundTrips() {
+        assertEquals(HistoryCursor.FIRST, HistoryCursor.decode(HistoryCursor.FIRST.encode()));
+    }
+
+    @Test
+    void encodesUrlSafely() {
+        String encoded = new HistoryCursor(LocalDateTime.of(2025, 1, 1, 0, 0), 7).encode();
+
+        assertFalse(encoded.contains("+") || encoded.contains("/") || encoded.contains("="), encoded);
+    }
+
+    @Test
+    void missingCursorIsTheFirstPage() {
+        assertEquals(HistoryCursor.FIRST, HistoryCursor.decode(null));
+        assertEquals(HistoryCursor.FIRST, HistoryCursor.decode(" "));
+    }
+
+    @Test
+    void pointsAfterAnItem() {
+        LocalDateTime createdAt = LocalDateTime.of(2025, 5, 1, 12, 0);
+        SoundHistoryItem item = new SoundHistoryItem(9L, "rain", null, 5.0, 0.3, createdAt);
+
+        assertEquals(new HistoryCursor(createdAt, 9), HistoryCursor.after(item));
+    }
+
+    @Test
+    void rejectsMalformedCursors() {
+        assertInvalid("not a cursor!");
+        assertInvalid(encode("2025-01-01T00:00"));
+        assertInvalid(encode("yesterday|1"));
+        assertInvalid(encode("2025-01-01T00:00|one"));
+    }
+
+    private static void assertInvalid(String cursor) {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> HistoryCursor.decode(cursor));
+        assertEquals("Invalid cursor", e.getMessage());
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
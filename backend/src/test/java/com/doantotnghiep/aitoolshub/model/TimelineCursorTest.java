@@ -0,0 +1,69 @@
+package com.doantotnghiep.aitoolshub.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TimelineCursorTest {
+
+    private static final HistoryCursor CHAT = new HistoryCursor(LocalDateTime.of(2025, 2, 1, 8, 30), 11);
+    private static final HistoryCursor IMAGE = new HistoryCursor(LocalDateTime.of(2025, 2, 3, 17, 5, 12), 4);
+    private static final HistoryCursor SOUND = new HistoryCursor(LocalDateTime.of(2024, 12, 24, 23, 59), 2);
+
+    @Test
+    void roundTripsWithExhaustedSources() {
+        TimelineCursor cursor = new TimelineCursor(Arrays.asList(CHAT, IMAGE, null, SOUND));
+
+        TimelineCursor decoded = TimelineCursor.decode(cursor.encode());
+
+        assertEquals(cursor, decoded);
+        assertNull(decoded.position(TimelineItem.Source.TTS));
+        assertEquals(IMAGE, decoded.position(TimelineItem.Source.IMAGE));
+    }
+
+    @Test
+    void exhaustedSourceIsAnEmptyPart() {
+        TimelineCursor cursor = new TimelineCursor(Arrays.asList(null, null, null, SOUND));
+
+        assertEquals("...", cursor.encode().substring(0, 3));
+    }
+
+    @Test
+    void missingCursorIsTheFirstPage() {
+        assertEquals(TimelineCursor.FIRST, TimelineCursor.decode(null));
+        assertEquals(TimelineCursor.FIRST, TimelineCursor.decode(""));
+        assertEquals(TimelineCursor.FIRST, TimelineCursor.decode(TimelineCursor.FIRST.encode()));
+    }
+
+    @Test
+    void rejectsWrongNumberOfParts() {
+        String three = String.join(".", CHAT.encode(), IMAGE.encode(), SOUND.encode());
+        String five = String.join(".", CHAT.encode(), IMAGE.encode(), "", SOUND.encode(), "");
+
+        assertThrows(IllegalArgumentException.class, () -> TimelineCursor.decode(three));
+        assertThrows(IllegalArgumentException.class, () -> TimelineCursor.decode(five));
+        assertThrows(IllegalArgumentException.class, () -> TimelineCursor.decode(CHAT.encode()));
+    }
+
+    @Test
+    void rejectsMalformedParts() {
+        String cursor = String.join(".", CHAT.encode(), "garbage!", "", SOUND.encode());
+
+        assertThrows(IllegalArgumentException.class, () -> TimelineCursor.decode(cursor));
+    }
+
+    @Test
+    void positionsFollowSourceOrder() {
+        TimelineCursor cursor = new TimelineCursor(List.of(CHAT, IMAGE, SOUND, HistoryCursor.FIRST));
+
+        assertEquals(CHAT, cursor.position(TimelineItem.Source.CHATBOT));
+        assertEquals(SOUND, cursor.position(TimelineItem.Source.TTS));
+        assertEquals(HistoryCursor.FIRST, cursor.position(TimelineItem.Source.SOUND));
+    }
+}
@@ -0,0 +1,63 @@
+package com.doantotnghiep.aitoolshub.service;
+
+import com.doantotnghiep.aitoolshub.model.ChatbotRequest;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ChatbotServiceTest {
+
+    @Test
+    void pairsAnAlternatingTranscript() {
+        List<ConversationStore.Turn> turns = ChatbotService.clientTurns(transcript(
+                user("hi"), model("hello"),
+                user("how are you?"), model("fine"),
+                user("new question")));
+
+        assertEquals(List.of(new ConversationStore.Turn("hi", "hello"),
+                new ConversationStore.Turn("how are you?", "fine")), turns);
+    }
+
+    @Test
+    void pairsByRoleWhenTheTranscriptDoesNotAlternate() {
+        List<ConversationStore.Turn> turns = ChatbotService.clientTurns(transcript(
+                model("Hi, how can I help?"),
+                user("first try"),
+                user("second try"), model("answer to the second"),
+                user("unanswered"),
+                user("third"), model("answer to the third"),
+                model("a stray model message"),
+                user("new question")));
+
+        assertEquals(List.of(new ConversationStore.Turn("second try", "answer to the second"),
+                new ConversationStore.Turn("third", "answer to the third")), turns);
+    }
+
+    @Test
+    void leavesOutTheNewMessage() {
+        List<ConversationStore.Turn> turns = ChatbotService.clientTurns(transcript(
+                user("hi"), model("hello"), user("pending")));
+
+        assertEquals(List.of(new ConversationStore.Turn("hi", "hello")), turns);
+    }
+
+    @Test
+    void ignoresShortOrMissingTranscripts() {
+        assertEquals(List.of(), ChatbotService.clientTurns(new ChatbotRequest("c1", "hi", null)));
+        assertEquals(List.of(), ChatbotService.clientTurns(transcript(user("hi"), model("hello"))));
+    }
+
+    private static ChatbotRequest transcript(ChatbotRequest.Message... messages) {
+        return new ChatbotRequest("c1", null, List.of(messages));
+    }
+
+    private static ChatbotRequest.Message user(String text) {
+        return new ChatbotRequest.Message("user", text);
+    }
+
+    private static ChatbotRequest.Message model(String text) {
+        return new ChatbotRequest.Message("model", text);
+    }
+}
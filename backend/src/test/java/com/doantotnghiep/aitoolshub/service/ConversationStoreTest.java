@@ -0,0 +1,212 @@
+package com.doantotnghiep.aitoolshub.service;
+
+import com.doantotnghiep.aitoolshub.model.ChatbotHistoryItem;
+import com.doantotnghiep.aitoolshub.repository.ChatbotHistoryRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * The conversation cache against a {@code chatbot_history} table that other instances can write to.
+ */
+class ConversationStoreTest {
+
+    private static final Long USER = 1L;
+
+    private final ChatbotHistoryRepository repository = Mockito.mock(ChatbotHistoryRepository.class);
+    private final Map<String, List<ChatbotHistoryItem>> table = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> reads = new ConcurrentHashMap<>();
+
+    ConversationStoreTest() {
+        when(repository.findConversation(any(), any())).thenAnswer(invocation -> {
+            String conversationId = invocation.getArgument(1);
+            reads.computeIfAbsent(conversationId, id -> new AtomicInteger()).incrementAndGet();
+            return List.copyOf(rows(conversationId));
+        });
+        when(repository.countConversation(any(), any()))
+                .thenAnswer(invocation -> (long) rows(invocation.getArgument(1)).size());
+    }
+
+    @Test
+    void sendsTheWholeTranscriptWhenItFits() {
+        ConversationStore store = newStore(1_000, 300, 100);
+        stored("c1", "hi", "hello");
+        stored("c1", "how are you?", "fine");
+
+        ConversationStore.Context context = store.buildContext(USER, "c1", "and you?", null);
+
+        assertEquals(List.of(turn("hi", "hello"), turn("how are you?", "fine")), context.turns());
+        assertNull(context.summary());
+    }
+
+    @Test
+    void keepsTheNewestTurnsThatFitTheBudget() {
+        // Each turn costs 20 tokens and the new message 1, so a budget of 45 keeps two turns
+        ConversationStore store = newStore(45, 300, 100);
+        for (int i = 1; i <= 4; i++) {
+            stored("c1", question(i), "a".repeat(40));
+        }
+
+        ConversationStore.Context context = store.buildContext(USER, "c1", "next", null);
+
+        assertEquals(List.of(turn(question(3), "a".repeat(40)), turn(question(4), "a".repeat(40))),
+                context.turns());
+        assertEquals("Earlier in this conversation the user asked about:\n- " + question(1) + "\n- " + question(2),
+                context.summary());
+    }
+
+    @Test
+    void summaryDropsTheOldestQuestionsFirst() {
+        // A 20-token summary holds the header and two ten-character questions
+        ConversationStore store = newStore(15, 20, 100);
+        for (int i = 1; i <= 4; i++) {
+            stored("c1", "question " + i, "a".repeat(40));
+        }
+
+        ConversationStore.Context context = store.buildContext(USER, "c1", "next", null);
+
+        assertEquals(List.of(turn("question 4", "a".repeat(40))), context.turns());
+        assertEquals("Earlier in this conversation the user asked about:\n- question 2\n- question 3",
+                context.summary());
+    }
+
+    @Test
+    void seedsAnUnknownConversationFromTheClient() {
+        ConversationStore store = newStore(1_000, 300, 100);
+
+        ConversationStore.Context context = store.buildContext(USER, "c1", "next",
+                List.of(turn("hi", "hello")));
+
+        assertEquals(List.of(turn("hi", "hello")), context.turns());
+    }
+
+    @Test
+    void prefersStoredTurnsOverTheClientsCopy() {
+        ConversationStore store = newStore(1_000, 300, 100);
+        stored("c1", "hi", "hello");
+
+        ConversationStore.Context context = store.buildContext(USER, "c1", "next",
+                List.of(turn("edited", "by the client")));
+
+        assertEquals(List.of(turn("hi", "hello")), context.turns());
+    }
+
+    @Test
+    void appendedTurnsAreServedFromTheCache() {
+        ConversationStore store = newStore(1_000, 300, 100);
+        stored("c1", "hi", "hello");
+        store.buildContext(USER, "c1", "next", null);
+
+        store.append(USER, "c1", "next", "answer");
+        ConversationStore.Context context = store.buildContext(USER, "c1", "again", null);
+
+        assertEquals(List.of(turn("hi", "hello"), turn("next", "answer")), context.turns());
+        assertEquals(1, reads.get("c1").get());
+    }
+
+    @Test
+    void rereadsWhenTheTableHasMoreTurns() {
+        ConversationStore store = newStore(1_000, 300, 100);
+        stored("c1", "hi", "hello");
+        store.buildContext(USER, "c1", "next", null);
+
+        // Written by another instance
+        stored("c1", "elsewhere", "answered elsewhere");
+        ConversationStore.Context context = store.buildContext(USER, "c1", "again", null);
+
+        assertEquals(List.of(turn("hi", "hello"), turn("elsewhere", "answered elsewhere")), context.turns());
+        assertEquals(2, reads.get("c1").get());
+    }
+
+    @Test
+    void keepsLocalTurnsThatAreNotStoredYetAcrossARereading() {
+        ConversationStore store = newStore(1_000, 300, 100);
+        stored("c1", "hi", "hello");
+        store.buildContext(USER, "c1", "next", null);
+        store.append(USER, "c1", "queued", "still in the writer");
+
+        stored("c1", "elsewhere 1", "answer 1");
+        stored("c1", "elsewhere 2", "answer 2");
+        ConversationStore.Context context = store.buildContext(USER, "c1", "again", null);
+
+        assertEquals(List.of(turn("hi", "hello"), turn("elsewhere 1", "answer 1"), turn("elsewhere 2", "answer 2"),
+                turn("queued", "still in the writer")), context.turns());
+    }
+
+    @Test
+    void doesNotRepeatLocalTurnsThatReachedTheTable() {
+        ConversationStore store = newStore(1_000, 300, 100);
+        stored("c1", "hi", "hello");
+        store.buildContext(USER, "c1", "next", null);
+        store.append(USER, "c1", "next", "answer");
+
+        stored("c1", "next", "answer");
+        stored("c1", "elsewhere", "answered elsewhere");
+        ConversationStore.Context context = store.buildContext(USER, "c1", "again", null);
+
+        assertEquals(List.of(turn("hi", "hello"), turn("next", "answer"), turn("elsewhere", "answered elsewhere")),
+                context.turns());
+    }
+
+    @Test
+    void anEvictedConversationIsReadAgain() {
+        ConversationStore store = newStore(1_000, 300, 100);
+        stored("c1", "hi", "hello");
+        store.buildContext(USER, "c1", "next", null);
+
+        store.evict(USER, "c1");
+        store.append(USER, "c1", "lost", "not cached");
+        ConversationStore.Context context = store.buildContext(USER, "c1", "again", null);
+
+        assertEquals(List.of(turn("hi", "hello")), context.turns());
+        assertEquals(2, reads.get("c1").get());
+    }
+
+    @Test
+    void dropsTheLeastRecentlyUsedConversationWhenFull() throws InterruptedException {
+        ConversationStore store = newStore(1_000, 300, 2);
+        store.buildContext(USER, "c1", "next", null);
+        Thread.sleep(5);
+        store.buildContext(USER, "c2", "next", null);
+        Thread.sleep(5);
+        store.buildContext(USER, "c3", "next", null);
+
+        store.buildContext(USER, "c3", "again", null);
+        assertEquals(1, reads.get("c3").get());
+        store.buildContext(USER, "c1", "again", null);
+        assertEquals(2, reads.get("c1").get());
+    }
+
+    private ConversationStore newStore(int maxTokens, int summaryMaxTokens, int maxConversations) {
+        return new ConversationStore(repository, maxTokens, summaryMaxTokens, maxConversations, 3_600_000);
+    }
+
+    private List<ChatbotHistoryItem> rows(String conversationId) {
+        return table.computeIfAbsent(conversationId, id -> new ArrayList<>());
+    }
+
+    private void stored(String conversationId, String input, String response) {
+        List<ChatbotHistoryItem> rows = rows(conversationId);
+        rows.add(new ChatbotHistoryItem((long) rows.size() + 1, conversationId, input, response,
+                LocalDateTime.now()));
+    }
+
+    private static String question(int number) {
+        return ("question " + number + " ").repeat(4).substring(0, 40);
+    }
+
+    private static ConversationStore.Turn turn(String input, String response) {
+        return new ConversationStore.Turn(input, response);
+    }
+}
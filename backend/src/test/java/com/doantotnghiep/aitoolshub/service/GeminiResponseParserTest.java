@@ -0,0 +1,106 @@
+package com.doantotnghiep.aitoolshub.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class GeminiResponseParserTest {
+
+    @Test
+    void readsTheFirstCandidatesText() throws IOException {
+        String json = """
+                {
+                  "candidates": [{
+                    "content": {"parts": [{"text": "Hello there"}], "role": "model"},
+                    "finishReason": "STOP",
+                    "safetyRatings": [{"category": "HARM_CATEGORY_HARASSMENT", "probability": "NEGLIGIBLE"}]
+                  }, {
+                    "content": {"parts": [{"text": "Second candidate"}], "role": "model"}
+                  }],
+                  "usageMetadata": {"promptTokenCount": 4, "candidatesTokenCount": 2}
+                }
+                """;
+
+        assertEquals("Hello there", GeminiResponseParser.candidateText(json));
+        assertEquals("Hello there", GeminiResponseParser.candidateText(json.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void joinsMultipleParts() throws IOException {
+        String json = """
+                {"candidates": [{"content": {"role": "model", "parts": [
+                  {"text": "First, "},
+                  {"inlineData": {"mimeType": "image/png", "data": "AAAA"}},
+                  {"text": "then "},
+                  {"thought": true, "text": "finally."}
+                ]}}]}
+                """;
+
+        assertEquals("First, then finally.", GeminiResponseParser.candidateText(json));
+    }
+
+    @Test
+    void skipsFieldsBeforeTheCandidates() throws IOException {
+        String json = """
+                {"modelVersion": "gemini-2.5-flash",
+                 "promptFeedback": {"safetyRatings": [{"category": "x", "probability": "LOW"}]},
+                 "candidates": [{"index": 0, "citationMetadata": {"citations": []},
+                                 "content": {"parts": [{"text": "ok"}]}}]}
+                """;
+
+        assertEquals("ok", GeminiResponseParser.candidateText(json));
+    }
+
+    @Test
+    void returnsNullWithoutCandidates() throws IOException {
+        assertNull(GeminiResponseParser.candidateText("""
+                {"promptFeedback": {"blockReason": "SAFETY"}, "usageMetadata": {"promptTokenCount": 9}}
+                """));
+        assertNull(GeminiResponseParser.candidateText("{\"candidates\": []}"));
+        assertNull(GeminiResponseParser.candidateText("{}"));
+        assertNull(GeminiResponseParser.candidateText("[]"));
+    }
+
+    @Test
+    void returnsNullForACandidateWithoutText() throws IOException {
+        assertNull(GeminiResponseParser.candidateText("""
+                {"candidates": [{"finishReason": "SAFETY", "index": 0}]}
+                """));
+        assertNull(GeminiResponseParser.candidateText("""
+                {"candidates": [{"content": {"role": "model"}}]}
+                """));
+        assertNull(GeminiResponseParser.candidateText("""
+                {"candidates": [{"content": {"parts": []}}]}
+                """));
+    }
+
+    @Test
+    void readsAStreamedChunk() throws IOException {
+        // The data of one SSE event from streamGenerateContent?alt=sse: only the text since the last chunk
+        String chunk = "{\"candidates\": [{\"content\": {\"parts\": [{\"text\": \"lo, wor\"}],\"role\": \"model\"},"
+                + "\"index\": 0}],\"usageMetadata\": {\"promptTokenCount\": 5,\"totalTokenCount\": 5},"
+                + "\"modelVersion\": \"gemini-2.5-flash\"}";
+
+        assertEquals("lo, wor", GeminiResponseParser.candidateText(chunk));
+    }
+
+    @Test
+    void readsTheFinalStreamedChunk() throws IOException {
+        String chunk = "{\"candidates\": [{\"content\": {\"parts\": [{\"text\": \"ld!\"}],\"role\": \"model\"},"
+                + "\"finishReason\": \"STOP\",\"index\": 0}],"
+                + "\"usageMetadata\": {\"promptTokenCount\": 5,\"candidatesTokenCount\": 4,\"totalTokenCount\": 9}}";
+
+        assertEquals("ld!", GeminiResponseParser.candidateText(chunk));
+    }
+
+    @Test
+    void decodesEscapes() throws IOException {
+        String json = "{\"candidates\": [{\"content\": {\"parts\": [{\"text\": \"line\\nnext \\u00e9\\\"q\\\"\"}]}}]}";
+
+        assertEquals("line\nnext é\"q\"", GeminiResponseParser.candidateText(json));
+    }
+}
@@ -0,0 +1,165 @@
+package com.doantotnghiep.aitoolshub.service;
+
+import com.doantotnghiep.aitoolshub.admission.AdaptiveConcurrencyLimit;
+import com.doantotnghiep.aitoolshub.admission.AdmissionControl;
+import com.doantotnghiep.aitoolshub.enums.AiProvider;
+import com.doantotnghiep.aitoolshub.enums.JobStatus;
+import com.doantotnghiep.aitoolshub.model.JobView;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.env.MockEnvironment;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class GenerationJobServiceTest {
+
+    private static final Long OWNER = 1L;
+    private static final Duration WAIT = Duration.ofSeconds(5);
+
+    private GenerationJobService service;
+
+    @AfterEach
+    void stop() {
+        if (service != null) {
+            service.stop();
+        }
+    }
+
+    @Test
+    void runsASubmittedJobToItsResult() {
+        service = newService(new AdmissionControl(new MockEnvironment()), 10, 1_000, 60_000, 1_000);
+        byte[] image = {1, 2, 3};
+
+        JobView submitted = submit(Mono.just(image));
+        JobView finished = awaitFinished(submitted.jobId());
+
+        assertEquals(JobStatus.PENDING, submitted.status());
+        assertEquals(JobStatus.SUCCEEDED, finished.status());
+        assertEquals("/api/tools/jobs/" + submitted.jobId() + "/result", finished.resultUrl());
+        assertEquals(JobStatus.SUCCEEDED, service.getJob(submitted.jobId(), OWNER).status());
+        assertArrayEquals(image, service.getResult(submitted.jobId(), OWNER));
+        assertEquals(MediaType.IMAGE_JPEG, service.getResultType(submitted.jobId(), OWNER));
+    }
+
+    @Test
+    void hidesJobsFromOtherUsers() {
+        service = newService(new AdmissionControl(new MockEnvironment()), 10, 1_000, 60_000, 1_000);
+
+        JobView submitted = submit(Mono.just(new byte[]{1}));
+        awaitFinished(submitted.jobId());
+
+        assertNull(service.getJob(submitted.jobId(), 2L));
+        assertNull(service.getResult(submitted.jobId(), 2L));
+    }
+
+    @Test
+    void reportsAFailedGeneration() {
+        service = newService(new AdmissionControl(new MockEnvironment()), 10, 1_000, 60_000, 1_000);
+
+        JobView finished = awaitFinished(submit(Mono.error(new IllegalStateException("model offline"))).jobId());
+
+        assertEquals(JobStatus.FAILED, finished.status());
+        assertEquals("model offline", finished.error());
+        assertNull(finished.resultUrl());
+    }
+
+    @Test
+    void finishedJobsExpireAfterTheTtl() throws InterruptedException {
+        service = newService(new AdmissionControl(new MockEnvironment()), 10, 1_000, 50, 1_000);
+
+        String jobId = submit(Mono.just(new byte[]{1})).jobId();
+        awaitFinished(jobId);
+        Thread.sleep(100);
+
+        assertNull(service.getJob(jobId, OWNER));
+        assertNull(service.getResult(jobId, OWNER));
+    }
+
+    @Test
+    void failsAResultThatDoesNotFitTheByteBudget() {
+        service = newService(new AdmissionControl(new MockEnvironment()), 10, 10, 60_000, 1_000);
+
+        JobView first = awaitFinished(submit(Mono.just(new byte[8])).jobId());
+        JobView second = awaitFinished(submit(Mono.just(new byte[8])).jobId());
+
+        assertEquals(JobStatus.SUCCEEDED, first.status());
+        assertEquals(JobStatus.FAILED, second.status());
+        assertEquals("Result store is full, try again later", second.error());
+    }
+
+    @Test
+    void expiredResultsFreeTheByteBudget() throws InterruptedException {
+        service = newService(new AdmissionControl(new MockEnvironment()), 10, 10, 50, 1_000);
+
+        awaitFinished(submit(Mono.just(new byte[8])).jobId());
+        Thread.sleep(100);
+        JobView second = awaitFinished(submit(Mono.just(new byte[8])).jobId());
+
+        assertEquals(JobStatus.SUCCEEDED, second.status());
+    }
+
+    @Test
+    void rejectsSubmissionsBeyondTheStoredJobLimit() {
+        service = newService(new AdmissionControl(new MockEnvironment()), 1, 1_000, 60_000, 1_000);
+
+        awaitFinished(submit(Mono.just(new byte[]{1})).jobId());
+
+        assertThrows(RejectedExecutionException.class, () -> submit(Mono.just(new byte[]{1})));
+    }
+
+    @Test
+    void failsWhenTheProviderHasNoPermitInTime() {
+        AdmissionControl admissionControl = new AdmissionControl(new MockEnvironment()
+                .withProperty("admission.providers.huggingface.max-concurrency", "1")
+                .withProperty("admission.providers.huggingface.initial-limit", "1"));
+        AdaptiveConcurrencyLimit limit = admissionControl.limitFor(AiProvider.HUGGING_FACE);
+        limit.tryAcquire();
+        service = newService(admissionControl, 10, 1_000, 60_000, 50);
+
+        JobView finished = awaitFinished(submit(Mono.just(new byte[]{1})).jobId());
+
+        assertEquals(JobStatus.FAILED, finished.status());
+        assertEquals("Service is busy, please retry shortly", finished.error());
+        assertEquals(1, limit.getInFlight());
+    }
+
+    @Test
+    void startsOnceTheProviderReleasesAPermit() throws InterruptedException {
+        AdmissionControl admissionControl = new AdmissionControl(new MockEnvironment()
+                .withProperty("admission.providers.huggingface.max-concurrency", "1")
+                .withProperty("admission.providers.huggingface.initial-limit", "1"));
+        AdaptiveConcurrencyLimit limit = admissionControl.limitFor(AiProvider.HUGGING_FACE);
+        limit.tryAcquire();
+        service = newService(admissionControl, 10, 1_000, 60_000, 5_000);
+
+        String jobId = submit(Mono.just(new byte[]{1})).jobId();
+        Thread.sleep(50);
+        assertEquals(JobStatus.PENDING, service.getJob(jobId, OWNER).status());
+        limit.release();
+
+        assertEquals(JobStatus.SUCCEEDED, awaitFinished(jobId).status());
+        assertEquals(0, limit.getInFlight());
+    }
+
+    private static GenerationJobService newService(AdmissionControl admissionControl, int maxJobs,
+            long maxResultBytes, long ttlMillis, long providerWaitMillis) {
+        return new GenerationJobService(admissionControl, 2, 10, maxJobs, maxResultBytes, ttlMillis,
+                providerWaitMillis, false);
+    }
+
+    private JobView submit(Mono<byte[]> generation) {
+        return service.submit("image", AiProvider.HUGGING_FACE, OWNER, MediaType.IMAGE_JPEG, generation);
+    }
+
+    private JobView awaitFinished(String jobId) {
+        return service.watch(jobId, OWNER).blockLast(WAIT);
+    }
+}
@@ -0,0 +1,245 @@
+package com.doantotnghiep.aitoolshub.service;
+
+import com.doantotnghiep.aitoolshub.blob.BlobStore;
+import com.doantotnghiep.aitoolshub.model.ChatbotHistoryItem;
+import com.doantotnghiep.aitoolshub.repository.ChatbotHistoryRepository;
+import com.doantotnghiep.aitoolshub.repository.ImageHistoryRepository;
+import com.doantotnghiep.aitoolshub.repository.SoundHistoryRepository;
+import com.doantotnghiep.aitoolshub.repository.StoredHistoryRow;
+import com.doantotnghiep.aitoolshub.repository.TextToSpeechHistoryRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.security.access.AccessDeniedException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+class HistoryDeletionServiceTest {
+
+    private static final Long USER = 1L;
+    private static final Long OTHER_USER = 2L;
+    private static final String BUCKET = "gs://bucket/";
+
+    private final ChatbotHistoryRepository chatbotRepository = Mockito.mock(ChatbotHistoryRepository.class);
+    private final ImageHistoryRepository imageRepository = Mockito.mock(ImageHistoryRepository.class);
+    private final TextToSpeechHistoryRepository ttsRepository = Mockito.mock(TextToSpeechHistoryRepository.class);
+    private final SoundHistoryRepository soundRepository = Mockito.mock(SoundHistoryRepository.class);
+    private final BlobStore blobStore = Mockito.mock(BlobStore.class);
+    private final List<Collection<Long>> deletedRows = new ArrayList<>();
+    private final List<List<String>> storageBatches = new ArrayList<>();
+    private final AtomicInteger conversationReads = new AtomicInteger();
+
+    private final ConversationStore conversationStore = new ConversationStore(chatbotRepository, 1_000, 300, 100,
+            3_600_000);
+    private final HistoryDeletionService deletionService = new HistoryDeletionService(chatbotRepository,
+            imageRepository, ttsRepository, soundRepository, conversationStore, blobStore, 3, 2);
+
+    HistoryDeletionServiceTest() {
+        when(blobStore.keyOf(any())).thenAnswer(invocation -> invocation.<String>getArgument(0)
+                .substring(BUCKET.length()));
+        Mockito.doAnswer(invocation -> storageBatches.add(List.copyOf(invocation.getArgument(0))))
+                .when(blobStore).deleteAll(any());
+        when(ttsRepository.deleteOwned(any(), any())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(1);
+            deletedRows.add(List.copyOf(ids));
+            return ids.size();
+        });
+        when(imageRepository.deleteOwned(any(), any())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(1);
+            deletedRows.add(List.copyOf(ids));
+            return ids.size();
+        });
+        when(chatbotRepository.deleteOwned(any(), any())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(1);
+            deletedRows.add(List.copyOf(ids));
+            return ids.size();
+        });
+        when(chatbotRepository.findConversation(any(), any())).thenAnswer(invocation -> {
+            conversationReads.incrementAndGet();
+            return List.of(new ChatbotHistoryItem(1L, "c1", "hi", "hello", LocalDateTime.now()));
+        });
+        when(chatbotRepository.countConversation(any(), any())).thenReturn(1L);
+    }
+
+    @Test
+    void deletesOwnedRowsAndTheirObjects() {
+        when(ttsRepository.findStoredRows(any())).thenReturn(List.of(
+                row(10L, USER, BUCKET + "tts/1/a.mp3"), row(11L, USER, BUCKET + "tts/1/b.mp3")));
+
+        HistoryDeletionService.Result result = deletionService.deleteTtsHistory(USER, List.of(10L, 11L));
+
+        assertEquals(new HistoryDeletionService.Result(2, List.of()), result);
+        assertEquals(List.of(List.of(10L, 11L)), deletedRows);
+        assertEquals(List.of(List.of("tts/1/a.mp3", "tts/1/b.mp3")), storageBatches);
+    }
+
+    @Test
+    void anotherUsersIdDeletesNothing() {
+        when(ttsRepository.findStoredRows(any())).thenReturn(List.of(
+                row(10L, USER, BUCKET + "tts/1/a.mp3"), row(20L, OTHER_USER, BUCKET + "tts/2/b.mp3")));
+
+        assertThrows(AccessDeniedException.class, () -> deletionService.deleteTtsHistory(USER, List.of(10L, 20L)));
+
+        assertTrue(deletedRows.isEmpty());
+        assertTrue(storageBatches.isEmpty());
+    }
+
+    @Test
+    void reportsIdsThatDoNotExist() {
+        when(ttsRepository.findStoredRows(any())).thenReturn(List.of(row(10L, USER, BUCKET + "tts/1/a.mp3")));
+
+        HistoryDeletionService.Result result = deletionService.deleteTtsHistory(USER, List.of(12L, 10L, 13L));
+
+        assertEquals(new HistoryDeletionService.Result(1, List.of(12L, 13L)), result);
+        assertEquals(List.of(List.of(10L)), deletedRows);
+    }
+
+    @Test
+    void onlyMissingIdsDeleteNothing() {
+        when(ttsRepository.findStoredRows(any())).thenReturn(List.of());
+
+        HistoryDeletionService.Result result = deletionService.deleteTtsHistory(USER, List.of(12L));
+
+        assertEquals(new HistoryDeletionService.Result(0, List.of(12L)), result);
+        assertTrue(deletedRows.isEmpty());
+        assertTrue(storageBatches.isEmpty());
+    }
+
+    @Test
+    void deletesStoredObjectsInBatches() {
+        when(imageRepository.findStoredRows(any())).thenReturn(List.of(
+                image(10L, "images/1/a.jpg"), image(11L, "images/1/b.jpg")));
+
+        deletionService.deleteImageHistory(USER, List.of(10L, 11L));
+
+        assertEquals(List.of(
+                List.of("images/1/a.jpg", "images/1/a_thumb.jpg"),
+                List.of("images/1/a_preview.jpg", "images/1/b.jpg"),
+                List.of("images/1/b_thumb.jpg", "images/1/b_preview.jpg")), storageBatches);
+    }
+
+    @Test
+    void keepsCachedSpeechObjects() {
+        when(ttsRepository.findStoredRows(any())).thenReturn(List.of(
+                row(10L, USER, BUCKET + "cache/tts/5f2b.mp3"), row(11L, USER, BUCKET + "tts/1/b.mp3")));
+
+        HistoryDeletionService.Result result = deletionService.deleteTtsHistory(USER, List.of(10L, 11L));
+
+        assertEquals(2, result.deleted());
+        assertEquals(List.of(List.of("tts/1/b.mp3")), storageBatches);
+    }
+
+    @Test
+    void aStorageFailureDoesNotFailTheDelete() {
+        when(ttsRepository.findStoredRows(any())).thenReturn(List.of(row(10L, USER, BUCKET + "tts/1/a.mp3")));
+        Mockito.doAnswer(invocation -> {
+            throw new IllegalStateException("bucket unavailable");
+        }).when(blobStore).deleteAll(any());
+
+        HistoryDeletionService.Result result = deletionService.deleteTtsHistory(USER, List.of(10L));
+
+        assertEquals(new HistoryDeletionService.Result(1, List.of()), result);
+    }
+
+    @Test
+    void rejectsAnEmptyOrOversizedRequest() {
+        assertThrows(IllegalArgumentException.class, () -> deletionService.deleteTtsHistory(USER, List.of()));
+        assertThrows(IllegalArgumentException.class,
+                () -> deletionService.deleteTtsHistory(USER, List.of(1L, 2L, 3L, 4L)));
+        assertTrue(deletedRows.isEmpty());
+    }
+
+    @Test
+    void deletingChatMessagesEvictsTheirConversation() {
+        conversationStore.buildContext(USER, "c1", "next", null);
+        when(chatbotRepository.findStoredRows(any())).thenReturn(List.of(chat(10L, "c1")));
+
+        deletionService.deleteChatbotHistory(USER, List.of(10L));
+        conversationStore.buildContext(USER, "c1", "next", null);
+
+        assertEquals(List.of(List.of(10L)), deletedRows);
+        assertEquals(2, conversationReads.get());
+    }
+
+    private static StoredHistoryRow row(Long id, Long userId, String gcsPath) {
+        return new StoredHistoryRow() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getUserId() {
+                return userId;
+            }
+
+            @Override
+            public String getGcsPath() {
+                return gcsPath;
+            }
+        };
+    }
+
+    private static ImageHistoryRepository.StoredImageRow image(Long id, String key) {
+        String base = key.substring(0, key.lastIndexOf('.'));
+        return new ImageHistoryRepository.StoredImageRow() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getUserId() {
+                return USER;
+            }
+
+            @Override
+            public String getGcsPath() {
+                return BUCKET + key;
+            }
+
+            @Override
+            public String getThumbnailPath() {
+                return BUCKET + base + "_thumb.jpg";
+            }
+
+            @Override
+            public String getPreviewPath() {
+                return BUCKET + base + "_preview.jpg";
+            }
+        };
+    }
+
+    private static ChatbotHistoryRepository.StoredChatRow chat(Long id, String conversationId) {
+        return new ChatbotHistoryRepository.StoredChatRow() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getUserId() {
+                return USER;
+            }
+
+            @Override
+            public String getGcsPath() {
+                return null;
+            }
+
+            @Override
+            public String getConversationId() {
+                return conversationId;
+            }
+        };
+    }
+}
@@ -0,0 +1,155 @@
+package com.doantotnghiep.aitoolshub.service;
+
+import com.doantotnghiep.aitoolshub.blob.BlobStore;
+import com.doantotnghiep.aitoolshub.model.ChatbotHistoryItem;
+import com.doantotnghiep.aitoolshub.model.HistoryItem;
+import com.doantotnghiep.aitoolshub.model.HistoryPage;
+import com.doantotnghiep.aitoolshub.model.ImageHistoryItem;
+import com.doantotnghiep.aitoolshub.model.SoundHistoryItem;
+import com.doantotnghiep.aitoolshub.model.TimelineCursor;
+import com.doantotnghiep.aitoolshub.model.TimelineItem;
+import com.doantotnghiep.aitoolshub.model.TtsHistoryItem;
+import com.doantotnghiep.aitoolshub.repository.ChatbotHistoryRepository;
+import com.doantotnghiep.aitoolshub.repository.ImageHistoryRepository;
+import com.doantotnghiep.aitoolshub.repository.SoundHistoryRepository;
+import com.doantotnghiep.aitoolshub.repository.TextToSpeechHistoryRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+/**
+ * The timeline's k-way merge, against repositories that answer keyset queries the way the real
+ * {@code findPage} queries do.
+ */
+class HistoryServiceTest {
+
+    private static final Long USER = 1L;
+    private static final LocalDateTime T = LocalDateTime.of(2025, 6, 1, 10, 0);
+
+    private final ChatbotHistoryRepository chatbotRepository = Mockito.mock(ChatbotHistoryRepository.class);
+    private final ImageHistoryRepository imageRepository = Mockito.mock(ImageHistoryRepository.class);
+    private final TextToSpeechHistoryRepository ttsRepository = Mockito.mock(TextToSpeechHistoryRepository.class);
+    private final SoundHistoryRepository soundRepository = Mockito.mock(SoundHistoryRepository.class);
+    private final AtomicInteger soundReads = new AtomicInteger();
+
+    private final HistoryService historyService = new HistoryService(chatbotRepository, imageRepository,
+            ttsRepository, soundRepository,
+            new SignedUrlService(Mockito.mock(BlobStore.class), 3_600_000, 300_000, 100), 20, 100);
+
+    @Test
+    void mergesNewestFirstAcrossSources() {
+        givenHistory();
+
+        HistoryPage<TimelineItem> page = historyService.getTimeline(USER, null, 10);
+
+        assertEquals(List.of("IMAGE:2", "CHATBOT:2", "TTS:1", "SOUND:1", "CHATBOT:1", "IMAGE:1", "TTS:2"),
+                keys(page.items()));
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    void pagesWithoutGapsOrRepeats() {
+        givenHistory();
+
+        List<String> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            HistoryPage<TimelineItem> page = historyService.getTimeline(USER, cursor, 3);
+            seen.addAll(keys(page.items()));
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(List.of("IMAGE:2", "CHATBOT:2", "TTS:1", "SOUND:1", "CHATBOT:1", "IMAGE:1", "TTS:2"), seen);
+        assertEquals(3, pages);
+    }
+
+    @Test
+    void exhaustedSourcesAreNotQueriedAgain() {
+        givenHistory();
+
+        HistoryPage<TimelineItem> first = historyService.getTimeline(USER, null, 4);
+        assertEquals(List.of("IMAGE:2", "CHATBOT:2", "TTS:1", "SOUND:1"), keys(first.items()));
+        assertNotNull(first.nextCursor());
+        assertNull(TimelineCursor.decode(first.nextCursor()).position(TimelineItem.Source.SOUND));
+
+        HistoryPage<TimelineItem> second = historyService.getTimeline(USER, first.nextCursor(), 4);
+        assertEquals(List.of("CHATBOT:1", "IMAGE:1", "TTS:2"), keys(second.items()));
+        assertNull(second.nextCursor());
+        assertEquals(1, soundReads.get());
+    }
+
+    @Test
+    void emptyHistoryHasOneEmptyPage() {
+        when(chatbotRepository.findPage(eq(USER), any(), any(), any())).thenReturn(List.of());
+        when(imageRepository.findPage(eq(USER), any(), any(), any())).thenReturn(List.of());
+        when(ttsRepository.findPage(eq(USER), any(), any(), any())).thenReturn(List.of());
+        when(soundRepository.findPage(eq(USER), any(), any(), any())).thenReturn(List.of());
+
+        HistoryPage<TimelineItem> page = historyService.getTimeline(USER, null, 5);
+
+        assertEquals(List.of(), page.items());
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    void rejectsAnInvalidCursor() {
+        assertThrows(IllegalArgumentException.class, () -> historyService.getTimeline(USER, "a.b", 5));
+    }
+
+    // Rows at T+3 and at T+1 in two sources each, to exercise the source-order tie-break
+    private void givenHistory() {
+        List<ChatbotHistoryItem> chats = List.of(
+                new ChatbotHistoryItem(1L, "c1", "hi", "hello", T.plusMinutes(1)),
+                new ChatbotHistoryItem(2L, "c1", "and?", "more", T.plusMinutes(3)));
+        List<ImageHistoryItem> images = List.of(
+                new ImageHistoryItem(1L, "cat", "https://img/1", null, null, "model1", T.plusMinutes(1)),
+                new ImageHistoryItem(2L, "dog", "https://img/2", null, null, "model2", T.plusMinutes(5)));
+        List<TtsHistoryItem> tts = List.of(
+                new TtsHistoryItem(1L, "read", "Rachel", "https://tts/1", 1, 0.5, 0.75, T.plusMinutes(3)),
+                new TtsHistoryItem(2L, "again", "Rachel", "https://tts/2", 1, 0.5, 0.75, T));
+        List<SoundHistoryItem> sounds = List.of(
+                new SoundHistoryItem(1L, "rain", "https://sound/1", 5.0, 0.3, T.plusMinutes(2)));
+
+        when(chatbotRepository.findPage(eq(USER), any(), any(), any())).thenAnswer(call -> keyset(chats, call));
+        when(imageRepository.findPage(eq(USER), any(), any(), any())).thenAnswer(call -> keyset(images, call));
+        when(ttsRepository.findPage(eq(USER), any(), any(), any())).thenAnswer(call -> keyset(tts, call));
+        when(soundRepository.findPage(eq(USER), any(), any(), any())).thenAnswer(call -> {
+            soundReads.incrementAndGet();
+            return keyset(sounds, call);
+        });
+    }
+
+    // WHERE createdAt < :createdAt OR (createdAt = :createdAt AND id < :id) ORDER BY createdAt DESC, id DESC
+    private static <T extends HistoryItem> List<T> keyset(List<T> rows, InvocationOnMock call) {
+        LocalDateTime createdAt = call.getArgument(1);
+        Long id = call.getArgument(2);
+        Pageable pageable = call.getArgument(3);
+        return rows.stream()
+                .filter(row -> row.createdAt().isBefore(createdAt)
+                        || (row.createdAt().isEqual(createdAt) && row.id() < id))
+                .sorted(Comparator.comparing(HistoryItem::createdAt).thenComparing(HistoryItem::id).reversed())
+                .limit(pageable.getPageSize())
+                .toList();
+    }
+
+    private static List<String> keys(List<TimelineItem> items) {
+        return items.stream().map(item -> item.type() + ":" + item.id()).toList();
+    }
+}
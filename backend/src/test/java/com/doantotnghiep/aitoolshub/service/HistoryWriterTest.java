@@ -0,0 +1,277 @@
+package com.doantotnghiep.aitoolshub.service;
+
+import com.doantotnghiep.aitoolshub.admission.AdmissionControl;
+import com.doantotnghiep.aitoolshub.blob.BlobStore;
+import com.doantotnghiep.aitoolshub.metrics.ToolMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+class HistoryWriterTest {
+
+    private static final ToolMetrics TOOL_METRICS = new ToolMetrics(new AdmissionControl(new MockEnvironment()));
+
+    // Runs the callback directly; the tests only care about what reaches the repository
+    private static final TransactionTemplate NO_TRANSACTION = new TransactionTemplate() {
+        @Override
+        public <T> T execute(TransactionCallback<T> action) {
+            return action.doInTransaction(null);
+        }
+    };
+
+    private final BlobStore blobStore = Mockito.mock(BlobStore.class);
+    private final RowRepository repository = Mockito.mock(RowRepository.class);
+    private final List<String> uploaded = Collections.synchronizedList(new ArrayList<>());
+    private final List<String> deleted = Collections.synchronizedList(new ArrayList<>());
+    private final List<List<Row>> batches = Collections.synchronizedList(new ArrayList<>());
+    private final List<Row> savedAlone = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicLong ids = new AtomicLong();
+    private HistoryWriter writer;
+
+    interface RowRepository extends JpaRepository<Row, Long> {
+    }
+
+    static final class Row {
+        private final String name;
+        private final String location;
+        private Long id;
+
+        Row(String name, String location) {
+            this.name = name;
+            this.location = location;
+        }
+    }
+
+    HistoryWriterTest() {
+        when(blobStore.put(any(), any())).thenAnswer(invocation -> {
+            String key = invocation.getArgument(0);
+            uploaded.add(key);
+            return "gs://bucket/" + key;
+        });
+        when(blobStore.locationOf(any())).thenAnswer(invocation -> "gs://bucket/" + invocation.getArgument(0));
+        Mockito.doAnswer(invocation -> deleted.add(invocation.getArgument(0))).when(blobStore).delete(any());
+    }
+
+    @AfterEach
+    void stop() throws InterruptedException {
+        if (writer != null) {
+            writer.stop();
+        }
+    }
+
+    @Test
+    void savesQueuedRowsInOneBatch() throws InterruptedException {
+        acceptAllRows();
+        writer = newWriter(10, 3, 0);
+
+        writer.submit(entry("a"));
+        writer.submit(entry("b"));
+        writer.submit(entry("c"));
+        writer.start();
+        writer.stop();
+
+        assertEquals(1, batches.size());
+        assertEquals(List.of("a", "b", "c"), names(batches.get(0)));
+        assertEquals(List.of("history/a", "history/b", "history/c"), sorted(uploaded));
+        assertEquals("gs://bucket/history/a", batches.get(0).get(0).location);
+    }
+
+    @Test
+    void writesOnTheCallerWhenTheQueueIsFull() {
+        acceptAllRows();
+        writer = newWriter(1, 1, 0);
+
+        writer.submit(entry("queued"));
+        writer.submit(entry("overflow"));
+
+        assertEquals(1, writer.getQueueDepth());
+        assertEquals(1, batches.size());
+        assertEquals(List.of("overflow"), names(batches.get(0)));
+    }
+
+    @Test
+    void dropsOverflowFromAnEventLoopPastTheCap() {
+        acceptAllRows();
+        writer = newWriter(1, 1, 0);
+        writer.submit(entry("queued"));
+
+        Mono.fromRunnable(() -> writer.submit(entry("overflow")))
+                .subscribeOn(Schedulers.parallel())
+                .block();
+
+        assertEquals(1, writer.getQueueDepth());
+        assertTrue(batches.isEmpty());
+        assertTrue(uploaded.isEmpty());
+    }
+
+    @Test
+    void handsOverflowFromAnEventLoopToBoundedElastic() throws InterruptedException {
+        acceptAllRows();
+        writer = newWriter(1, 1, 1);
+        writer.submit(entry("queued"));
+
+        Mono.fromRunnable(() -> writer.submit(entry("overflow")))
+                .subscribeOn(Schedulers.parallel())
+                .block();
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (batches.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, batches.size());
+        assertEquals(List.of("overflow"), names(batches.get(0)));
+    }
+
+    @Test
+    void retriesAFailedBatch() throws InterruptedException {
+        AtomicInteger attempts = new AtomicInteger();
+        when(repository.saveAll(any())).thenAnswer(invocation -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new IllegalStateException("deadlock");
+            }
+            return saveBatch(invocation);
+        });
+        writer = newWriter(10, 3, 0);
+
+        writer.submit(entry("a"));
+        writer.submit(entry("b"));
+        writer.start();
+        writer.stop();
+
+        assertEquals(2, attempts.get());
+        assertEquals(1, batches.size());
+        assertEquals(List.of("a", "b"), names(batches.get(0)));
+    }
+
+    @Test
+    void savesRowsOneByOneWhenTheBatchKeepsFailing() throws InterruptedException {
+        when(repository.saveAll(any())).thenThrow(new IllegalStateException("constraint violation"));
+        when(repository.save(any())).thenAnswer(invocation -> {
+            Row row = invocation.getArgument(0);
+            if (row.name.equals("bad")) {
+                throw new IllegalStateException("constraint violation");
+            }
+            row.id = ids.incrementAndGet();
+            savedAlone.add(row);
+            return row;
+        });
+        writer = newWriter(10, 1, 0);
+
+        writer.submit(entry("a"));
+        writer.submit(entry("bad"));
+        writer.submit(entry("c"));
+        writer.start();
+        writer.stop();
+
+        assertEquals(List.of("a", "c"), names(savedAlone));
+        assertEquals(List.of("history/bad"), deleted);
+    }
+
+    @Test
+    void rebuildsRowsForEveryAttempt() throws InterruptedException {
+        List<Row> attempted = Collections.synchronizedList(new ArrayList<>());
+        when(repository.saveAll(any())).thenAnswer(invocation -> {
+            Iterable<Row> rows = invocation.getArgument(0);
+            rows.forEach(row -> {
+                row.id = ids.incrementAndGet();
+                attempted.add(row);
+            });
+            throw new IllegalStateException("rolled back");
+        });
+        when(repository.save(any())).thenAnswer(invocation -> {
+            Row row = invocation.getArgument(0);
+            attempted.add(row);
+            return row;
+        });
+        writer = newWriter(10, 2, 0);
+
+        writer.submit(entry("a"));
+        writer.submit(entry("b"));
+        writer.start();
+        writer.stop();
+
+        assertEquals(6, attempted.size());
+        assertEquals(6, attempted.stream().distinct().count());
+        assertTrue(attempted.subList(4, 6).stream().allMatch(row -> row.id == null));
+    }
+
+    @Test
+    void dropsARowWhoseUploadFails() throws InterruptedException {
+        acceptAllRows();
+        when(blobStore.put(any(), any())).thenThrow(new IllegalStateException("bucket unavailable"));
+        writer = newWriter(10, 1, 0);
+
+        writer.submit(entry("a"));
+        writer.start();
+        writer.stop();
+
+        assertTrue(batches.isEmpty());
+        assertTrue(deleted.isEmpty());
+    }
+
+    @Test
+    void passesTheSavedRowToTheAfterSaveHook() throws InterruptedException {
+        acceptAllRows();
+        List<Row> afterSave = Collections.synchronizedList(new ArrayList<>());
+        writer = newWriter(10, 1, 0);
+
+        writer.submit(HistoryWriter.Entry.withUpload("history/a", new byte[]{1}, repository,
+                location -> new Row("a", location), afterSave::add));
+        writer.start();
+        writer.stop();
+
+        assertEquals(1, afterSave.size());
+        assertEquals(1L, afterSave.get(0).id.longValue());
+    }
+
+    private HistoryWriter newWriter(int queueCapacity, int maxAttempts, int maxOverflow) {
+        return new HistoryWriter(blobStore, TOOL_METRICS, NO_TRANSACTION, queueCapacity, 1, 50, 2,
+                maxAttempts, maxOverflow, false);
+    }
+
+    private HistoryWriter.Entry<Row> entry(String name) {
+        return HistoryWriter.Entry.withUpload("history/" + name, new byte[]{1}, repository,
+                location -> new Row(name, location));
+    }
+
+    private void acceptAllRows() {
+        when(repository.saveAll(any())).thenAnswer(this::saveBatch);
+    }
+
+    private List<Row> saveBatch(InvocationOnMock invocation) {
+        List<Row> rows = new ArrayList<>();
+        Iterable<Row> argument = invocation.getArgument(0);
+        argument.forEach(row -> {
+            row.id = ids.incrementAndGet();
+            rows.add(row);
+        });
+        batches.add(rows);
+        return rows;
+    }
+
+    private static List<String> names(List<Row> rows) {
+        return rows.stream().map(row -> row.name).toList();
+    }
+
+    private static List<String> sorted(List<String> values) {
+        return values.stream().sorted().toList();
+    }
+}
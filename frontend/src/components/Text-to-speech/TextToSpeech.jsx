@@ -36,6 +36,8 @@ const TextToSpeech = () => {
   const navigate = useNavigate();
   const [activeTab, setActiveTab] = useState("settings");
   const [history, setHistory] = useState([]);
+  const [historyCursor, setHistoryCursor] = useState(null);
+  const [loadingMoreHistory, setLoadingMoreHistory] = useState(false);
   const [input, setInput] = useState("");
   const [voice, setVoice] = useState(VOICES.CALLUM.name);
   const [model] = useState("Eleven Turbo v2.5");
@@ -68,7 +70,9 @@ const TextToSpeech = () => {
         const response = await axiosInstance.get("/api/tools/history/tts", {
           headers: { Authorization: `Bearer ${token}` },
         });
-        setHistory(response.data);
+        // Newest first; older pages are fetched with the returned cursor
+        setHistory(response.data.items);
+        setHistoryCursor(response.data.nextCursor);
       } catch (err) {
         let errorMessage = "Failed to load history.";
         if (err.response) {
@@ -167,7 +171,8 @@ const TextToSpeech = () => {
           headers: { Authorization: `Bearer ${token}` },
         }
       );
-      setHistory(historyResponse.data);
+      setHistory(historyResponse.data.items);
+      setHistoryCursor(historyResponse.data.nextCursor);
 
       toast.success("Speech generated successfully!");
     } catch (error) {
@@ -187,6 +192,33 @@ const TextToSpeech = () => {
     }
   };
 
+  const loadMoreHistory = async () => {
+    if (!historyCursor || loadingMoreHistory) return;
+    const token = localStorage.getItem("token");
+    if (!token) {
+      navigate("/login");
+      return;
+    }
+    setLoadingMoreHistory(true);
+    try {
+      const response = await axiosInstance.get("/api/tools/history/tts", {
+        headers: { Authorization: `Bearer ${token}` },
+        params: { cursor: historyCursor },
+      });
+      setHistory((prevHistory) => [
+        ...prevHistory,
+        ...response.data.items.filter(
+          (item) => !prevHistory.some((existing) => existing.id === item.id)
+        ),
+      ]);
+      setHistoryCursor(response.data.nextCursor);
+    } catch (err) {
+      toast.error(err.response?.data?.error || "Failed to load more history.");
+    } finally {
+      setLoadingMoreHistory(false);
+    }
+  };
+
   // Handle playback for history entries
   const handleHistoryPlayback = (item, index) => {
     const audio = historyAudioRefs.current[index];
@@ -917,6 +949,16 @@ const TextToSpeech = () => {
                       )}
                     </>
                   )}
+                  {historyCursor && (
+                    <button
+                      type="button"
+                      onClick={loadMoreHistory}
+                      disabled={loadingMoreHistory}
+                      className="w-full py-2 rounded-lg border border-gray-300 text-sm text-gray-600 hover:bg-gray-100 disabled:opacity-50"
+                    >
+                      {loadingMoreHistory ? "Loading..." : "Load more"}
+                    </button>
+                  )}
                 </div>
               </div>
             )}
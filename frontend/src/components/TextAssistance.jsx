@@ -8,6 +8,44 @@ import "react-toastify/dist/ReactToastify.css";
 import { useNavigate } from "react-router-dom";
 import { v4 as uuidv4 } from "uuid";
 
+// Groups a page of chat rows by conversation: conversations newest first, messages in order
+const groupConversations = (items) => {
+  const historyMap = new Map();
+  [...items]
+    .filter((entry) => entry.conversationId)
+    .sort(
+      (a, b) => new Date(a.timestamp) - new Date(b.timestamp) || a.id - b.id
+    )
+    .forEach((entry) => {
+      const history = historyMap.get(entry.conversationId) || {
+        id: entry.conversationId,
+        title:
+          entry.input.substring(0, 50) + (entry.input.length > 50 ? "..." : ""),
+        messages: [],
+        timestamp: entry.timestamp,
+      };
+      history.messages.push(
+        {
+          id: uuidv4(),
+          role: "user",
+          text: entry.input,
+          timestamp: entry.timestamp,
+        },
+        {
+          id: uuidv4(),
+          role: "model",
+          text: entry.response,
+          timestamp: entry.timestamp,
+        }
+      );
+      history.timestamp = entry.timestamp;
+      historyMap.set(entry.conversationId, history);
+    });
+  return Array.from(historyMap.values()).sort(
+    (a, b) => new Date(b.timestamp) - new Date(a.timestamp)
+  );
+};
+
 function TextAssistance() {
   const navigate = useNavigate();
   const [messages, setMessages] = useState([]);
@@ -21,6 +59,7 @@ function TextAssistance() {
     localStorage.getItem("currentConversationId") || null
   );
   const [historyLoading, setHistoryLoading] = useState(false);
+  const [historyCursor, setHistoryCursor] = useState(null);
 
   const titleRef = useRef(null);
   const messagesEndRef = useRef(null);
@@ -59,49 +98,10 @@ function TextAssistance() {
           headers: { Authorization: `Bearer ${token}` },
         });
 
-        const historyMap = new Map();
-        response.data.forEach((entry) => {
-          if (!entry.conversationId) return;
-
-          const history = historyMap.get(entry.conversationId) || {
-            id: entry.conversationId,
-            title:
-              entry.input.substring(0, 50) +
-              (entry.input.length > 50 ? "..." : ""),
-            messages: [],
-            timestamp: entry.timestamp,
-            backendIds: [],
-          };
-
-          history.messages.push(
-            {
-              id: uuidv4(),
-              role: "user",
-              text: entry.input,
-              timestamp: entry.timestamp,
-            },
-            {
-              id: uuidv4(),
-              role: "model",
-              text: entry.response,
-              timestamp: entry.timestamp,
-            }
-          );
-          history.backendIds.push(entry.id);
-          if (
-            !history.timestamp ||
-            new Date(entry.timestamp) > new Date(history.timestamp)
-          ) {
-            history.timestamp = entry.timestamp;
-          }
-
-          historyMap.set(entry.conversationId, history);
-        });
-
-        const groupedHistories = Array.from(historyMap.values()).sort(
-          (a, b) => new Date(b.timestamp) - new Date(a.timestamp)
-        );
+        // Newest messages first; older pages are fetched with the returned cursor
+        const groupedHistories = groupConversations(response.data.items);
         setChatHistories(groupedHistories);
+        setHistoryCursor(response.data.nextCursor);
 
         if (currentConversationId && groupedHistories.length > 0) {
           const activeHistory = groupedHistories.find(
@@ -141,6 +141,48 @@ function TextAssistance() {
     fetchHistory();
   }, [navigate]);
 
+  // Older rows either extend a loaded conversation backwards or add older conversations at the end
+  const loadMoreHistory = async () => {
+    if (!historyCursor || historyLoading) return;
+    const token = localStorage.getItem("token");
+    if (!token) {
+      navigate("/login");
+      return;
+    }
+    setHistoryLoading(true);
+    try {
+      const response = await axiosInstance.get("/api/tools/history/chatbot", {
+        headers: { Authorization: `Bearer ${token}` },
+        params: { cursor: historyCursor },
+      });
+      const olderHistories = groupConversations(response.data.items);
+      const updatedHistories = chatHistories.map((history) => {
+        const older = olderHistories.find((h) => h.id === history.id);
+        if (!older) return history;
+        return {
+          ...history,
+          title: older.title,
+          messages: [...older.messages, ...history.messages],
+        };
+      });
+      olderHistories
+        .filter((older) => !chatHistories.some((h) => h.id === older.id))
+        .forEach((older) => updatedHistories.push(older));
+      setChatHistories(updatedHistories);
+      if (activeHistoryIndex !== null && updatedHistories[activeHistoryIndex]) {
+        setMessages(updatedHistories[activeHistoryIndex].messages);
+      }
+      setHistoryCursor(response.data.nextCursor);
+    } catch (err) {
+      console.error("Error loading more chat history:", err);
+      toast.error(
+        err.response?.data?.error || "Failed to load more chat history."
+      );
+    } finally {
+      setHistoryLoading(false);
+    }
+  };
+
   // Auto-scroll to latest message
   useEffect(() => {
     if (messagesEndRef.current) {
@@ -181,7 +223,7 @@ function TextAssistance() {
 
       const response = await axiosInstance.post(
         "/api/tools/chatbot",
-        { messages: updatedMessages, conversationId },
+        { message: userMessage.text, conversationId },
         { headers: { Authorization: `Bearer ${token}` } }
       );
 
@@ -204,9 +246,6 @@ function TextAssistance() {
         updatedHistories[existingHistoryIndex].messages = finalMessages;
         updatedHistories[existingHistoryIndex].timestamp =
           new Date().toISOString();
-        updatedHistories[existingHistoryIndex].backendIds.push(
-          response.data?.id || Date.now()
-        );
         setActiveHistoryIndex(existingHistoryIndex);
       } else {
         const newHistory = {
@@ -214,7 +253,6 @@ function TextAssistance() {
           title: input.substring(0, 50) + (input.length > 50 ? "..." : ""),
           messages: finalMessages,
           timestamp: new Date().toISOString(),
-          backendIds: [response.data?.id || Date.now()],
         };
         updatedHistories.unshift(newHistory);
         setChatHistories(updatedHistories);
@@ -270,14 +308,13 @@ function TextAssistance() {
           return;
         }
 
-        for (const backendId of history.backendIds) {
-          await axiosInstance.delete(
-            `/api/tools/history/chatbot/${backendId}`,
-            {
-              headers: { Authorization: `Bearer ${token}` },
-            }
-          );
-        }
+        // One request removes every message of the conversation
+        await axiosInstance.delete(
+          `/api/tools/history/chatbot/conversations/${encodeURIComponent(history.id)}`,
+          {
+            headers: { Authorization: `Bearer ${token}` },
+          }
+        );
 
         const updatedHistories = chatHistories.filter(
           (_, index) => index !== activeHistoryIndex
@@ -406,6 +443,15 @@ function TextAssistance() {
                 </div>
               ))
             )}
+            {historyCursor && (
+              <button
+                onClick={loadMoreHistory}
+                disabled={historyLoading}
+                className="w-full p-2 bg-gray-800 text-gray-300 rounded-lg hover:bg-gray-700 transition text-sm disabled:opacity-50"
+              >
+                {historyLoading ? "Loading..." : "Load more"}
+              </button>
+            )}
           </div>
           <div className="absolute bottom-0 w-full p-4 border-t border-gray-700 bg-gray-900/60 backdrop-blur-lg">
             <button
@@ -9,6 +9,20 @@ import { motion } from "framer-motion";
 import { useNavigate } from "react-router-dom";
 import { ToastContainer } from "react-toastify";
 
+const toHistoryEntry = (entry) => ({
+  id: entry.id,
+  // URLs come back signed from the backend and are used as they are
+  image: entry.imageUrl,
+  // Signed thumbnail when the backend has derived one
+  thumbnail: entry.thumbnailUrl,
+  prompt: entry.prompt,
+  style: entry.modelUsed,
+  negativePrompt: "",
+  numInferenceSteps: entry.numInferenceSteps || 28,
+  timestamp: entry.createdAt,
+  generationTime: null,
+});
+
 export const TextToImage = () => {
   const navigate = useNavigate();
   const [input, setInput] = useState("");
@@ -17,6 +31,8 @@ export const TextToImage = () => {
   const [selectedStyle, setSelectedStyle] = useState("Default");
   const [apiEndpoint, setApiEndpoint] = useState("/api/tools/model1");
   const [history, setHistory] = useState([]);
+  const [historyCursor, setHistoryCursor] = useState(null);
+  const [loadingMoreHistory, setLoadingMoreHistory] = useState(false);
   const [modalImage, setModalImage] = useState(null);
   const [generationTime, setGenerationTime] = useState(null);
   const [numInferenceSteps, setNumInferenceSteps] = useState(28);
@@ -30,6 +46,7 @@ export const TextToImage = () => {
   const models = [
     { name: "Stable Diffusion 1.0", api: "/api/tools/model1" },
     { name: "Stable Diffusion SDXL", api: "/api/tools/model2" },
+    { name: "Auto (fastest available)", api: "/api/tools/auto" },
   ];
 
   const styles = [
@@ -97,25 +114,9 @@ export const TextToImage = () => {
         const response = await axiosInstance.get("/api/tools/history/images", {
           headers: { Authorization: `Bearer ${token}` },
         });
-        const historyData = response.data.map((entry) => ({
-          id: entry.id,
-          image: `https://storage.googleapis.com/aitoolhub/${entry.gcsPath.replace(
-            "gs://aitoolhub/",
-            ""
-          )}`,
-          prompt: entry.prompt,
-          style: entry.modelUsed,
-          negativePrompt: "",
-          numInferenceSteps: entry.numInferenceSteps || 28,
-          timestamp: entry.createdAt,
-          generationTime: null,
-        }));
-        // Sort by timestamp descending to show newest first
-        setHistory(
-          historyData.sort(
-            (a, b) => new Date(b.timestamp) - new Date(a.timestamp)
-          )
-        );
+        // Newest first; older pages are fetched with the returned cursor
+        setHistory(response.data.items.map(toHistoryEntry));
+        setHistoryCursor(response.data.nextCursor);
       } catch (err) {
         console.error("Error fetching history:", err);
         let errorMessage = "Failed to load history.";
@@ -174,6 +175,35 @@ export const TextToImage = () => {
     setSelectedStyle(style.name);
   }, []);
 
+  const loadMoreHistory = async () => {
+    if (!historyCursor || loadingMoreHistory) return;
+    const token = localStorage.getItem("token");
+    if (!token) {
+      navigate("/login");
+      return;
+    }
+    setLoadingMoreHistory(true);
+    try {
+      const response = await axiosInstance.get("/api/tools/history/images", {
+        headers: { Authorization: `Bearer ${token}` },
+        params: { cursor: historyCursor },
+      });
+      const olderEntries = response.data.items.map(toHistoryEntry);
+      setHistory((prevHistory) => [
+        ...prevHistory,
+        ...olderEntries.filter(
+          (entry) => !prevHistory.some((existing) => existing.id === entry.id)
+        ),
+      ]);
+      setHistoryCursor(response.data.nextCursor);
+    } catch (err) {
+      console.error("Error loading more history:", err);
+      toast.error(err.response?.data?.error || "Failed to load more history.");
+    } finally {
+      setLoadingMoreHistory(false);
+    }
+  };
+
   const handleDelete = async (id) => {
     const confirmDelete = window.confirm(
       "Are you sure you want to delete this image?"
@@ -286,25 +316,8 @@ export const TextToImage = () => {
               headers: { Authorization: `Bearer ${token}` },
             }
           );
-          const historyData = historyResponse.data.map((entry) => ({
-            id: entry.id,
-            image: `https://storage.googleapis.com/aitoolhub/${entry.gcsPath.replace(
-              "gs://aitoolhub/",
-              ""
-            )}`,
-            prompt: entry.prompt,
-            style: entry.modelUsed,
-            negativePrompt: "",
-            numInferenceSteps: entry.numInferenceSteps || 28,
-            timestamp: entry.createdAt,
-            generationTime: null,
-          }));
-          // Sort by timestamp descending
-          setHistory(
-            historyData.sort(
-              (a, b) => new Date(b.timestamp) - new Date(a.timestamp)
-            )
-          );
+          setHistory(historyResponse.data.items.map(toHistoryEntry));
+          setHistoryCursor(historyResponse.data.nextCursor);
         } catch (err) {
           console.error("Error updating history:", err);
           toast.error("Failed to sync history.");
@@ -528,7 +541,8 @@ export const TextToImage = () => {
                 >
                   <div className="relative group">
                     <img
-                      src={entry.image}
+                      src={entry.thumbnail || entry.image}
+                      loading="lazy"
                       alt={`Generated ${entry.id}`}
                       className="w-full h-[150px] lg:h-[180px] object-cover rounded-lg cursor-pointer transition duration-300 hover:opacity-90"
                       onClick={() => setModalImage(entry.image)}
@@ -578,6 +592,15 @@ export const TextToImage = () => {
             ) : (
               <p className="text-gray-400 text-center">No history available.</p>
             )}
+            {historyCursor && (
+              <button
+                onClick={loadMoreHistory}
+                disabled={loadingMoreHistory}
+                className="w-full p-2 bg-gray-700 text-white rounded-lg hover:bg-gray-600 transition disabled:opacity-50"
+              >
+                {loadingMoreHistory ? "Loading..." : "Load more"}
+              </button>
+            )}
           </div>
         </div>
       </div>
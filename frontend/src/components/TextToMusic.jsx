@@ -49,6 +49,8 @@ const TextToMusic = () => {
   const [audioUrl, setAudioUrl] = useState(null);
   const [isPlaying, setIsPlaying] = useState(false);
   const [history, setHistory] = useState([]);
+  const [historyCursor, setHistoryCursor] = useState(null);
+  const [loadingMoreHistory, setLoadingMoreHistory] = useState(false);
   const [isHistoryOpen, setIsHistoryOpen] = useState(false);
   const [currentTime, setCurrentTime] = useState(0);
   const [duration, setDuration] = useState(0);
@@ -74,7 +76,9 @@ const TextToMusic = () => {
           headers: { Authorization: `Bearer ${token}` },
         });
         console.log("Fetched history:", response.data);
-        setHistory(response.data);
+        // Newest first; older pages are fetched with the returned cursor
+        setHistory(response.data.items);
+        setHistoryCursor(response.data.nextCursor);
       } catch (err) {
         console.error("Error fetching history:", err);
         let errorMessage = "Failed to load history.";
@@ -176,7 +180,8 @@ const TextToMusic = () => {
             }
           );
           console.log("Synced history:", historyResponse.data);
-          setHistory(historyResponse.data);
+          setHistory(historyResponse.data.items);
+          setHistoryCursor(historyResponse.data.nextCursor);
         } catch (err) {
           console.error("Error syncing history:", err);
           toast.error("Failed to sync history.");
@@ -262,6 +267,34 @@ const TextToMusic = () => {
   };
 
   // Handle deletion of a history entry
+  const loadMoreHistory = async () => {
+    if (!historyCursor || loadingMoreHistory) return;
+    const token = localStorage.getItem("token");
+    if (!token) {
+      navigate("/login");
+      return;
+    }
+    setLoadingMoreHistory(true);
+    try {
+      const response = await axiosInstance.get("/api/tools/history/sounds", {
+        headers: { Authorization: `Bearer ${token}` },
+        params: { cursor: historyCursor },
+      });
+      setHistory((prevHistory) => [
+        ...prevHistory,
+        ...response.data.items.filter(
+          (item) => !prevHistory.some((existing) => existing.id === item.id)
+        ),
+      ]);
+      setHistoryCursor(response.data.nextCursor);
+    } catch (err) {
+      console.error("Error loading more history:", err);
+      toast.error(err.response?.data?.error || "Failed to load more history.");
+    } finally {
+      setLoadingMoreHistory(false);
+    }
+  };
+
   const handleDeleteHistory = async (id) => {
     const token = localStorage.getItem("token");
     if (!token) {
@@ -941,6 +974,15 @@ const TextToMusic = () => {
                     No history available.
                   </p>
                 )}
+                {historyCursor && (
+                  <button
+                    onClick={loadMoreHistory}
+                    disabled={loadingMoreHistory}
+                    className="w-full p-2 bg-gray-800 text-gray-200 rounded-lg hover:bg-gray-700 transition text-sm disabled:opacity-50"
+                  >
+                    {loadingMoreHistory ? "Loading..." : "Load more"}
+                  </button>
+                )}
               </div>
               <div className="absolute bottom-3 right-3">
                 <button